@@ -0,0 +1,151 @@
+package xyz.wirklich.astro.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import xyz.wirklich.astro.sun.SolarLocation;
+import xyz.wirklich.astro.time.JulianDay;
+
+/**
+ * Every public method of {@link SolarLocation} for one fixed time and place.
+ *
+ * @author Ralf Ulrich
+ */
+@State(Scope.Thread)
+public class SolarLocationBenchmark {
+
+    private JulianDay jd;
+    private SolarLocation location;
+
+    @Setup
+    public void setup() {
+        jd = new JulianDay(2460117.07443);
+        location = new SolarLocation(48.137, 11.575, jd);
+    }
+
+    @Benchmark
+    public SolarLocation construct() {
+        return new SolarLocation(48.137, 11.575, jd);
+    }
+
+    @Benchmark
+    public double geomagneticMeanLongitudeSun() {
+        return location.geomagneticMeanLongitudeSun();
+    }
+
+    @Benchmark
+    public double geomagneticMeanAnomalySun() {
+        return location.geomagneticMeanAnomalySun();
+    }
+
+    @Benchmark
+    public double eccentricityEarthOrbit() {
+        return location.eccentricityEarthOrbit();
+    }
+
+    @Benchmark
+    public double sunEqOfCtr() {
+        return location.sunEqOfCtr();
+    }
+
+    @Benchmark
+    public double sunTrueLong() {
+        return location.sunTrueLong();
+    }
+
+    @Benchmark
+    public double sunTrueAnomaly() {
+        return location.sunTrueAnomaly();
+    }
+
+    @Benchmark
+    public double sunRadVector() {
+        return location.sunRadVector();
+    }
+
+    @Benchmark
+    public double sunApparentLongitude() {
+        return location.sunApparentLongitude();
+    }
+
+    @Benchmark
+    public double meanObliquEcliptic() {
+        return location.meanObliquEcliptic();
+    }
+
+    @Benchmark
+    public double obliqueCorrected() {
+        return location.obliqueCorrected();
+    }
+
+    @Benchmark
+    public double sunRtAscend() {
+        return location.sunRtAscend();
+    }
+
+    @Benchmark
+    public double sunDeclination() {
+        return location.sunDeclination();
+    }
+
+    @Benchmark
+    public double haSunrise() {
+        return location.haSunrise();
+    }
+
+    @Benchmark
+    public double solarNoon() {
+        return location.solarNoon();
+    }
+
+    @Benchmark
+    public double sunrise() {
+        return location.sunrise();
+    }
+
+    @Benchmark
+    public double sunset() {
+        return location.sunset();
+    }
+
+    @Benchmark
+    public double sunlightDuration() {
+        return location.sunlightDuration();
+    }
+
+    @Benchmark
+    public double trueSolarTime() {
+        return location.trueSolarTime();
+    }
+
+    @Benchmark
+    public double hourAngle() {
+        return location.hourAngle();
+    }
+
+    @Benchmark
+    public double solarZenithAngle() {
+        return location.solarZenithAngle();
+    }
+
+    @Benchmark
+    public double solarElevation() {
+        return location.solarElevation();
+    }
+
+    @Benchmark
+    public double refractionCorrection() {
+        return location.refractionCorrection();
+    }
+
+    @Benchmark
+    public double solarElevationCorrected() {
+        return location.solarElevationCorrected();
+    }
+
+    @Benchmark
+    public double solarAzimuth() {
+        return location.solarAzimuth();
+    }
+}
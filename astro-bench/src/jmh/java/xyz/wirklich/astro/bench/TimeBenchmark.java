@@ -0,0 +1,73 @@
+package xyz.wirklich.astro.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import xyz.wirklich.astro.time.FractionOfDay;
+import xyz.wirklich.astro.time.JulianDay;
+import xyz.wirklich.astro.time.ModifiedJulianDate;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Conversions of astro-time.
+ *
+ * @author Ralf Ulrich
+ */
+@State(Scope.Thread)
+public class TimeBenchmark {
+
+    private ZonedDateTime date;
+    private JulianDay jd;
+    private ModifiedJulianDate mjd;
+    private double dayFraction;
+    private double mjdValue;
+
+    @Setup
+    public void setup() {
+        date = ZonedDateTime.of(2023, 6, 21, 13, 47, 11, 123_456_789, ZoneId.of("UTC"));
+        jd = new JulianDay(date);
+        mjd = new ModifiedJulianDate(date);
+        dayFraction = 0.573_912_345;
+        mjdValue = mjd.getMjd();
+    }
+
+    @Benchmark
+    public JulianDay julianDaySetDate() {
+        jd.setDate(date);
+        return jd;
+    }
+
+    @Benchmark
+    public ZonedDateTime julianDayGetDate() {
+        return jd.getDate();
+    }
+
+    @Benchmark
+    public JulianDay julianDayFromDate() {
+        return new JulianDay(date);
+    }
+
+    @Benchmark
+    public double modifiedJulianDateRoundTrip() {
+        mjd.setMjd(mjdValue);
+        return mjd.getJd().getJd();
+    }
+
+    @Benchmark
+    public ZonedDateTime modifiedJulianDateToDate() {
+        return new ModifiedJulianDate(mjdValue).getJd().getDate();
+    }
+
+    @Benchmark
+    public FractionOfDay fractionOfDayFromFraction() {
+        return new FractionOfDay(dayFraction);
+    }
+
+    @Benchmark
+    public FractionOfDay fractionOfDayFromFields() {
+        return new FractionOfDay(13, 47, 11, 123_456_789);
+    }
+}
@@ -0,0 +1,95 @@
+package xyz.wirklich.astro.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import xyz.wirklich.astro.sun.SolarBatch;
+import xyz.wirklich.astro.sun.SolarEphemeris;
+import xyz.wirklich.astro.sun.SolarLocation;
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Realistic mixed workloads: elevation and azimuth for one time at many sites, and for one site at many times.
+ * Scores are per site or per time step.
+ *
+ * @author Ralf Ulrich
+ */
+@State(Scope.Thread)
+public class WorkloadBenchmark {
+
+    private static final int N = 1024;
+
+    private final double[] latitude = new double[N];
+    private final double[] longitude = new double[N];
+    private final double[] jds = new double[N];
+    private final double[] sameJd = new double[N];
+    private final double[] elevation = new double[N];
+    private final double[] azimuth = new double[N];
+    private JulianDay jd;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(42);
+        for (int i = 0; i < N; i++) {
+            latitude[i] = -80 + 160 * rnd.nextDouble();
+            longitude[i] = -180 + 360 * rnd.nextDouble();
+            jds[i] = 2460000 + i / 96.; // every 15 minutes
+        }
+        jd = new JulianDay(2460117.07443);
+        Arrays.fill(sameJd, jd.getJd());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public void oneTimeManySitesLocation(Blackhole bh) {
+        for (int i = 0; i < N; i++) {
+            SolarLocation loc = new SolarLocation(latitude[i], longitude[i], jd);
+            bh.consume(loc.solarElevationCorrected());
+            bh.consume(loc.solarAzimuth());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public void oneTimeManySitesEphemeris(Blackhole bh) {
+        SolarEphemeris eph = new SolarEphemeris(jd);
+        for (int i = 0; i < N; i++) {
+            bh.consume(eph.solarElevationCorrected(latitude[i], longitude[i]));
+            bh.consume(eph.solarAzimuth(latitude[i], longitude[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public double[] oneTimeManySitesBatch() {
+        SolarBatch.compute(sameJd, latitude, longitude, 0, N, elevation, azimuth, null, null);
+        return elevation;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public void oneSiteManyTimesLocation(Blackhole bh) {
+        for (int i = 0; i < N; i++) {
+            SolarLocation loc = new SolarLocation(48.137, 11.575, new JulianDay(jds[i]));
+            bh.consume(loc.solarElevationCorrected());
+            bh.consume(loc.solarAzimuth());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public void oneSiteManyTimesDaily(Blackhole bh) {
+        for (int i = 0; i < N; i++) {
+            SolarLocation loc = new SolarLocation(48.137, 11.575, new JulianDay(jds[i]));
+            bh.consume(loc.sunrise());
+            bh.consume(loc.solarNoon());
+            bh.consume(loc.sunset());
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package xyz.wirklich.astro.cli;
+
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Month;
+import java.time.Year;
+import java.util.Arrays;
+
+/**
+ * Parsing and formatting of numbers and timestamps directly on ASCII bytes, without intermediate strings.
+ *
+ * @author Ralf Ulrich
+ */
+final class Ascii {
+
+    private static final double[] POW10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+            1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    /**
+     * Larger than the decimal exponent of any double, and small enough to add to the scale without overflow.
+     */
+    private static final int MAX_EXPONENT = 100_000;
+
+    private Ascii() {
+    }
+
+    /**
+     * Parses a decimal number like {@code -12.345} or {@code 1.5e3}. Numbers with up to 15 significant digits are
+     * converted exactly, longer ones fall back to {@link Double#parseDouble(String)}, as do exponents of any size
+     * beyond 22.
+     */
+    static double parseDouble(byte[] b, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (b[i] == '-' || b[i] == '+')) {
+            negative = b[i++] == '-';
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean any = false;
+        for (; i < to && isDigit(b[i]); i++, any = true) {
+            if (digits < 18) {
+                mantissa = mantissa * 10 + (b[i] - '0');
+                if (mantissa != 0) digits++;
+            } else {
+                scale++;
+            }
+        }
+        if (i < to && b[i] == '.') {
+            for (i++; i < to && isDigit(b[i]); i++, any = true) {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (b[i] - '0');
+                    if (mantissa != 0) digits++;
+                    scale--;
+                }
+            }
+        }
+        if (!any) {
+            throw invalid("number", b, from, to);
+        }
+        if (i < to && (b[i] == 'e' || b[i] == 'E')) {
+            scale += exponent(b, i + 1, from, to);
+            i = to;
+        }
+        if (i != to) {
+            throw invalid("number", b, from, to);
+        }
+        double value;
+        if (digits <= 15 && scale >= -22 && scale <= 22) {
+            value = scale < 0 ? mantissa / POW10[-scale] : mantissa * POW10[scale];
+        } else {
+            value = Double.parseDouble(new String(b, from, to - from, StandardCharsets.US_ASCII));
+            return value;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * @return The exponent, saturated at +-{@link #MAX_EXPONENT}, beyond which every double is 0 or infinite
+     */
+    private static int exponent(byte[] b, int at, int from, int to) {
+        int i = at;
+        boolean negative = false;
+        if (i < to && (b[i] == '-' || b[i] == '+')) {
+            negative = b[i++] == '-';
+        }
+        if (i == to) {
+            throw invalid("number", b, from, to);
+        }
+        int value = 0;
+        for (; i < to; i++) {
+            if (!isDigit(b[i])) {
+                throw invalid("number", b, from, to);
+            }
+            value = Math.min(value * 10 + (b[i] - '0'), MAX_EXPONENT);
+        }
+        return negative ? -value : value;
+    }
+
+    static long parseLong(byte[] b, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (b[i] == '-' || b[i] == '+')) {
+            negative = b[i++] == '-';
+        }
+        if (i == to) {
+            throw invalid("integer", b, from, to);
+        }
+        long value = 0;
+        for (; i < to; i++) {
+            if (!isDigit(b[i])) {
+                throw invalid("integer", b, from, to);
+            }
+            value = Math.addExact(Math.multiplyExact(value, 10), b[i] - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses an ISO-8601 timestamp {@code yyyy-MM-dd[T ]HH:mm[:ss[.fffffffff]][Z|+HH[:mm]|-HH[:mm]]}, which is UTC
+     * without zone, or the seconds since 1970-01-01T00:00Z with optional fraction.
+     *
+     * @return The Julian Day
+     */
+    static double parseTimestamp(byte[] b, int from, int to) {
+        if (to - from < 10 || b[from + 4] != '-') {
+            double epochSecond = parseDouble(b, from, to);
+            long whole = (long) Math.floor(epochSecond);
+            return JulianDay.EPOCH_JD + Math.floorDiv(whole, 86400)
+                    + (Math.floorMod(whole, 86400) + (epochSecond - whole)) / 86400;
+        }
+        if (b[from + 7] != '-') {
+            throw invalid("timestamp", b, from, to);
+        }
+        long year = digits(b, from, 4, from, to);
+        int month = (int) digits(b, from + 5, 2, from, to);
+        int day = (int) digits(b, from + 8, 2, from, to);
+        if (month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+            throw invalid("timestamp", b, from, to);
+        }
+        int i = from + 10;
+        long seconds = 0;
+        long nanos = 0;
+        if (i < to && (b[i] == 'T' || b[i] == ' ')) {
+            if (i + 6 > to || b[i + 3] != ':') {
+                throw invalid("timestamp", b, from, to);
+            }
+            int hour = (int) digits(b, i + 1, 2, from, to);
+            int minute = (int) digits(b, i + 4, 2, from, to);
+            int second = 0;
+            i += 6;
+            if (i < to && b[i] == ':') {
+                second = (int) digits(b, i + 1, 2, from, to);
+                i += 3;
+                if (i < to && b[i] == '.') {
+                    long scale = 100_000_000;
+                    for (i++; i < to && isDigit(b[i]); i++, scale /= 10) {
+                        nanos += (b[i] - '0') * scale;
+                    }
+                }
+            }
+            if (hour > 23 || minute > 59 || second > 60) {
+                throw invalid("timestamp", b, from, to);
+            }
+            seconds = hour * 3600L + minute * 60L + second;
+            if (i < to && b[i] == 'Z') {
+                i++;
+            } else if (i < to && (b[i] == '+' || b[i] == '-')) {
+                int sign = b[i] == '-' ? -1 : 1;
+                int offset = (int) digits(b, i + 1, 2, from, to) * 3600;
+                i += 3;
+                if (i < to && b[i] == ':') {
+                    i++;
+                }
+                if (i + 2 <= to) {
+                    offset += (int) digits(b, i, 2, from, to) * 60;
+                    i += 2;
+                }
+                seconds -= sign * offset;
+            }
+        }
+        if (i != to) {
+            throw invalid("timestamp", b, from, to);
+        }
+        return JulianDay.EPOCH_JD + epochDay(year, month, day) + (seconds + nanos / 1e9) / 86400;
+    }
+
+    /**
+     * Days since 1970-01-01 of a date in the proleptic Gregorian calendar.
+     */
+    static long epochDay(long year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static long digits(byte[] b, int at, int count, int from, int to) {
+        if (at + count > to) {
+            throw invalid("timestamp", b, from, to);
+        }
+        long value = 0;
+        for (int i = at; i < at + count; i++) {
+            if (!isDigit(b[i])) {
+                throw invalid("timestamp", b, from, to);
+            }
+            value = value * 10 + (b[i] - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static IllegalArgumentException invalid(String what, byte[] b, int from, int to) {
+        return new IllegalArgumentException("invalid " + what + ": "
+                + new String(b, from, to - from, StandardCharsets.US_ASCII));
+    }
+
+    // -----------------------------------------------
+    // formatting
+
+    /**
+     * Growable byte array for the output of one chunk.
+     */
+    static final class Sink {
+
+        private byte[] bytes;
+        private int size;
+
+        Sink(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        void put(byte c) {
+            ensure(1);
+            bytes[size++] = c;
+        }
+
+        void put(byte[] b, int from, int to) {
+            ensure(to - from);
+            System.arraycopy(b, from, bytes, size, to - from);
+            size += to - from;
+        }
+
+        /**
+         * Fixed-point with the given number of decimals, NaN for not a number.
+         */
+        void putFixed(double value, int decimals) {
+            if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 1e12) {
+                byte[] s = Double.toString(value).getBytes(StandardCharsets.US_ASCII);
+                put(s, 0, s.length);
+                return;
+            }
+            long scaled = Math.round(Math.abs(value) * POW10[decimals]);
+            if (value < 0 && scaled != 0) {
+                put((byte) '-');
+            }
+            long factor = (long) POW10[decimals];
+            putDigits(scaled / factor, 1);
+            if (decimals > 0) {
+                put((byte) '.');
+                putDigits(scaled % factor, decimals);
+            }
+        }
+
+        private void putDigits(long value, int minDigits) {
+            ensure(20);
+            int start = size;
+            do {
+                bytes[size++] = (byte) ('0' + value % 10);
+                value /= 10;
+                minDigits--;
+            } while (value != 0 || minDigits > 0);
+            for (int i = start, j = size - 1; i < j; i++, j--) {
+                byte t = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = t;
+            }
+        }
+
+        private void ensure(int more) {
+            if (size + more > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(size + more, bytes.length * 2));
+            }
+        }
+
+        byte[] array() {
+            return bytes;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package xyz.wirklich.astro.cli;
+
+import xyz.wirklich.astro.sun.SolarBatchEngine;
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed-width little-endian records. Input: epoch milliseconds (int64), latitude and longitude in units of [degree]
+ * (float64), 24 bytes. Output: the input record followed by the refraction corrected elevation and the azimuth in
+ * units of [degree] (float64), 40 bytes.
+ *
+ * @author Ralf Ulrich
+ */
+final class BinaryFormat implements RecordFormat {
+
+    static final int INPUT_SIZE = 24;
+    static final int OUTPUT_SIZE = 40;
+
+    private final SolarBatchEngine engine;
+
+    BinaryFormat(SolarBatchEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public int completeLength(ByteBuffer chunk) {
+        return chunk.limit() - chunk.limit() % INPUT_SIZE;
+    }
+
+    @Override
+    public Annotated annotate(ByteBuffer chunk, boolean first) {
+        ByteBuffer in = chunk.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (in.limit() % INPUT_SIZE != 0) {
+            throw new IllegalArgumentException("truncated record at the end of the input");
+        }
+        int n = in.limit() / INPUT_SIZE;
+        double[] jd = new double[n];
+        double[] latitude = new double[n];
+        double[] longitude = new double[n];
+        for (int i = 0; i < n; i++) {
+            int at = i * INPUT_SIZE;
+            jd[i] = JulianDay.epochMilliToJd(in.getLong(at));
+            latitude[i] = in.getDouble(at + 8);
+            longitude[i] = in.getDouble(at + 16);
+        }
+        double[] elevation = new double[n];
+        double[] azimuth = new double[n];
+        engine.compute(jd, latitude, longitude, 0, n, elevation, azimuth, null, null);
+
+        ByteBuffer out = ByteBuffer.allocate(n * OUTPUT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < n; i++) {
+            int at = i * OUTPUT_SIZE;
+            out.put(at, in.array(), in.arrayOffset() + i * INPUT_SIZE, INPUT_SIZE)
+                    .putDouble(at + 24, elevation[i])
+                    .putDouble(at + 32, azimuth[i]);
+        }
+        return new Annotated(out, n);
+    }
+}
@@ -0,0 +1,137 @@
+package xyz.wirklich.astro.cli;
+
+import xyz.wirklich.astro.sun.SolarBatchEngine;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Text records {@code timestamp,latitude,longitude[,...]}, one per line. Each line is written unchanged with the
+ * refraction corrected elevation and the azimuth in units of [degree] appended as two more columns. Empty lines
+ * are dropped. The timestamp is ISO-8601 or seconds since 1970, see {@link Ascii#parseTimestamp(byte[], int, int)}.
+ *
+ * @author Ralf Ulrich
+ */
+final class CsvFormat implements RecordFormat {
+
+    private static final int DECIMALS = 6;
+    private static final byte[] HEADER_COLUMNS = ",elevation,azimuth".getBytes(StandardCharsets.US_ASCII);
+
+    private final SolarBatchEngine engine;
+    private final boolean header;
+
+    /**
+     * @param header True if the first line contains the column names
+     */
+    CsvFormat(SolarBatchEngine engine, boolean header) {
+        this.engine = engine;
+        this.header = header;
+    }
+
+    @Override
+    public int completeLength(ByteBuffer chunk) {
+        for (int i = chunk.limit() - 1; i >= 0; i--) {
+            if (chunk.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public Annotated annotate(ByteBuffer chunk, boolean first) {
+        byte[] b = chunk.array();
+        int base = chunk.arrayOffset();
+        int end = base + chunk.limit();
+        Ascii.Sink out = new Ascii.Sink(chunk.limit() + chunk.limit() / 2);
+
+        int pos = base;
+        if (first && header) {
+            int eol = lineEnd(b, pos, end);
+            out.put(b, pos, trim(b, pos, eol));
+            out.put(HEADER_COLUMNS, 0, HEADER_COLUMNS.length);
+            out.put((byte) '\n');
+            pos = Math.min(end, eol + 1);
+        }
+
+        // first pass: parse into columns
+        int capacity = Math.max(16, (end - pos) / 32);
+        int[] starts = new int[capacity];
+        int[] ends = new int[capacity];
+        double[] jd = new double[capacity];
+        double[] latitude = new double[capacity];
+        double[] longitude = new double[capacity];
+        int n = 0;
+        while (pos < end) {
+            int eol = lineEnd(b, pos, end);
+            int stop = trim(b, pos, eol);
+            if (stop > pos) {
+                if (n == starts.length) {
+                    int grow = n * 2;
+                    starts = Arrays.copyOf(starts, grow);
+                    ends = Arrays.copyOf(ends, grow);
+                    jd = Arrays.copyOf(jd, grow);
+                    latitude = Arrays.copyOf(latitude, grow);
+                    longitude = Arrays.copyOf(longitude, grow);
+                }
+                int c1 = comma(b, pos, stop);
+                int c2 = comma(b, c1 + 1, stop);
+                int c3 = comma(b, c2 + 1, stop);
+                jd[n] = Ascii.parseTimestamp(b, pos, c1);
+                latitude[n] = Ascii.parseDouble(b, c1 + 1, c2);
+                longitude[n] = Ascii.parseDouble(b, c2 + 1, c3);
+                starts[n] = pos;
+                ends[n] = stop;
+                n++;
+            }
+            pos = eol + 1;
+        }
+
+        double[] elevation = new double[n];
+        double[] azimuth = new double[n];
+        engine.compute(jd, latitude, longitude, 0, n, elevation, azimuth, null, null);
+
+        // second pass: the lines with the new columns
+        for (int i = 0; i < n; i++) {
+            out.put(b, starts[i], ends[i]);
+            out.put((byte) ',');
+            out.putFixed(elevation[i], DECIMALS);
+            out.put((byte) ',');
+            out.putFixed(azimuth[i], DECIMALS);
+            out.put((byte) '\n');
+        }
+        return new Annotated(ByteBuffer.wrap(out.array(), 0, out.size()), n);
+    }
+
+    private static int lineEnd(byte[] b, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (b[i] == '\n') {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * @return The end of the line without a trailing carriage return
+     */
+    private static int trim(byte[] b, int from, int to) {
+        return to > from && b[to - 1] == '\r' ? to - 1 : to;
+    }
+
+    /**
+     * @return The position of the next comma, or the end
+     */
+    private static int comma(byte[] b, int from, int to) {
+        if (from > to) {
+            throw new IllegalArgumentException("need timestamp, latitude and longitude");
+        }
+        for (int i = from; i < to; i++) {
+            if (b[i] == ',') {
+                return i;
+            }
+        }
+        return to;
+    }
+}
@@ -0,0 +1,71 @@
+package xyz.wirklich.astro.cli;
+
+import xyz.wirklich.astro.sun.SolarBatchEngine;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Command line tool to annotate large files of (timestamp, latitude, longitude) records with the position of the
+ * sun, see {@link CsvFormat} and {@link BinaryFormat}.
+ * <pre>
+ *   astro-annotate [--binary] [--header] [--threads N] [--chunk MiB] [--input FILE] [--output FILE] [--quiet]
+ * </pre>
+ * Standard input and output are used without files. The throughput is reported on standard error.
+ *
+ * @author Ralf Ulrich
+ */
+public final class Main {
+
+    private Main() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        boolean binary = false;
+        boolean header = false;
+        boolean quiet = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int chunkSize = 4 << 20;
+        Path input = null;
+        Path output = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--binary" -> binary = true;
+                    case "--header" -> header = true;
+                    case "--quiet" -> quiet = true;
+                    case "--threads" -> threads = Integer.parseInt(args[++i]);
+                    case "--chunk" -> chunkSize = Math.toIntExact((long) (Double.parseDouble(args[++i]) * (1 << 20)));
+                    case "--input" -> input = Path.of(args[++i]);
+                    case "--output" -> output = Path.of(args[++i]);
+                    default -> throw new IllegalArgumentException("unknown option " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("usage: astro-annotate [--binary] [--header] [--threads N] [--chunk MiB]"
+                    + " [--input FILE] [--output FILE] [--quiet]");
+            System.exit(2);
+            return;
+        }
+
+        SolarBatchEngine engine = SolarBatchEngine.select();
+        RecordFormat format = binary ? new BinaryFormat(engine) : new CsvFormat(engine, header);
+        Pipeline pipeline = new Pipeline(format, threads, chunkSize);
+        try (ReadableByteChannel in = input != null ? FileChannel.open(input) : Channels.newChannel(System.in);
+             WritableByteChannel out = output != null
+                     ? FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)
+                     : Channels.newChannel(System.out)) {
+            Pipeline.Report report = pipeline.run(in, out);
+            if (!quiet) {
+                System.err.println(report + ", engine " + engine.name() + ", " + threads + " threads");
+            }
+        }
+    }
+}
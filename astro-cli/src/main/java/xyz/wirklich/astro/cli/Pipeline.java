@@ -0,0 +1,142 @@
+package xyz.wirklich.astro.cli;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads records in large chunks, annotates the chunks on a pool of workers and writes the results in input order.
+ * <p>
+ * The calling thread reads a chunk, cuts it after the last complete record, hands it to a worker and carries the
+ * incomplete rest over to the next chunk. At most {@code 2 * threads} chunks are in flight; when this limit is
+ * reached the oldest chunk is written before the next one is read. Thus, the memory is bounded by about
+ * {@code 2 * threads * chunkSize} input plus the same for the output, independent of the size of the input.
+ *
+ * @author Ralf Ulrich
+ */
+final class Pipeline {
+
+    private final RecordFormat format;
+    private final int threads;
+    private final int chunkSize;
+
+    /**
+     * Throughput of one run.
+     */
+    record Report(long records, long bytesIn, long bytesOut, long nanos) {
+
+        double seconds() {
+            return nanos / 1e9;
+        }
+
+        double recordsPerSecond() {
+            return records / seconds();
+        }
+
+        /**
+         * @return Input in units of [MiB/s]
+         */
+        double mebibytesPerSecond() {
+            return bytesIn / seconds() / (1 << 20);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d records, %d bytes in, %d bytes out, %.3f s, %.0f records/s, %.1f MiB/s",
+                    records, bytesIn, bytesOut, seconds(), recordsPerSecond(), mebibytesPerSecond());
+        }
+    }
+
+    /**
+     * @param chunkSize In units of [byte], the longest record must fit into one chunk
+     */
+    Pipeline(RecordFormat format, int threads, int chunkSize) {
+        if (threads < 1 || chunkSize < 64) {
+            throw new IllegalArgumentException("need threads >= 1 and chunkSize >= 64");
+        }
+        this.format = format;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    Report run(ReadableByteChannel in, WritableByteChannel out) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        long records = 0;
+        long bytesIn = 0;
+        long bytesOut = 0;
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "astro-annotate");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ArrayDeque<Future<RecordFormat.Annotated>> pending = new ArrayDeque<>();
+        try {
+            ByteBuffer carry = ByteBuffer.allocate(0);
+            boolean first = true;
+            boolean eof = false;
+            while (!eof) {
+                ByteBuffer chunk = ByteBuffer.allocate(Math.max(chunkSize, carry.remaining() * 2));
+                chunk.put(carry);
+                while (chunk.hasRemaining()) {
+                    int read = in.read(chunk);
+                    if (read < 0) {
+                        eof = true;
+                        break;
+                    }
+                    bytesIn += read;
+                }
+                chunk.flip();
+                int complete = eof ? chunk.limit() : format.completeLength(chunk);
+                if (complete == 0 && !eof) {
+                    throw new IOException("record longer than the chunk size of " + chunkSize + " bytes");
+                }
+                carry = chunk.duplicate().position(complete);
+                chunk.limit(complete);
+                if (complete == 0) {
+                    break;
+                }
+
+                boolean isFirst = first;
+                pending.add(workers.submit(() -> format.annotate(chunk, isFirst)));
+                first = false;
+                while (pending.size() >= 2 * threads) {
+                    RecordFormat.Annotated annotated = next(pending);
+                    records += annotated.records();
+                    bytesOut += write(out, annotated.output());
+                }
+            }
+            while (!pending.isEmpty()) {
+                RecordFormat.Annotated annotated = next(pending);
+                records += annotated.records();
+                bytesOut += write(out, annotated.output());
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return new Report(records, bytesIn, bytesOut, System.nanoTime() - start);
+    }
+
+    private static RecordFormat.Annotated next(ArrayDeque<Future<RecordFormat.Annotated>> pending)
+            throws IOException, InterruptedException {
+        try {
+            return pending.remove().get();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static long write(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        long written = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        return written;
+    }
+}
@@ -0,0 +1,32 @@
+package xyz.wirklich.astro.cli;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of the input and output records of the {@link Pipeline}.
+ *
+ * @author Ralf Ulrich
+ */
+interface RecordFormat {
+
+    /**
+     * @param chunk The bytes read so far, from 0 to the limit
+     * @return The number of leading bytes that form complete records
+     */
+    int completeLength(ByteBuffer chunk);
+
+    /**
+     * Parses the records of one chunk, computes the sun positions and formats the output. Called concurrently for
+     * different chunks.
+     *
+     * @param chunk The complete records, from 0 to the limit
+     * @param first True for the first chunk of the input, e.g. with a header
+     */
+    Annotated annotate(ByteBuffer chunk, boolean first);
+
+    /**
+     * The output of one chunk.
+     */
+    record Annotated(ByteBuffer output, int records) {
+    }
+}
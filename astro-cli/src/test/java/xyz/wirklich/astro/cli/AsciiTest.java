@@ -0,0 +1,99 @@
+package xyz.wirklich.astro.cli;
+
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class AsciiTest {
+
+    @Test
+    void testParseDouble() {
+        Random rnd = new Random(3);
+        for (int i = 0; i < 10000; i++) {
+            double value = (rnd.nextDouble() - 0.5) * Math.pow(10, rnd.nextInt(8));
+            String s = i % 3 == 0 ? String.format("%.6f", value) : Double.toString(value);
+            assertThat(s, Ascii.parseDouble(bytes(s), 0, s.length()), is(Double.parseDouble(s)));
+        }
+        assertThat("exponent", parseDouble("1.5e3"), is(1500.));
+        assertThat("sign", parseDouble("+7"), is(7.));
+        assertThat("fraction", parseDouble("-.25"), is(-0.25));
+        assertThrows(IllegalArgumentException.class, () -> parseDouble("1.2x"));
+        assertThrows(IllegalArgumentException.class, () -> parseDouble("-"));
+        assertThrows(IllegalArgumentException.class, () -> parseDouble("1e"));
+        assertThrows(IllegalArgumentException.class, () -> parseDouble("1e+x"));
+
+        // exponents beyond the int and long range
+        assertThat("overflow", parseDouble("1e4294967297"), is(Double.POSITIVE_INFINITY));
+        assertThat("underflow", parseDouble("-1e-4294967297"), is(-0.));
+        assertThat("long", parseDouble("1e99999999999999999999"), is(Double.POSITIVE_INFINITY));
+        assertThat("large", parseDouble("1.5e300"), is(1.5e300));
+    }
+
+    @Test
+    void testParseTimestamp() {
+        double jd = JulianDay.instantToJd(Instant.parse("2023-06-21T10:15:30.250Z"));
+        assertThat("iso", parseTimestamp("2023-06-21T10:15:30.250Z"), closeTo(jd, 1e-9));
+        assertThat("space", parseTimestamp("2023-06-21 10:15:30.25"), closeTo(jd, 1e-9));
+        assertThat("offset", parseTimestamp("2023-06-21T12:15:30.25+02:00"), closeTo(jd, 1e-9));
+        assertThat("offset", parseTimestamp("2023-06-21T07:45:30.25-0230"), closeTo(jd, 1e-9));
+        assertThat("epoch", parseTimestamp("1687342530.25"), closeTo(jd, 1e-9));
+        assertThat("minutes", parseTimestamp("2023-06-21T10:15"),
+                closeTo(JulianDay.instantToJd(Instant.parse("2023-06-21T10:15:00Z")), 1e-9));
+        assertThat("date", parseTimestamp("1999-12-31"),
+                closeTo(JulianDay.instantToJd(Instant.parse("1999-12-31T00:00:00Z")), 1e-9));
+        assertThat("leap", parseTimestamp("2024-02-29"),
+                closeTo(JulianDay.instantToJd(Instant.parse("2024-02-29T00:00:00Z")), 1e-9));
+        assertThrows(IllegalArgumentException.class, () -> parseTimestamp("2023-13-01T00:00Z"));
+        assertThrows(IllegalArgumentException.class, () -> parseTimestamp("2023-02-29T00:00Z"));
+        assertThrows(IllegalArgumentException.class, () -> parseTimestamp("1900-02-29"));
+        assertThrows(IllegalArgumentException.class, () -> parseTimestamp("2023-04-31T00:00Z"));
+        assertThrows(IllegalArgumentException.class, () -> parseTimestamp("2023-06-21T10:15:30Q"));
+    }
+
+    @Test
+    void testEpochDay() {
+        for (long day = -800_000; day < 800_000; day += 997) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            assertThat(date.toString(), Ascii.epochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()),
+                    is(day));
+        }
+    }
+
+    @Test
+    void testFixed() {
+        Ascii.Sink sink = new Ascii.Sink(0);
+        sink.putFixed(-12.3456789, 6);
+        sink.put((byte) ' ');
+        sink.putFixed(0.0000004, 6);
+        sink.put((byte) ' ');
+        sink.putFixed(-0.0000004, 6);
+        sink.put((byte) ' ');
+        sink.putFixed(359.9999996, 6);
+        sink.put((byte) ' ');
+        sink.putFixed(Double.NaN, 6);
+        assertThat(new String(sink.array(), 0, sink.size(), StandardCharsets.US_ASCII),
+                is("-12.345679 0.000000 0.000000 360.000000 NaN"));
+    }
+
+    private static double parseDouble(String s) {
+        return Ascii.parseDouble(bytes(s), 0, s.length());
+    }
+
+    private static double parseTimestamp(String s) {
+        return Ascii.parseTimestamp(bytes(s), 0, s.length());
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
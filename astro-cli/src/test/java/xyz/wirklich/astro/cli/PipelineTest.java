@@ -0,0 +1,90 @@
+package xyz.wirklich.astro.cli;
+
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.SolarBatchEngine;
+import xyz.wirklich.astro.sun.SolarLocation;
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class PipelineTest {
+
+    private static final int N = 5000;
+
+    @Test
+    void testCsv() throws Exception {
+        StringBuilder input = new StringBuilder("time,lat,lon,id\r\n");
+        for (int i = 0; i < N; i++) {
+            input.append(Instant.ofEpochSecond(1_687_000_000L + i * 613L)).append(',')
+                    .append(-60 + i % 120).append(".5,").append(-170 + i % 340).append(".25,").append(i).append("\r\n");
+            if (i % 1000 == 0) {
+                input.append('\n');
+            }
+        }
+        input.setLength(input.length() - 2); // no line break at the end
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Pipeline pipeline = new Pipeline(new CsvFormat(SolarBatchEngine.scalar(), true), 3, 4096);
+        Pipeline.Report report = pipeline.run(
+                Channels.newChannel(new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.US_ASCII))),
+                Channels.newChannel(out));
+        assertThat("records", report.records(), is((long) N));
+
+        String[] lines = out.toString(StandardCharsets.US_ASCII).split("\n");
+        assertThat("lines", lines.length, is(N + 1));
+        assertThat("header", lines[0], is("time,lat,lon,id,elevation,azimuth"));
+        for (int i = 0; i < N; i += 37) {
+            String[] columns = lines[i + 1].split(",");
+            assertThat("id", columns[3], is(Integer.toString(i)));
+            SolarLocation loc = new SolarLocation(Double.parseDouble(columns[1]), Double.parseDouble(columns[2]),
+                    new JulianDay(JulianDay.epochSecondToJd(1_687_000_000L + i * 613L)));
+            assertThat("elevation", Double.parseDouble(columns[4]), closeTo(loc.solarElevationCorrected(), 1e-6));
+            assertThat("azimuth", Double.parseDouble(columns[5]), closeTo(loc.solarAzimuth(), 1e-6));
+        }
+    }
+
+    @Test
+    void testBinary() throws Exception {
+        ByteBuffer input = ByteBuffer.allocate(N * BinaryFormat.INPUT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < N; i++) {
+            input.putLong(1_687_000_000_000L + i * 61_300L).putDouble(-60 + i % 120).putDouble(-170 + i % 340);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Pipeline pipeline = new Pipeline(new BinaryFormat(SolarBatchEngine.scalar()), 2, 1000);
+        Pipeline.Report report = pipeline.run(Channels.newChannel(new ByteArrayInputStream(input.array())),
+                Channels.newChannel(out));
+        assertThat("records", report.records(), is((long) N));
+        assertThat("bytes", report.bytesOut(), is((long) N * BinaryFormat.OUTPUT_SIZE));
+
+        ByteBuffer result = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < N; i += 41) {
+            int at = i * BinaryFormat.OUTPUT_SIZE;
+            assertThat("time", result.getLong(at), is(1_687_000_000_000L + i * 61_300L));
+            SolarLocation loc = new SolarLocation(result.getDouble(at + 8), result.getDouble(at + 16),
+                    new JulianDay(JulianDay.epochMilliToJd(result.getLong(at))));
+            assertThat("elevation", result.getDouble(at + 24), is(loc.solarElevationCorrected()));
+            assertThat("azimuth", result.getDouble(at + 32), is(loc.solarAzimuth()));
+        }
+    }
+
+    @Test
+    void testErrors() {
+        byte[] bad = "2023-06-21T10:15:30Z,48.1\n".getBytes(StandardCharsets.US_ASCII);
+        Pipeline pipeline = new Pipeline(new CsvFormat(SolarBatchEngine.scalar(), false), 1, 64);
+        assertThrows(IOException.class, () -> pipeline.run(
+                Channels.newChannel(new ByteArrayInputStream(bad)), Channels.newChannel(new ByteArrayOutputStream())));
+    }
+}
@@ -0,0 +1,220 @@
+package xyz.wirklich.astro.sun.vector;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import xyz.wirklich.astro.sun.SolarBatchEngine;
+import xyz.wirklich.astro.sun.SolarLocation;
+
+import java.util.Objects;
+
+import static java.lang.Math.PI;
+
+/**
+ * SIMD implementation of the {@link SolarBatchEngine} based on the incubating Java Vector API.
+ * <p>
+ * Each block of {@link DoubleVector#SPECIES_PREFERRED} rows is evaluated in lanes, the piecewise definitions of the
+ * hour angle, the refraction correction and the azimuth are replaced by masked blends. The remaining rows at the end
+ * of a slice are handed to the {@link SolarBatchEngine#scalar()} engine.
+ * <p>
+ * The lane-wise transcendental functions are not bit-identical to {@link Math}. Compared to {@link SolarLocation},
+ * declination, elevation, zenith and hour angle agree within 1e-9 degree and the equation of time within 1e-9
+ * minutes. The azimuth agrees within 1e-9 degree except very close to the zenith, where it is ill-defined anyway.
+ * <p>
+ * The JVM has to run with {@code --add-modules jdk.incubator.vector}, otherwise {@link SolarBatchEngine#select()}
+ * falls back to the scalar engine.
+ *
+ * @author Ralf Ulrich
+ */
+public final class VectorSolarBatchEngine implements SolarBatchEngine {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private static final double DEG = PI / 180;
+    private static final double RAD = 180 / PI;
+
+    public VectorSolarBatchEngine() {
+    }
+
+    @Override
+    public String name() {
+        return "vector";
+    }
+
+    /**
+     * @return true if the preferred vector shape holds at least four doubles (AVX2, AVX-512, SVE, ...)
+     */
+    @Override
+    public boolean isSupported() {
+        return SPECIES.length() >= 4;
+    }
+
+    @Override
+    public void ephemeris(double[] jd, int offset, int length, double[] declination, double[] equationOfTime) {
+        Objects.checkFromIndexSize(offset, length, jd.length);
+        if (declination != null) Objects.checkFromIndexSize(offset, length, declination.length);
+        if (equationOfTime != null) Objects.checkFromIndexSize(offset, length, equationOfTime.length);
+
+        int i = offset;
+        for (int upper = offset + SPECIES.loopBound(length); i < upper; i += SPECIES.length()) {
+            DoubleVector c = century(DoubleVector.fromArray(SPECIES, jd, i));
+            DoubleVector obliq = obliquity(c);
+            if (declination != null) declination(c, obliq).mul(RAD).intoArray(declination, i);
+            if (equationOfTime != null) equationOfTime(c, obliq).intoArray(equationOfTime, i);
+        }
+        SolarBatchEngine.scalar().ephemeris(jd, i, offset + length - i, declination, equationOfTime);
+    }
+
+    @Override
+    public void compute(double[] jd, double[] latitude, double[] longitude, int offset, int length,
+                        double[] elevation, double[] azimuth, double[] zenith, double[] hourAngle) {
+        Objects.checkFromIndexSize(offset, length, jd.length);
+        Objects.checkFromIndexSize(offset, length, latitude.length);
+        Objects.checkFromIndexSize(offset, length, longitude.length);
+        if (elevation != null) Objects.checkFromIndexSize(offset, length, elevation.length);
+        if (azimuth != null) Objects.checkFromIndexSize(offset, length, azimuth.length);
+        if (zenith != null) Objects.checkFromIndexSize(offset, length, zenith.length);
+        if (hourAngle != null) Objects.checkFromIndexSize(offset, length, hourAngle.length);
+
+        int i = offset;
+        for (int upper = offset + SPECIES.loopBound(length); i < upper; i += SPECIES.length()) {
+            DoubleVector t = DoubleVector.fromArray(SPECIES, jd, i);
+            DoubleVector c = century(t);
+            DoubleVector obliq = obliquity(c);
+            DoubleVector decl = declination(c, obliq);
+            DoubleVector sinDecl = decl.lanewise(VectorOperators.SIN);
+            DoubleVector cosDecl = decl.lanewise(VectorOperators.COS);
+
+            // hour angle [deg]
+            DoubleVector tpm = t.add(0.5);
+            tpm = tpm.sub(floor(tpm));
+            DoubleVector x = tpm.mul(1440)
+                    .add(equationOfTime(c, obliq))
+                    .add(DoubleVector.fromArray(SPECIES, longitude, i).mul(4));
+            DoubleVector q = x.sub(trunc(x.div(1440)).mul(1440)).div(4);
+            DoubleVector ha = q.sub(180).blend(q.add(180), q.compare(VectorOperators.LT, 0));
+
+            // zenith
+            DoubleVector lat = DoubleVector.fromArray(SPECIES, latitude, i).mul(DEG);
+            DoubleVector sinLat = lat.lanewise(VectorOperators.SIN);
+            DoubleVector cosLat = lat.lanewise(VectorOperators.COS);
+            DoubleVector cosZen = sinLat.mul(sinDecl).add(cosLat.mul(cosDecl).mul(ha.mul(DEG).lanewise(VectorOperators.COS)));
+            DoubleVector zen = cosZen.lanewise(VectorOperators.ACOS);
+
+            if (elevation != null) {
+                DoubleVector elev = zen.mul(-RAD).add(90);
+                elev.add(refractionCorrection(elev)).intoArray(elevation, i);
+            }
+            if (azimuth != null) {
+                DoubleVector az = sinLat.mul(cosZen).sub(sinDecl)
+                        .div(cosLat.mul(zen.lanewise(VectorOperators.SIN)))
+                        .lanewise(VectorOperators.ACOS).mul(RAD);
+                DoubleVector am = az.add(180);
+                DoubleVector pm = az.neg().add(180);
+                am = am.sub(360, am.compare(VectorOperators.GE, 360));
+                pm.blend(am, ha.compare(VectorOperators.GT, 0)).intoArray(azimuth, i);
+            }
+            if (zenith != null) zen.mul(RAD).intoArray(zenith, i);
+            if (hourAngle != null) ha.intoArray(hourAngle, i);
+        }
+        SolarBatchEngine.scalar().compute(jd, latitude, longitude, i, offset + length - i,
+                elevation, azimuth, zenith, hourAngle);
+    }
+
+    // -----------------------------------------------
+    // lane-wise versions of the SolarEphemeris formula chain
+
+    private static DoubleVector century(DoubleVector jd) {
+        return jd.sub(2451545).div(36525);
+    }
+
+    /**
+     * @return In units of [degree], not reduced to [0, 360) since it only enters trigonometric functions
+     */
+    private static DoubleVector meanLongitude(DoubleVector c) {
+        return c.mul(0.0003032).add(36000.76983).mul(c).add(280.46646);
+    }
+
+    private static DoubleVector meanAnomaly(DoubleVector c) {
+        return c.mul(-0.0001537).add(35999.05029).mul(c).add(357.52911);
+    }
+
+    private static DoubleVector eccentricity(DoubleVector c) {
+        return c.mul(0.0000001267).add(0.000042037).mul(c).neg().add(0.016708634);
+    }
+
+    /**
+     * @return Longitude of the ascending node of the moon in units of [radian]
+     */
+    private static DoubleVector omega(DoubleVector c) {
+        return c.mul(-1934.136).add(125.04).mul(DEG);
+    }
+
+    /**
+     * @return Corrected obliquity in units of [radian]
+     */
+    private static DoubleVector obliquity(DoubleVector c) {
+        DoubleVector mean = c.mul(-0.001813).add(0.00059).mul(c).add(46.815).mul(c).neg().add(21.448)
+                .div(60).add(26).div(60).add(23);
+        return mean.add(omega(c).lanewise(VectorOperators.COS).mul(0.00256)).mul(DEG);
+    }
+
+    /**
+     * @return In units of [radian]
+     */
+    private static DoubleVector declination(DoubleVector c, DoubleVector obliquity) {
+        DoubleVector m = meanAnomaly(c).mul(DEG);
+        DoubleVector eqCtr = m.lanewise(VectorOperators.SIN).mul(c.mul(0.000014).add(0.004817).mul(c).neg().add(1.914602))
+                .add(m.mul(2).lanewise(VectorOperators.SIN).mul(c.mul(-0.000101).add(0.019993)))
+                .add(m.mul(3).lanewise(VectorOperators.SIN).mul(0.000289));
+        DoubleVector appLong = meanLongitude(c).add(eqCtr).sub(0.00569)
+                .sub(omega(c).lanewise(VectorOperators.SIN).mul(0.00478)).mul(DEG);
+        return obliquity.lanewise(VectorOperators.SIN).mul(appLong.lanewise(VectorOperators.SIN))
+                .lanewise(VectorOperators.ASIN);
+    }
+
+    /**
+     * @return In units of [minute]
+     */
+    private static DoubleVector equationOfTime(DoubleVector c, DoubleVector obliquity) {
+        DoubleVector l = meanLongitude(c).mul(DEG);
+        DoubleVector m = meanAnomaly(c).mul(DEG);
+        DoubleVector ecc = eccentricity(c);
+        DoubleVector y = obliquity.mul(0.5).lanewise(VectorOperators.TAN);
+        y = y.mul(y);
+        DoubleVector sinM = m.lanewise(VectorOperators.SIN);
+        return y.mul(l.mul(2).lanewise(VectorOperators.SIN))
+                .sub(ecc.mul(2).mul(sinM))
+                .add(ecc.mul(4).mul(y).mul(sinM).mul(l.mul(2).lanewise(VectorOperators.COS)))
+                .sub(y.mul(y).mul(0.5).mul(l.mul(4).lanewise(VectorOperators.SIN)))
+                .sub(ecc.mul(ecc).mul(1.25).mul(m.mul(2).lanewise(VectorOperators.SIN)))
+                .mul(4 * RAD);
+    }
+
+    /**
+     * @param elevation In units of [degree]
+     * @return In units of [degree]
+     */
+    private static DoubleVector refractionCorrection(DoubleVector elevation) {
+        DoubleVector inv = DoubleVector.broadcast(SPECIES, 1).div(elevation.mul(DEG).lanewise(VectorOperators.TAN));
+        DoubleVector inv2 = inv.mul(inv);
+        DoubleVector high = inv2.mul(0.000086).sub(0.07).mul(inv2).add(58.1).mul(inv).div(3600);
+        DoubleVector mid = elevation.mul(0.711).add(-12.79).mul(elevation).add(103.4).mul(elevation)
+                .add(-518.2).mul(elevation).add(1735).div(3600);
+        DoubleVector low = inv.mul(-20.772 / 3600);
+        return low.blend(mid, elevation.compare(VectorOperators.GT, -0.575))
+                .blend(high, elevation.compare(VectorOperators.GT, 5))
+                .blend(0, elevation.compare(VectorOperators.GT, 85));
+    }
+
+    private static DoubleVector trunc(DoubleVector v) {
+        return (DoubleVector) v.convert(VectorOperators.D2L, 0).convert(VectorOperators.L2D, 0);
+    }
+
+    private static DoubleVector floor(DoubleVector v) {
+        DoubleVector t = trunc(v);
+        VectorMask<Double> below = v.compare(VectorOperators.LT, t);
+        return t.sub(1, below);
+    }
+}
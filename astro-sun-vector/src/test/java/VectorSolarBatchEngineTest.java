@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.SolarBatchEngine;
+import xyz.wirklich.astro.sun.SolarLocation;
+import xyz.wirklich.astro.sun.vector.VectorSolarBatchEngine;
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+
+class VectorSolarBatchEngineTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    void testAgainstScalar() {
+        int n = 10_003; // not a multiple of any vector length, to exercise the scalar tail
+        Random rnd = new Random(7);
+        double[] jd = new double[n];
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            jd[i] = 2415020 + 73000 * rnd.nextDouble(); // 1900 - 2100
+            lat[i] = -89 + 178 * rnd.nextDouble();
+            lon[i] = -180 + 360 * rnd.nextDouble();
+        }
+
+        double[] elevation = new double[n];
+        double[] azimuth = new double[n];
+        double[] zenith = new double[n];
+        double[] hourAngle = new double[n];
+        double[] declination = new double[n];
+        double[] eqOfTime = new double[n];
+        SolarBatchEngine engine = new VectorSolarBatchEngine();
+        engine.compute(jd, lat, lon, 1, n - 1, elevation, azimuth, zenith, hourAngle);
+        engine.ephemeris(jd, 1, n - 1, declination, eqOfTime);
+
+        for (int i = 1; i < n; i++) {
+            SolarLocation sl = new SolarLocation(lat[i], lon[i], new JulianDay(jd[i]));
+            assertThat("Declination", declination[i], closeTo(sl.sunDeclination(), TOLERANCE));
+            assertThat("Eq of Time", eqOfTime[i], closeTo(sl.getEphemeris().getEquationOfTime(), TOLERANCE));
+            assertThat("Hour Angle", hourAngle[i], closeTo(sl.hourAngle(), TOLERANCE));
+            assertThat("Zenith", zenith[i], closeTo(sl.solarZenithAngle(), TOLERANCE));
+            assertThat("Elevation", elevation[i], closeTo(sl.solarElevationCorrected(), TOLERANCE));
+            if (zenith[i] > 0.01) {
+                assertThat("Azimuth", azimuth[i], closeTo(sl.solarAzimuth(), TOLERANCE));
+            }
+        }
+        assertThat("Untouched row", elevation[0], is(0.));
+    }
+
+    @Test
+    void testRefractionBranches() {
+        // rows at one time, spread over the elevation branches of the refraction correction
+        double[] lat = new double[64];
+        double[] lon = new double[64];
+        double[] jd = new double[64];
+        for (int i = 0; i < lat.length; i++) {
+            jd[i] = 2459782.5;
+            lat[i] = 20;
+            lon[i] = -180 + i * (360. / lat.length);
+        }
+        double[] elevation = new double[lat.length];
+        new VectorSolarBatchEngine().compute(jd, lat, lon, 0, lat.length, elevation, null, null, null);
+        for (int i = 0; i < lat.length; i++) {
+            assertThat("Elevation", elevation[i],
+                    closeTo(new SolarLocation(lat[i], lon[i], new JulianDay(jd[i])).solarElevationCorrected(), TOLERANCE));
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package xyz.wirklich.astro.sun;
+
+import static java.lang.Math.*;
+
+/**
+ * Fast approximation of the time-dependent solar quantities by piecewise Chebyshev polynomials.
+ * <p>
+ * Declination, equation of time, apparent longitude and radius vector are smooth functions of time. The requested
+ * range of Julian Days is cut into segments of equal length, and on each segment every quantity is interpolated at
+ * the Chebyshev nodes of the analytic {@link SolarEphemeris}. A query then costs a few multiply-adds per quantity
+ * instead of the full trigonometric chain.
+ * <p>
+ * After the fit, the deviation from the analytic formulas is sampled densely on every segment. The sampled maximum
+ * is reported by {@link #getMaxDeclinationError()} and friends. With the defaults of 4 day segments and order 8 the
+ * error is far below an arc-second.
+ *
+ * @author Ralf Ulrich
+ */
+public final class ChebyshevEphemeris {
+
+    /**
+     * Number of test points per segment and per polynomial coefficient for the error estimate.
+     */
+    private static final int ERROR_SAMPLES = 4;
+
+    private final double startJd;
+    private final double segmentDays;
+    private final int segments;
+    private final int order;
+
+    // coefficients, segment after segment, (order + 1) per segment
+    private final double[] declination;
+    private final double[] equationOfTime;
+    private final double[] apparentLongitude;
+    private final double[] radiusVector;
+
+    private double maxDeclinationError;
+    private double maxEquationOfTimeError;
+    private double maxApparentLongitudeError;
+    private double maxRadiusVectorError;
+
+    /**
+     * Segments of 4 days and polynomials of order 8.
+     */
+    public ChebyshevEphemeris(double startJd, double endJd) {
+        this(startJd, endJd, 4, 8);
+    }
+
+    /**
+     * @param startJd     The first JD of the range
+     * @param endJd       The last JD of the range, rounded up to full segments
+     * @param segmentDays The length of one segment in units of [day]
+     * @param order       The order of the Chebyshev polynomials
+     */
+    public ChebyshevEphemeris(double startJd, double endJd, double segmentDays, int order) {
+        if (!(endJd > startJd) || !(segmentDays > 0) || order < 1) {
+            throw new IllegalArgumentException("need startJd < endJd, segmentDays > 0 and order >= 1");
+        }
+        this.startJd = startJd;
+        this.segmentDays = segmentDays;
+        this.segments = (int) ceil((endJd - startJd) / segmentDays);
+        this.order = order;
+
+        int n = order + 1;
+        declination = new double[segments * n];
+        equationOfTime = new double[segments * n];
+        apparentLongitude = new double[segments * n];
+        radiusVector = new double[segments * n];
+
+        double[] fDecl = new double[n];
+        double[] fEqT = new double[n];
+        double[] fLong = new double[n];
+        double[] fRad = new double[n];
+        for (int s = 0; s < segments; s++) {
+            double mid = startJd + (s + 0.5) * segmentDays;
+            double longRef = new SolarEphemeris(mid).getApparentLongitude();
+            for (int j = 0; j < n; j++) {
+                double x = cos(PI * (j + 0.5) / n);
+                SolarEphemeris eph = new SolarEphemeris(mid + x * segmentDays / 2);
+                fDecl[j] = eph.getDeclination();
+                fEqT[j] = eph.getEquationOfTime();
+                fLong[j] = unwrap(eph.getApparentLongitude(), longRef);
+                fRad[j] = eph.getRadiusVector();
+            }
+            fit(fDecl, declination, s * n);
+            fit(fEqT, equationOfTime, s * n);
+            fit(fLong, apparentLongitude, s * n);
+            fit(fRad, radiusVector, s * n);
+        }
+        estimateErrors();
+    }
+
+    /**
+     * @return In units of [degree]
+     */
+    public double declination(double jd) {
+        return evaluate(declination, jd);
+    }
+
+    /**
+     * @return In units of [minute]
+     */
+    public double equationOfTime(double jd) {
+        return evaluate(equationOfTime, jd);
+    }
+
+    /**
+     * @return In units of [degree], within [0, 360)
+     */
+    public double apparentLongitude(double jd) {
+        double appLong = evaluate(apparentLongitude, jd) % 360;
+        return appLong < 0 ? appLong + 360 : appLong;
+    }
+
+    /**
+     * @return In units of [AU]
+     */
+    public double radiusVector(double jd) {
+        return evaluate(radiusVector, jd);
+    }
+
+    /**
+     * @return A {@link SolarEphemeris} built from the polynomials, for all site-dependent quantities
+     */
+    public SolarEphemeris ephemeris(double jd) {
+        double jdC = SolarEphemeris.julianCentury(jd);
+        double obliq = SolarEphemeris.obliquityCorrected(jdC, SolarEphemeris.meanObliquity(jdC));
+        double appLong = apparentLongitude(jd);
+        return new SolarEphemeris(jd, appLong, obliq, declination(jd),
+                SolarEphemeris.rightAscension(appLong, obliq), radiusVector(jd), equationOfTime(jd));
+    }
+
+    // -----------------------------------------------
+    // fitting and evaluation
+
+    /**
+     * Chebyshev interpolation at the nodes cos(pi (j + 1/2) / n).
+     */
+    private static void fit(double[] f, double[] coefficients, int offset) {
+        int n = f.length;
+        for (int k = 0; k < n; k++) {
+            double sum = 0;
+            for (int j = 0; j < n; j++) {
+                sum += f[j] * cos(PI * k * (j + 0.5) / n);
+            }
+            coefficients[offset + k] = (k == 0 ? 1. : 2.) * sum / n;
+        }
+    }
+
+    private double evaluate(double[] coefficients, double jd) {
+        double t = (jd - startJd) / segmentDays;
+        int s = (int) floor(t);
+        if (s == segments && t == segments) {
+            s = segments - 1; // the very end of the range
+        }
+        if (s < 0 || s >= segments) {
+            throw new IllegalArgumentException("JD " + jd + " is outside of [" + startJd + ", " + getEndJd() + "]");
+        }
+        return clenshaw(coefficients, s * (order + 1), 2 * (t - s) - 1);
+    }
+
+    private double clenshaw(double[] c, int offset, double x) {
+        double b1 = 0;
+        double b2 = 0;
+        for (int k = order; k > 0; k--) {
+            double b0 = 2 * x * b1 - b2 + c[offset + k];
+            b2 = b1;
+            b1 = b0;
+        }
+        return x * b1 - b2 + c[offset];
+    }
+
+    private static double unwrap(double angle, double reference) {
+        return angle + 360 * rint((reference - angle) / 360);
+    }
+
+    private void estimateErrors() {
+        int samples = ERROR_SAMPLES * (order + 1);
+        for (int s = 0; s < segments; s++) {
+            for (int i = 0; i <= samples; i++) {
+                double jd = startJd + (s + (double) i / samples) * segmentDays;
+                SolarEphemeris eph = new SolarEphemeris(jd);
+                maxDeclinationError = max(maxDeclinationError, abs(declination(jd) - eph.getDeclination()));
+                maxEquationOfTimeError = max(maxEquationOfTimeError, abs(equationOfTime(jd) - eph.getEquationOfTime()));
+                maxApparentLongitudeError = max(maxApparentLongitudeError,
+                        abs(unwrap(apparentLongitude(jd), eph.getApparentLongitude()) - eph.getApparentLongitude()));
+                maxRadiusVectorError = max(maxRadiusVectorError, abs(radiusVector(jd) - eph.getRadiusVector()));
+            }
+        }
+    }
+
+    // -----------------------------------------------
+    // getters
+
+    public double getStartJd() {
+        return startJd;
+    }
+
+    public double getEndJd() {
+        return startJd + segments * segmentDays;
+    }
+
+    public double getSegmentDays() {
+        return segmentDays;
+    }
+
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * @return In units of [degree]
+     */
+    public double getMaxDeclinationError() {
+        return maxDeclinationError;
+    }
+
+    /**
+     * @return In units of [minute]
+     */
+    public double getMaxEquationOfTimeError() {
+        return maxEquationOfTimeError;
+    }
+
+    /**
+     * @return In units of [degree]
+     */
+    public double getMaxApparentLongitudeError() {
+        return maxApparentLongitudeError;
+    }
+
+    /**
+     * @return In units of [AU]
+     */
+    public double getMaxRadiusVectorError() {
+        return maxRadiusVectorError;
+    }
+}
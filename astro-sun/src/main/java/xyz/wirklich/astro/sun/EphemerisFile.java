@@ -0,0 +1,212 @@
+package xyz.wirklich.astro.sun;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.lang.Math.floor;
+import static java.lang.Math.rint;
+
+/**
+ * Precomputed table of the time-dependent solar quantities in a compact binary file, read via a memory map.
+ * <p>
+ * Many short-lived processes can share one table from the page cache instead of each evaluating the same
+ * {@link SolarEphemeris} again. Queries interpolate with a 4-point Lagrange polynomial directly on the mapped
+ * buffer, without copying and without allocation.
+ * <p>
+ * File layout, all values little-endian:
+ * <pre>
+ *   offset  type     content
+ *        0  int      magic "WXEP"
+ *        4  int      version, currently 1
+ *        8  double   JD of the first row
+ *       16  double   step between rows in units of [day]
+ *       24  int      number of rows
+ *       28  int      number of columns per row, currently 4
+ *       32  ...      reserved, zero
+ *       64  double[] rows of: declination [deg], equation of time [min], radius vector [AU],
+ *                    apparent longitude [deg] (continuous, not reduced to [0, 360))
+ * </pre>
+ * With the default step of one hour the interpolation error is below 1e-9 degree.
+ *
+ * @author Ralf Ulrich
+ */
+public final class EphemerisFile {
+
+    public static final int MAGIC = 0x57584550; // "WXEP"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+
+    private static final int COLUMNS = 4;
+    private static final int DECLINATION = 0;
+    private static final int EQ_OF_TIME = 1;
+    private static final int RADIUS_VECTOR = 2;
+    private static final int APPARENT_LONGITUDE = 3;
+
+    private final ByteBuffer data;
+    private final double startJd;
+    private final double stepDays;
+    private final int rows;
+
+    private EphemerisFile(ByteBuffer data) throws IOException {
+        this.data = data.order(ByteOrder.LITTLE_ENDIAN);
+        if (data.capacity() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IOException("not an ephemeris file");
+        }
+        if (data.getInt(4) != VERSION || data.getInt(28) != COLUMNS) {
+            throw new IOException("unsupported ephemeris file version " + data.getInt(4));
+        }
+        this.startJd = data.getDouble(8);
+        this.stepDays = data.getDouble(16);
+        this.rows = data.getInt(24);
+        if (rows < 4 || data.capacity() < HEADER_SIZE + (long) rows * COLUMNS * Double.BYTES) {
+            throw new IOException("truncated ephemeris file");
+        }
+    }
+
+    /**
+     * Maps the file read-only. The mapping stays valid after the channel is closed.
+     */
+    public static EphemerisFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new EphemerisFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Rows of one hour.
+     */
+    public static void write(Path path, double startJd, double endJd) throws IOException {
+        write(path, startJd, 1. / 24, (int) Math.ceil((endJd - startJd) * 24) + 1);
+    }
+
+    /**
+     * @param rows At least 4
+     */
+    public static void write(Path path, double startJd, double stepDays, int rows) throws IOException {
+        if (rows < 4 || !(stepDays > 0)) {
+            throw new IllegalArgumentException("need at least 4 rows and a positive step");
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putDouble(startJd).putDouble(stepDays).putInt(rows).putInt(COLUMNS);
+        header.clear();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+
+            ByteBuffer chunk = ByteBuffer.allocate(4096 * COLUMNS * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            double lastLong = Double.NaN;
+            for (int i = 0; i < rows; i++) {
+                SolarEphemeris eph = new SolarEphemeris(startJd + i * stepDays);
+                double appLong = eph.getApparentLongitude();
+                if (i > 0) {
+                    appLong += 360 * rint((lastLong - appLong) / 360); // keep it continuous for the interpolation
+                }
+                lastLong = appLong;
+                chunk.putDouble(eph.getDeclination())
+                        .putDouble(eph.getEquationOfTime())
+                        .putDouble(eph.getRadiusVector())
+                        .putDouble(appLong);
+                if (!chunk.hasRemaining()) {
+                    chunk.flip();
+                    writeFully(channel, chunk);
+                    chunk.clear();
+                }
+            }
+            chunk.flip();
+            writeFully(channel, chunk);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // -----------------------------------------------
+    // interpolated queries
+
+    /**
+     * @return In units of [degree]
+     */
+    public double declination(double jd) {
+        return interpolate(jd, DECLINATION);
+    }
+
+    /**
+     * @return In units of [minute]
+     */
+    public double equationOfTime(double jd) {
+        return interpolate(jd, EQ_OF_TIME);
+    }
+
+    /**
+     * @return In units of [AU]
+     */
+    public double radiusVector(double jd) {
+        return interpolate(jd, RADIUS_VECTOR);
+    }
+
+    /**
+     * @return In units of [degree], within [0, 360)
+     */
+    public double apparentLongitude(double jd) {
+        double appLong = interpolate(jd, APPARENT_LONGITUDE) % 360;
+        return appLong < 0 ? appLong + 360 : appLong;
+    }
+
+    /**
+     * @return A {@link SolarEphemeris} built from the table, for all site-dependent quantities
+     */
+    public SolarEphemeris ephemeris(double jd) {
+        double jdC = SolarEphemeris.julianCentury(jd);
+        double obliq = SolarEphemeris.obliquityCorrected(jdC, SolarEphemeris.meanObliquity(jdC));
+        double appLong = apparentLongitude(jd);
+        return new SolarEphemeris(jd, appLong, obliq, declination(jd),
+                SolarEphemeris.rightAscension(appLong, obliq), radiusVector(jd), equationOfTime(jd));
+    }
+
+    private double interpolate(double jd, int column) {
+        double t = (jd - startJd) / stepDays;
+        if (!(t >= 0 && t <= rows - 1)) {
+            throw new IllegalArgumentException("JD " + jd + " is outside of [" + startJd + ", " + getEndJd() + "]");
+        }
+        int first = Math.min(Math.max((int) floor(t) - 1, 0), rows - 4);
+        double u = t - first;
+        double u1 = u - 1;
+        double u2 = u - 2;
+        double u3 = u - 3;
+        return -u1 * u2 * u3 / 6 * value(first, column)
+                + u * u2 * u3 / 2 * value(first + 1, column)
+                - u * u1 * u3 / 2 * value(first + 2, column)
+                + u * u1 * u2 / 6 * value(first + 3, column);
+    }
+
+    private double value(int row, int column) {
+        return data.getDouble(HEADER_SIZE + (row * COLUMNS + column) * Double.BYTES);
+    }
+
+    // -----------------------------------------------
+    // getters
+
+    public double getStartJd() {
+        return startJd;
+    }
+
+    public double getEndJd() {
+        return startJd + (rows - 1) * stepDays;
+    }
+
+    public double getStepDays() {
+        return stepDays;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+}
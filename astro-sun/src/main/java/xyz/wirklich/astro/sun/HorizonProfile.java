@@ -0,0 +1,239 @@
+package xyz.wirklich.astro.sun;
+
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static xyz.wirklich.astro.sun.SolarMath.*;
+
+/**
+ * Terrain or skyline of one site as the apparent elevation of the horizon in equally wide azimuth bins, and the
+ * sunrise, sunset and sunlit minutes of a day behind it.
+ * <p>
+ * Bin {@code i} of {@code n} covers the azimuths {@code [i, i+1) * 360/n} degree cw from N. The elevations are stored
+ * as one {@code float[]}, e.g. 360 bins of one degree take 1.4 kB.
+ * <p>
+ * As for {@link SolarEphemeris#sunrise(double, double)}, the declination and equation of time are taken as constant
+ * over the day, at the local solar noon. The daily sun path is then split at the hour angles where its azimuth
+ * crosses the bin boundaries, at most two per boundary, which are solutions of {@code a cos(h) + b sin(h) = c}.
+ * Within each piece the horizon is constant and the sun is above it between the hour angles {@code -H} and {@code H}
+ * of that horizon. Thus, a day costs a few trigonometric calls per bin and no sampling in time. The sun may set and
+ * rise again behind peaks, the {@link Day} reports the first rising, the last setting and the sum of all sunlit
+ * intervals.
+ * <p>
+ * The sun counts as visible from the appearance of its upper limb. The refraction at the horizon elevation follows
+ * Bennett, scaled to the 0.833 degree of {@link SolarEphemeris#haSunrise(double)} at elevation 0, where a flat profile
+ * reproduces {@link SolarLocation#sunrise()} and {@link SolarLocation#sunset()}. Horizons below 0 use the refraction
+ * at 0.
+ * <p>
+ * Immutable and thread-safe.
+ *
+ * @author Ralf Ulrich
+ */
+public final class HorizonProfile {
+
+    /**
+     * Refraction plus semi-diameter of the sun at a flat horizon, in units of [degree].
+     */
+    private static final double FLAT = 0.833;
+    private static final double REFRACTION_FLAT = 0.5667; // deg
+    private static final double SEMI_DIAMETER = FLAT - REFRACTION_FLAT; // deg
+
+    /**
+     * The sunlit part of one day.
+     *
+     * @param epochDay      The UTC date as count of days since 1970-01-01
+     * @param rising        The first appearance of the sun, in UTC as fraction of a day (24h/1d), may be outside of
+     *                      [0, 1), NaN if it is visible at the solar midnight before or not at all
+     * @param setting       The last disappearance of the sun, in UTC as fraction of a day (24h/1d), may be outside of
+     *                      [0, 1), NaN if it is visible at the solar midnight after or not at all
+     * @param sunlitMinutes The total time the sun is visible between the solar midnights, in units of [minute]
+     * @param intervals     The number of separate sunlit intervals, more than 1 if the sun hides behind peaks
+     */
+    public record Day(long epochDay, double rising, double setting, double sunlitMinutes, int intervals) {
+
+        public LocalDate date() {
+            return LocalDate.ofEpochDay(epochDay);
+        }
+    }
+
+    private final float[] elevations; // deg
+    private final double[] sinThresholds;
+
+    /**
+     * @param elevations The apparent elevation of the horizon per azimuth bin in units of [degree], within [-90, 90],
+     *                   copied
+     */
+    public HorizonProfile(float[] elevations) {
+        if (elevations.length == 0) {
+            throw new IllegalArgumentException("need at least one azimuth bin");
+        }
+        this.elevations = elevations.clone();
+        this.sinThresholds = new double[elevations.length];
+        for (int i = 0; i < elevations.length; i++) {
+            float e = elevations[i];
+            if (!(e >= -90 && e <= 90)) {
+                throw new IllegalArgumentException("need elevations within [-90, 90], got " + e + " in bin " + i);
+            }
+            sinThresholds[i] = sinDeg(threshold(e));
+        }
+    }
+
+    /**
+     * The flat horizon at elevation 0.
+     */
+    public static HorizonProfile flat() {
+        return new HorizonProfile(new float[1]);
+    }
+
+    public Day day(double latitude, double longitude, LocalDate date) {
+        return day(latitude, longitude, date.toEpochDay());
+    }
+
+    /**
+     * @param latitude  In units of [degree], + to N
+     * @param longitude In units of [degree], + to E
+     * @param epochDay  The UTC date as count of days since 1970-01-01
+     */
+    public Day day(double latitude, double longitude, long epochDay) {
+        SolarEphemeris eph = new SolarEphemeris(JulianDay.EPOCH_JD + epochDay + 0.5 - longitude / 360);
+        double sinLat = sinDeg(latitude);
+        double cosLat = cosDeg(latitude);
+        double sinDecl = eph.sinDeclination();
+        double cosDecl = eph.cosDeclination();
+        int n = elevations.length;
+        double width = 360. / n;
+
+        // hour angles where the azimuth crosses a bin boundary
+        double[] cuts = new double[2 * n + 2];
+        int m = 0;
+        cuts[m++] = -180;
+        for (int b = 0; b < n; b++) {
+            double sinAz = sinDeg(b * width);
+            double cosAz = cosDeg(b * width);
+            // the sun is on the vertical plane of the azimuth: east * cos(az) - north * sin(az) = 0
+            double a = sinAz * sinLat * cosDecl;
+            double s = -cosAz * cosDecl;
+            double c = sinAz * cosLat * sinDecl;
+            double r = Math.hypot(a, s);
+            if (!(r > 0) || Math.abs(c) > r) {
+                continue;
+            }
+            double phase = atan2Deg(s, a);
+            double delta = acosDeg(c / r);
+            for (int k = delta > 0 ? -1 : 1; k <= 1; k += 2) {
+                double h = wrap(phase + k * delta);
+                // and on the half of the plane towards the azimuth
+                double east = -cosDecl * sinDeg(h);
+                double north = cosLat * sinDecl - sinLat * cosDecl * cosDeg(h);
+                if (east * sinAz + north * cosAz > 0) {
+                    cuts[m++] = h;
+                }
+            }
+        }
+        cuts[m++] = 180;
+        Arrays.sort(cuts, 0, m);
+
+        double first = Double.NaN;
+        double last = Double.NaN;
+        double sunlit = 0;
+        int intervals = 0;
+        for (int k = 0; k + 1 < m; k++) {
+            double lo = cuts[k];
+            double hi = cuts[k + 1];
+            if (!(hi > lo)) {
+                continue;
+            }
+            double mid = (lo + hi) / 2;
+            double az = atan2Deg(-cosDecl * sinDeg(mid), cosLat * sinDecl - sinLat * cosDecl * cosDeg(mid));
+            int bin = (int) Math.floor((az < 0 ? az + 360 : az) / width);
+            double ha = hourAngleAbove(sinThresholds[bin < n ? bin : 0], sinLat, cosLat, sinDecl, cosDecl);
+            double from = Math.max(lo, -ha);
+            double to = Math.min(hi, ha);
+            if (!(to > from)) {
+                continue;
+            }
+            if (intervals == 0) {
+                first = from;
+                intervals = 1;
+            } else if (from > last) {
+                intervals++; // hidden behind a peak in between
+            }
+            sunlit += to - from;
+            last = to;
+        }
+
+        double noon = eph.solarNoon(longitude);
+        double rising = first > -180 ? noon + first / 360 : Double.NaN;
+        double setting = last < 180 ? noon + last / 360 : Double.NaN;
+        return new Day(epochDay, rising, setting, sunlit * 4, intervals);
+    }
+
+    // -----------------------------------------------
+
+    /**
+     * @return The hour angle in [0, 180] until which the sun is above the threshold, -1 if it never is
+     */
+    private static double hourAngleAbove(double sinThreshold, double sinLat, double cosLat, double sinDecl,
+                                         double cosDecl) {
+        double cosHa = (sinThreshold - sinLat * sinDecl) / (cosLat * cosDecl);
+        if (cosHa <= -1) return 180;
+        if (cosHa >= 1) return -1;
+        return acosDeg(cosHa);
+    }
+
+    private static double wrap(double hourAngle) {
+        if (hourAngle >= 180) return hourAngle - 360;
+        if (hourAngle < -180) return hourAngle + 360;
+        return hourAngle;
+    }
+
+    /**
+     * @param elevation Apparent elevation of the horizon in units of [degree]
+     * @return The geometric elevation of the center of the sun when its upper limb appears, in units of [degree]
+     */
+    static double threshold(double elevation) {
+        double e = Math.max(0, elevation);
+        return elevation - SEMI_DIAMETER - REFRACTION_FLAT * bennett(e) / bennett(0);
+    }
+
+    /**
+     * @return The refraction at the apparent elevation in units of [arcminute], after Bennett (1982)
+     */
+    private static double bennett(double elevation) {
+        return 1 / tanDeg(elevation + 7.31 / (elevation + 4.4));
+    }
+
+    // -----------------------------------------------
+    // getters
+
+    public int getBins() {
+        return elevations.length;
+    }
+
+    /**
+     * @return In units of [degree]
+     */
+    public float getElevation(int bin) {
+        return elevations[bin];
+    }
+
+    /**
+     * @param azimuth In units of [degree] cw from N
+     * @return The apparent elevation of the horizon in units of [degree]
+     */
+    public float elevationAt(double azimuth) {
+        double az = azimuth % 360;
+        int bin = (int) Math.floor((az < 0 ? az + 360 : az) * elevations.length / 360);
+        return elevations[bin < elevations.length ? bin : 0];
+    }
+
+    /**
+     * @return The geometric elevation of the center of the sun at which its upper limb appears over the horizon of
+     * the bin, in units of [degree]
+     */
+    public double getThreshold(int bin) {
+        return threshold(elevations[bin]);
+    }
+}
@@ -0,0 +1,383 @@
+package xyz.wirklich.astro.sun;
+
+import xyz.wirklich.astro.time.AstroBulkEvent;
+import xyz.wirklich.astro.time.Instrumentation;
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.Math.PI;
+
+/**
+ * Daily top-of-atmosphere irradiation, the integral of {@code S0 / r^2 * max(0, cos(zenith))} over the day, for a
+ * horizontal surface or a fixed panel.
+ * <p>
+ * The declination and the radius vector are taken as constant over one day, at the local solar noon. Then the
+ * integral over the hour angle has a closed form: the cosine of the zenith angle, {@code a + b cos(h)}, integrates to
+ * {@code 2 (a ws + b sin(ws))} between sunrise and sunset at the hour angles -ws and ws. For a tilted panel the
+ * cosine of the angle of incidence is {@code A + B cos(h) + C sin(h)}. It is integrated over the part of the day
+ * where both the sun is above the horizon and the panel faces the sun, which are at most two intervals with
+ * analytic limits. Thus, one site-day costs a few trigonometric calls instead of hundreds of sampled positions.
+ * Compared to sampling the exact sun position, the error is a few 1e-4 for horizontal surfaces and panels facing the
+ * equator, where the change of the declination in the morning and afternoon cancels, and up to 1e-2 for panels
+ * facing east or west.
+ * <p>
+ * The horizon is the geometric one (zenith angle 90 degree), not the refraction corrected horizon of
+ * {@link SolarEphemeris#haSunrise(double)}, since the irradiance of the sun below the geometric horizon is zero.
+ * <p>
+ * For date ranges, the time-dependent quantities are evaluated once per day at 12:00 UTC and interpolated linearly
+ * to the local solar noon of each site, which is shared by all sites of a grid. The deviation from the direct
+ * evaluation in {@link #day(double, double, LocalDate)} is below 1e-4 degree of declination. Grids are split into
+ * tiles of sites that are processed in a {@link ForkJoinPool}.
+ *
+ * @author Ralf Ulrich
+ */
+public final class InsolationIntegrator {
+
+    /**
+     * Total solar irradiance at 1 AU in units of [W/m^2].
+     */
+    public static final double SOLAR_CONSTANT = 1361;
+
+    /**
+     * Minimum number of site-days of one fork-join tile.
+     */
+    private static final int TILE_SITE_DAYS = 64 * 1024;
+
+    private static final double HOURS_PER_RADIAN = 24 / (2 * PI);
+
+    /**
+     * The irradiation of one day.
+     *
+     * @param epochDay      The UTC date as count of days since 1970-01-01
+     * @param irradiation   On the panel, in units of [Wh/m^2]
+     * @param meanCosZenith The 24h mean of the cosine of the zenith angle, zero while the sun is below the horizon
+     */
+    public record Day(long epochDay, double irradiation, double meanCosZenith) {
+
+        public LocalDate date() {
+            return LocalDate.ofEpochDay(epochDay);
+        }
+    }
+
+    private final double solarConstant;
+    private final double tilt;
+    private final double panelAzimuth;
+    private final boolean horizontal;
+    private final double sinTilt;
+    private final double cosTilt;
+    private final double sinPanelAzimuth;
+    private final double cosPanelAzimuth;
+    private final ForkJoinPool pool;
+
+    /**
+     * A horizontal surface.
+     */
+    public InsolationIntegrator() {
+        this(0, 180);
+    }
+
+    /**
+     * @param tilt         Of the panel from the horizontal in units of [degree]
+     * @param panelAzimuth The direction the panel faces in units of [degree] cw from N, e.g. 180 for S
+     */
+    public InsolationIntegrator(double tilt, double panelAzimuth) {
+        this(SOLAR_CONSTANT, tilt, panelAzimuth, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param solarConstant Irradiance at 1 AU in units of [W/m^2]
+     */
+    public InsolationIntegrator(double solarConstant, double tilt, double panelAzimuth, ForkJoinPool pool) {
+        if (!(solarConstant > 0) || !(tilt >= 0 && tilt <= 180) || !Double.isFinite(panelAzimuth)) {
+            throw new IllegalArgumentException("need solarConstant > 0, tilt within [0, 180] degree and a finite azimuth");
+        }
+        this.solarConstant = solarConstant;
+        this.tilt = tilt;
+        this.panelAzimuth = panelAzimuth;
+        this.horizontal = tilt == 0;
+        this.sinTilt = SolarMath.sinDeg(tilt);
+        this.cosTilt = SolarMath.cosDeg(tilt);
+        this.sinPanelAzimuth = SolarMath.sinDeg(panelAzimuth);
+        this.cosPanelAzimuth = SolarMath.cosDeg(panelAzimuth);
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    // -----------------------------------------------
+    // single site
+
+    /**
+     * @param latitude  In units of [degree], + to N
+     * @param longitude In units of [degree], + to E
+     */
+    public Day day(double latitude, double longitude, LocalDate date) {
+        long epochDay = date.toEpochDay();
+        SolarEphemeris eph = new SolarEphemeris(JulianDay.EPOCH_JD + epochDay + 0.5 - longitude / 360);
+        Site site = new Site(latitude);
+        site.integrate(eph.getDeclination(), eph.getRadiusVector());
+        Instrumentation.count(Instrumentation.CLAMPED, site.clamped);
+        return new Day(epochDay, site.irradiation, site.meanCosZenith);
+    }
+
+    /**
+     * @param to Exclusive
+     * @return One entry per day from the first to the last date
+     */
+    public Day[] days(double latitude, double longitude, LocalDate from, LocalDate to) {
+        Days days = new Days(from, to);
+        Site site = new Site(latitude);
+        double weight = days.weight(longitude);
+        Day[] result = new Day[days.count];
+        for (int i = 0; i < days.count; i++) {
+            days.integrate(site, i, weight);
+            result[i] = new Day(days.epochDay0 + i, site.irradiation, site.meanCosZenith);
+        }
+        Instrumentation.count(Instrumentation.CLAMPED, site.clamped);
+        return result;
+    }
+
+    // -----------------------------------------------
+    // grids
+
+    /**
+     * The irradiation of many sites, summed over a range of days. Either output may be {@code null}.
+     *
+     * @param latitude      In units of [degree], + to N
+     * @param longitude     In units of [degree], + to E, same length as latitude
+     * @param to            Exclusive
+     * @param irradiation   Receives the sum over all days on the panel, in units of [Wh/m^2]
+     * @param meanCosZenith Receives the mean of the cosine of the zenith angle over all days
+     */
+    public void integrate(double[] latitude, double[] longitude, LocalDate from, LocalDate to,
+                          double[] irradiation, double[] meanCosZenith) {
+        int sites = latitude.length;
+        Objects.checkFromIndexSize(0, sites, longitude.length);
+        if (irradiation != null) Objects.checkFromIndexSize(0, sites, irradiation.length);
+        if (meanCosZenith != null) Objects.checkFromIndexSize(0, sites, meanCosZenith.length);
+        AstroBulkEvent event = new AstroBulkEvent("InsolationIntegrator.integrate");
+        long start = Instrumentation.start();
+        Days days = new Days(from, to);
+        LongAdder clamped = new LongAdder();
+        pool.invoke(new Tile(0, sites, days, (s0, s1) -> {
+            long tileClamped = 0;
+            for (int s = s0; s < s1; s++) {
+                Site site = new Site(latitude[s]);
+                double weight = days.weight(longitude[s]);
+                double sumIrradiation = 0;
+                double sumCosZenith = 0;
+                for (int i = 0; i < days.count; i++) {
+                    days.integrate(site, i, weight);
+                    sumIrradiation += site.irradiation;
+                    sumCosZenith += site.meanCosZenith;
+                }
+                if (irradiation != null) irradiation[s] = sumIrradiation;
+                if (meanCosZenith != null) meanCosZenith[s] = sumCosZenith / days.count;
+                tileClamped += site.clamped;
+            }
+            clamped.add(tileClamped);
+        }));
+        Instrumentation.finish(event, start, (long) sites * days.count,
+                irradiation != null && Instrumentation.countsNaN(event, start)
+                        ? Instrumentation.countNaN(irradiation, 0, sites) : 0, clamped.sum());
+    }
+
+    // -----------------------------------------------
+
+    /**
+     * The latitude terms of one site and the results of the last integrated day.
+     */
+    private final class Site {
+
+        final double sinLat;
+        final double cosLat;
+
+        double irradiation;
+        double meanCosZenith;
+        int clamped; // days of polar day or night, reported by the caller
+
+        Site(double latitude) {
+            if (!(Math.abs(latitude) <= 90)) {
+                throw new IllegalArgumentException("invalid latitude " + latitude);
+            }
+            sinLat = SolarMath.sinDeg(latitude);
+            cosLat = SolarMath.cosDeg(latitude);
+        }
+
+        /**
+         * @param declination  In units of [degree]
+         * @param radiusVector In units of [AU]
+         */
+        void integrate(double declination, double radiusVector) {
+            double sinDecl = SolarMath.sinDeg(declination);
+            double cosDecl = SolarMath.cosDeg(declination);
+            double a = sinLat * sinDecl;
+            double b = cosLat * cosDecl;
+
+            // sunset hour angle, cos(ws) = -tan(lat) tan(decl)
+            double ws;
+            if (b <= 0) {
+                ws = a > 0 ? PI : 0; // pole
+            } else {
+                double cosWs = -a / b;
+                if (cosWs > -1 && cosWs < 1) {
+                    ws = SolarMath.acos(cosWs);
+                } else {
+                    ws = cosWs <= -1 ? PI : 0; // polar day or night
+                    clamped++;
+                }
+            }
+            double horizontalIntegral = 2 * (a * ws + b * SolarMath.sin(ws));
+            meanCosZenith = horizontalIntegral / (2 * PI);
+
+            double integral;
+            if (horizontal) {
+                integral = horizontalIntegral;
+            } else {
+                // cos(incidence) = A + B cos(h) + C sin(h), with the sun (E, N, Up) =
+                // (-cos(decl) sin(h), cos(lat) sin(decl) - sin(lat) cos(decl) cos(h), a + b cos(h))
+                double tiltN = sinTilt * cosPanelAzimuth;
+                double tiltE = sinTilt * sinPanelAzimuth;
+                double A = sinDecl * (tiltN * cosLat + cosTilt * sinLat);
+                double B = cosDecl * (cosTilt * cosLat - tiltN * sinLat);
+                double C = -cosDecl * tiltE;
+                integral = incidenceIntegral(A, B, C, ws);
+            }
+            irradiation = solarConstant / (radiusVector * radiusVector) * integral * HOURS_PER_RADIAN;
+        }
+    }
+
+    /**
+     * @return The integral of max(0, A + B cos(h) + C sin(h)) over h within [-ws, ws]
+     */
+    static double incidenceIntegral(double A, double B, double C, double ws) {
+        if (ws <= 0) {
+            return 0;
+        }
+        double R = Math.hypot(B, C);
+        double c = R > 0 ? -A / R : A > 0 ? -1 : 1;
+        if (c <= -1) {
+            return primitive(A, B, C, ws) - primitive(A, B, C, -ws);
+        }
+        if (c >= 1) {
+            return 0;
+        }
+        // A + R cos(h - psi) > 0 on the arc psi +- alpha, shifted by full turns into [-ws, ws]
+        double alpha = SolarMath.acos(c);
+        double psi = SolarMath.atan2(C, B);
+        double sum = 0;
+        for (int k = -1; k <= 1; k++) {
+            double lo = Math.max(-ws, psi - alpha + 2 * PI * k);
+            double hi = Math.min(ws, psi + alpha + 2 * PI * k);
+            if (hi > lo) {
+                sum += primitive(A, B, C, hi) - primitive(A, B, C, lo);
+            }
+        }
+        return sum;
+    }
+
+    private static double primitive(double A, double B, double C, double h) {
+        return A * h + B * SolarMath.sin(h) - C * SolarMath.cos(h);
+    }
+
+    /**
+     * Declination and radius vector at 12:00 UTC from the day before the first to the day after the last date.
+     */
+    private static final class Days {
+
+        final long epochDay0;
+        final int count;
+        final double[] declination;
+        final double[] radiusVector;
+
+        Days(LocalDate from, LocalDate to) {
+            long first = from.toEpochDay();
+            long days = to.toEpochDay() - first;
+            if (days <= 0 || days > Integer.MAX_VALUE - 2) {
+                throw new IllegalArgumentException("need from before to, got " + from + " and " + to);
+            }
+            epochDay0 = first;
+            count = (int) days;
+            declination = new double[count + 2];
+            radiusVector = new double[count + 2];
+            for (int i = 0; i < count + 2; i++) {
+                SolarEphemeris eph = new SolarEphemeris(JulianDay.EPOCH_JD + first + i - 0.5);
+                declination[i] = eph.getDeclination();
+                radiusVector[i] = eph.getRadiusVector();
+            }
+        }
+
+        /**
+         * @return The offset of the local solar noon from 12:00 UTC in units of [day], within [-0.5, 0.5)
+         */
+        double weight(double longitude) {
+            double lon = longitude - 360 * Math.floor((longitude + 180) / 360);
+            return -lon / 360;
+        }
+
+        void integrate(Site site, int day, double weight) {
+            int j = day + 1;
+            int k = weight < 0 ? j - 1 : j + 1;
+            double w = Math.abs(weight);
+            site.integrate(declination[j] + w * (declination[k] - declination[j]),
+                    radiusVector[j] + w * (radiusVector[k] - radiusVector[j]));
+        }
+    }
+
+    private interface SiteRange {
+        void run(int fromSite, int toSite);
+    }
+
+    @SuppressWarnings("serial") // never serialized
+    private static final class Tile extends RecursiveAction {
+
+        private final int fromSite;
+        private final int toSite;
+        private final Days days;
+        private final SiteRange work;
+
+        Tile(int fromSite, int toSite, Days days, SiteRange work) {
+            this.fromSite = fromSite;
+            this.toSite = toSite;
+            this.days = days;
+            this.work = work;
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) (toSite - fromSite) * days.count <= TILE_SITE_DAYS || toSite - fromSite <= 1) {
+                work.run(fromSite, toSite);
+                return;
+            }
+            int mid = (fromSite + toSite) >>> 1;
+            invokeAll(new Tile(fromSite, mid, days, work), new Tile(mid, toSite, days, work));
+        }
+    }
+
+    // -----------------------------------------------
+    // getters
+
+    /**
+     * @return In units of [W/m^2]
+     */
+    public double getSolarConstant() {
+        return solarConstant;
+    }
+
+    /**
+     * @return In units of [degree]
+     */
+    public double getTilt() {
+        return tilt;
+    }
+
+    /**
+     * @return In units of [degree] cw from N
+     */
+    public double getPanelAzimuth() {
+        return panelAzimuth;
+    }
+}
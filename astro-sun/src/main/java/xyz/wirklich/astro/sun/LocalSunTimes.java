@@ -0,0 +1,179 @@
+package xyz.wirklich.astro.sun;
+
+import xyz.wirklich.astro.time.JulianDay;
+import xyz.wirklich.astro.time.ZoneOffsetTable;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Reusable holder for sunrise, solar noon and sunset of one site and local date, as primitive epoch milliseconds in
+ * UTC and on the local time-line of a time zone.
+ * <p>
+ * The times are those of {@link SolarLocation#sunrise()}, {@link SolarLocation#solarNoon()} and
+ * {@link SolarLocation#sunset()}, with the ephemeris evaluated at the solar noon that falls on the local date. Where
+ * the zone offset differs from the solar time by half a day or more, e.g. Pacific/Kiritimati at UTC+14 and longitude
+ * -157, this is the solar noon of the UTC day before or after the date. The offsets come
+ * from a {@link ZoneOffsetTable}, so, computing the times of many sites or days allocates nothing: call
+ * {@link #compute(double, double, long)} on the same instance again.
+ * <p>
+ * During polar day and polar night there is no sunrise and sunset, their times are {@link #NONE}.
+ * <p>
+ * Instances are not thread-safe, use one holder per thread.
+ *
+ * @author Ralf Ulrich
+ */
+public final class LocalSunTimes {
+
+    /**
+     * Marks a missing sunrise or sunset.
+     */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final double MILLIS_PER_DAY = 86_400_000;
+
+    private final ZoneOffsetTable zone;
+
+    private long epochDay;
+    private long sunrise = NONE;
+    private long solarNoon = NONE;
+    private long sunset = NONE;
+    private int sunriseOffset;
+    private int solarNoonOffset;
+    private int sunsetOffset;
+
+    public LocalSunTimes(ZoneOffsetTable zone) {
+        this.zone = Objects.requireNonNull(zone);
+    }
+
+    public LocalSunTimes compute(double latitude, double longitude, LocalDate date) {
+        return compute(latitude, longitude, date.toEpochDay());
+    }
+
+    /**
+     * @param latitude  In units of [degree], + to N
+     * @param longitude In units of [degree], + to E
+     * @param epochDay  The local date as count of days since 1970-01-01
+     * @return this
+     */
+    public LocalSunTimes compute(double latitude, double longitude, long epochDay) {
+        // the UTC day whose solar noon is on the local date: the local clock is ahead of the solar time by
+        // offset - longitude / 360 days, which shifts the solar noon by whole days for far off zones
+        long localNoon = epochDay * 86_400_000 + 43_200_000;
+        int offset = zone.getOffsetSecondsOfMilli(localNoon - zone.getOffsetSecondsOfMilli(localNoon) * 1000L);
+        long utcDay = epochDay - Math.round(offset / 86400. - longitude / 360);
+
+        SolarEphemeris eph = new SolarEphemeris(JulianDay.EPOCH_JD + utcDay + 0.5 - longitude / 360);
+        double noon = eph.solarNoon(longitude);
+        double ha = eph.haSunrise(latitude) * 4 / 1440; // NaN in polar day and night
+
+        this.epochDay = epochDay;
+        solarNoon = toEpochMilli(utcDay, noon);
+        solarNoonOffset = zone.getOffsetSecondsOfMilli(solarNoon);
+        if (Double.isNaN(ha)) {
+            sunrise = NONE;
+            sunset = NONE;
+            sunriseOffset = solarNoonOffset;
+            sunsetOffset = solarNoonOffset;
+        } else {
+            sunrise = toEpochMilli(utcDay, noon - ha);
+            sunset = toEpochMilli(utcDay, noon + ha);
+            sunriseOffset = zone.getOffsetSecondsOfMilli(sunrise);
+            sunsetOffset = zone.getOffsetSecondsOfMilli(sunset);
+        }
+        return this;
+    }
+
+    private static long toEpochMilli(long epochDay, double dayFraction) {
+        return Math.round((epochDay + dayFraction) * MILLIS_PER_DAY);
+    }
+
+    private static long toLocal(long epochMilli, int offsetSeconds) {
+        return epochMilli == NONE ? NONE : epochMilli + offsetSeconds * 1000L;
+    }
+
+    // -----------------------------------------------
+    // getters
+
+    public ZoneOffsetTable getZone() {
+        return zone;
+    }
+
+    /**
+     * @return The local date of the last computation as count of days since 1970-01-01
+     */
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    public boolean hasSunrise() {
+        return sunrise != NONE;
+    }
+
+    public boolean hasSunset() {
+        return sunset != NONE;
+    }
+
+    /**
+     * @return In UTC as milliseconds since 1970-01-01T00:00Z, or {@link #NONE}
+     */
+    public long getSunriseEpochMilli() {
+        return sunrise;
+    }
+
+    /**
+     * @return In UTC as milliseconds since 1970-01-01T00:00Z
+     */
+    public long getSolarNoonEpochMilli() {
+        return solarNoon;
+    }
+
+    /**
+     * @return In UTC as milliseconds since 1970-01-01T00:00Z, or {@link #NONE}
+     */
+    public long getSunsetEpochMilli() {
+        return sunset;
+    }
+
+    /**
+     * @return The local date and time as milliseconds since 1970-01-01T00:00 on the local time-line, or {@link #NONE}
+     */
+    public long getSunriseLocalMilli() {
+        return toLocal(sunrise, sunriseOffset);
+    }
+
+    /**
+     * @return The local date and time as milliseconds since 1970-01-01T00:00 on the local time-line
+     */
+    public long getSolarNoonLocalMilli() {
+        return toLocal(solarNoon, solarNoonOffset);
+    }
+
+    /**
+     * @return The local date and time as milliseconds since 1970-01-01T00:00 on the local time-line, or {@link #NONE}
+     */
+    public long getSunsetLocalMilli() {
+        return toLocal(sunset, sunsetOffset);
+    }
+
+    /**
+     * @return In units of [second], the offset at the solar noon during polar day and night
+     */
+    public int getSunriseOffsetSeconds() {
+        return sunriseOffset;
+    }
+
+    /**
+     * @return In units of [second]
+     */
+    public int getSolarNoonOffsetSeconds() {
+        return solarNoonOffset;
+    }
+
+    /**
+     * @return In units of [second], the offset at the solar noon during polar day and night
+     */
+    public int getSunsetOffsetSeconds() {
+        return sunsetOffset;
+    }
+}
@@ -0,0 +1,177 @@
+package xyz.wirklich.astro.sun;
+
+import xyz.wirklich.astro.time.Instrumentation;
+import xyz.wirklich.astro.time.JulianDay;
+import xyz.wirklich.astro.time.JulianInstant;
+
+import java.time.ZonedDateTime;
+
+import static xyz.wirklich.astro.sun.SolarMath.cosDeg;
+import static xyz.wirklich.astro.sun.SolarMath.sinDeg;
+import static xyz.wirklich.astro.sun.SolarMath.tanDeg;
+
+/**
+ * {@link SolarLocation} for interactive use, e.g. scrubbing the time or dragging the site, with all intermediates
+ * computed lazily and memoized in three groups:
+ * <ul>
+ * <li>time: the {@link SolarEphemeris} (declination, equation of time, obliquity, ...), recomputed only if the JD of
+ * the wrapped {@link JulianDay} changed, e.g. by {@link JulianDay#setJd(double)}</li>
+ * <li>site: sine, cosine and tangent of the latitude, recomputed only by {@link #setLatitude(double)} to a different
+ * value</li>
+ * <li>position: hour angle, zenith angle and sunrise hour angle, recomputed if either of the above changed, or by
+ * {@link #setLongitude(double)}</li>
+ * </ul>
+ * Thus, moving the site does not recompute the ephemeris, and changing the time does not recompute the latitude
+ * trigonometry. All results are identical to the ones of {@link SolarLocation}.
+ * <p>
+ * Not thread-safe. The time is checked on every getter, thus the wrapped {@link JulianDay} may be shared with other
+ * objects of the same thread.
+ *
+ * @author Ralf Ulrich
+ */
+public final class MemoizedSolarLocation extends SolarLocation {
+
+    // time
+    private SolarEphemeris ephemeris; // null if invalid
+    private long ephemerisKey; // raw bits of the JD
+    private double tanDeclination;
+
+    // site
+    private boolean siteValid;
+    private double sinLat;
+    private double cosLat;
+    private double tanLat;
+
+    // position
+    private boolean positionValid;
+    private double hourAngle; // deg
+    private double zenithAngle; // deg
+    private boolean haSunriseValid;
+    private double haSunrise; // deg
+
+    public MemoizedSolarLocation(double latitude, double longitude, JulianDay jd) {
+        super(latitude, longitude, jd);
+    }
+
+    /**
+     * The instant is stored as a double JD, see {@link SolarLocation#SolarLocation(double, double, JulianInstant)}.
+     */
+    public MemoizedSolarLocation(double latitude, double longitude, JulianInstant instant) {
+        super(latitude, longitude, instant);
+    }
+
+    public MemoizedSolarLocation(double latitude, double longitude, ZonedDateTime date) {
+        super(latitude, longitude, date);
+    }
+
+    /**
+     * @return The memoized snapshot, the same instance as long as the JD does not change
+     */
+    @Override
+    public SolarEphemeris getEphemeris() {
+        long key = Double.doubleToRawLongBits(jd.getJd());
+        if (ephemeris == null || key != ephemerisKey) {
+            ephemeris = new SolarEphemeris(Double.longBitsToDouble(key));
+            ephemerisKey = key;
+            tanDeclination = tanDeg(ephemeris.getDeclination());
+            positionValid = false;
+            haSunriseValid = false;
+        }
+        return ephemeris;
+    }
+
+    @Override
+    public double obliqueCorrected() {
+        return getEphemeris().getObliquity();
+    }
+
+    @Override
+    public double haSunrise() {
+        SolarEphemeris eph = getEphemeris();
+        if (!haSunriseValid) {
+            validateSite();
+            haSunrise = SolarEphemeris.haSunrise(cosLat, tanLat, eph.cosDeclination(), tanDeclination);
+            haSunriseValid = true;
+        }
+        if (Double.isNaN(haSunrise)) {
+            Instrumentation.count(Instrumentation.NAN_RESULTS); // polar day or night
+        }
+        return haSunrise;
+    }
+
+    @Override
+    public double sunrise() {
+        return getEphemeris().solarNoon(getLongitude()) - haSunrise() * 4 / 1440;
+    }
+
+    @Override
+    public double sunset() {
+        return getEphemeris().solarNoon(getLongitude()) + haSunrise() * 4 / 1440;
+    }
+
+    @Override
+    public double hourAngle() {
+        validatePosition();
+        return hourAngle;
+    }
+
+    @Override
+    public double solarZenithAngle() {
+        validatePosition();
+        return zenithAngle;
+    }
+
+    @Override
+    public double solarElevationCorrected() {
+        double elevation = solarElevation();
+        return elevation + SolarEphemeris.refractionCorrection(elevation);
+    }
+
+    @Override
+    public double solarAzimuth() {
+        validatePosition();
+        return SolarEphemeris.azimuth(sinLat, cosLat, ephemeris.sinDeclination(), zenithAngle, hourAngle);
+    }
+
+    // -----------------------------------------------
+
+    private void validateSite() {
+        if (!siteValid) {
+            sinLat = sinDeg(latitude);
+            cosLat = cosDeg(latitude);
+            tanLat = tanDeg(latitude);
+            siteValid = true;
+        }
+    }
+
+    private void validatePosition() {
+        SolarEphemeris eph = getEphemeris();
+        if (!positionValid) {
+            validateSite();
+            hourAngle = eph.hourAngle(longitude);
+            zenithAngle = SolarEphemeris.zenithAngle(sinLat, cosLat, eph.sinDeclination(), eph.cosDeclination(), hourAngle);
+            positionValid = true;
+        }
+    }
+
+    // -----------------------------------------------
+    // setters
+
+    @Override
+    public void setLatitude(double latitude) {
+        if (Double.doubleToRawLongBits(latitude) != Double.doubleToRawLongBits(this.latitude)) {
+            super.setLatitude(latitude);
+            siteValid = false;
+            positionValid = false;
+            haSunriseValid = false;
+        }
+    }
+
+    @Override
+    public void setLongitude(double longitude) {
+        if (Double.doubleToRawLongBits(longitude) != Double.doubleToRawLongBits(this.longitude)) {
+            super.setLongitude(longitude);
+            positionValid = false;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package xyz.wirklich.astro.sun;
+
+import xyz.wirklich.astro.time.JulianDay;
+
+/**
+ * Immutable site on Earth with all time-independent terms of the sun position precomputed: sine and cosine of the
+ * latitude and the longitude as time offset.
+ * <p>
+ * {@link #position(SolarEphemeris)} evaluates hour angle, zenith angle, elevation, refraction and azimuth in one
+ * pass, each intermediate exactly once. This is cheaper than calling the single getters of {@link SolarLocation},
+ * which recompute the zenith angle and hour angle for every quantity.
+ *
+ * @author Ralf Ulrich
+ */
+public final class Observer {
+
+    private final double latitude;
+    private final double longitude;
+    private final double sinLat;
+    private final double cosLat;
+    private final double longitudeOffset; // minutes
+
+    /**
+     * @param latitude  In units of [degree], + to N
+     * @param longitude In units of [degree], + to E
+     */
+    public Observer(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.sinLat = SolarMath.sinDeg(latitude);
+        this.cosLat = SolarMath.cosDeg(latitude);
+        this.longitudeOffset = 4 * longitude;
+    }
+
+    public SolarPosition position(JulianDay jd) {
+        return position(new SolarEphemeris(jd));
+    }
+
+    public SolarPosition position(double jd) {
+        return position(new SolarEphemeris(jd));
+    }
+
+    /**
+     * One ephemeris can be shared by any number of observers.
+     */
+    public SolarPosition position(SolarEphemeris eph) {
+        double sinDecl = eph.sinDeclination();
+        double cosDecl = eph.cosDeclination();
+
+        // same as SolarEphemeris.hourAngle, with the longitude term precomputed
+        double tt = (eph.timePastMidnight() * 1440 + eph.getEquationOfTime() + longitudeOffset) % 1440;
+        double hourAngle = tt / 4 < 0 ? tt / 4 + 180 : tt / 4 - 180;
+
+        double cosZenith = sinLat * sinDecl + cosLat * cosDecl * SolarMath.cosDeg(hourAngle);
+        double zenith = SolarMath.acosDeg(cosZenith);
+        double elevation = 90 - zenith;
+
+        // same as SolarEphemeris.azimuth, with the cosine of the zenith angle reused
+        double sinZenith = SolarMath.sinDeg(zenith);
+        double az = SolarMath.acosDeg(((sinLat * cosZenith) - sinDecl) / (cosLat * sinZenith));
+        double azimuth = hourAngle > 0 ? (az + 180) % 360 : (540 - az) % 360;
+
+        return new SolarPosition(eph.getJd(), latitude, longitude,
+                elevation + SolarEphemeris.refractionCorrection(elevation), azimuth, zenith, hourAngle);
+    }
+
+    // -----------------------------------------------
+    // getters
+
+    /**
+     * @return In units of [degree], + to N
+     */
+    public double getLatitude() {
+        return latitude;
+    }
+
+    /**
+     * @return In units of [degree], + to E
+     */
+    public double getLongitude() {
+        return longitude;
+    }
+}
@@ -0,0 +1,48 @@
+package xyz.wirklich.astro.sun;
+
+import java.util.Objects;
+
+/**
+ * The default {@link SolarBatchEngine} based on {@link SolarBatch}.
+ *
+ * @author Ralf Ulrich
+ */
+final class ScalarSolarBatchEngine implements SolarBatchEngine {
+
+    static final ScalarSolarBatchEngine INSTANCE = new ScalarSolarBatchEngine();
+
+    private ScalarSolarBatchEngine() {
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public void ephemeris(double[] jd, int offset, int length, double[] declination, double[] equationOfTime) {
+        Objects.checkFromIndexSize(offset, length, jd.length);
+        if (declination != null) Objects.checkFromIndexSize(offset, length, declination.length);
+        if (equationOfTime != null) Objects.checkFromIndexSize(offset, length, equationOfTime.length);
+
+        for (int i = offset, end = offset + length; i < end; i++) {
+            double jdC = SolarEphemeris.julianCentury(jd[i]);
+            double meanLong = SolarEphemeris.meanLongitude(jdC);
+            double meanAnom = SolarEphemeris.meanAnomaly(jdC);
+            double obliq = SolarEphemeris.obliquityCorrected(jdC, SolarEphemeris.meanObliquity(jdC));
+            if (declination != null) {
+                double eqCtr = SolarEphemeris.equationOfCenter(jdC, meanAnom);
+                declination[i] = SolarEphemeris.declination(SolarEphemeris.apparentLongitude(jdC, eqCtr + meanLong), obliq);
+            }
+            if (equationOfTime != null) {
+                equationOfTime[i] = SolarEphemeris.equationOfTime(meanLong, meanAnom, SolarEphemeris.eccentricity(jdC), obliq);
+            }
+        }
+    }
+
+    @Override
+    public void compute(double[] jd, double[] latitude, double[] longitude, int offset, int length,
+                        double[] elevation, double[] azimuth, double[] zenith, double[] hourAngle) {
+        SolarBatch.compute(jd, latitude, longitude, offset, length, elevation, azimuth, zenith, hourAngle);
+    }
+}
@@ -0,0 +1,198 @@
+package xyz.wirklich.astro.sun;
+
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.nio.BufferOverflowException;
+import java.nio.DoubleBuffer;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Daily sunrise, solar noon, sunset and sunlight duration for one site over a range of dates.
+ * <p>
+ * For each day one {@link SolarEphemeris} is evaluated at the approximate local solar noon (12:00 UTC shifted by
+ * the longitude) and the hour angle of sunrise is computed once, then all outputs of the day are derived from these.
+ * The times are in UTC as fraction of the day, see {@link SolarLocation#sunrise()}. At polar day and night sunrise,
+ * sunset and duration are NaN.
+ * <p>
+ * The {@link #stream(LocalDate, LocalDate)} splits evenly by date range, thus, it can be run in parallel.
+ *
+ * @author Ralf Ulrich
+ */
+public final class SolarAlmanac {
+
+    /**
+     * Number of doubles per day written by {@link #writeTo(LocalDate, LocalDate, double[], int)}: epoch day,
+     * sunrise, solar noon, sunset and sunlight duration.
+     */
+    public static final int RECORD_SIZE = 5;
+
+    private final double latitude;
+    private final double longitude;
+
+    /**
+     * @param latitude  In units of [degree], + to N
+     * @param longitude In units of [degree], + to E
+     */
+    public SolarAlmanac(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    /**
+     * One day of the almanac.
+     *
+     * @param epochDay         The UTC date as count of days since 1970-01-01
+     * @param sunrise          In UTC as fraction of a day (24h/1d)
+     * @param solarNoon        In UTC as fraction of a day (24h/1d)
+     * @param sunset           In UTC as fraction of a day (24h/1d)
+     * @param sunlightDuration In units of [minute]
+     */
+    public record Day(long epochDay, double sunrise, double solarNoon, double sunset, double sunlightDuration) {
+
+        public LocalDate date() {
+            return LocalDate.ofEpochDay(epochDay);
+        }
+    }
+
+    public Day day(LocalDate date) {
+        return day(date.toEpochDay());
+    }
+
+    public Day day(long epochDay) {
+        SolarEphemeris eph = ephemeris(epochDay);
+        double noon = eph.solarNoon(longitude);
+        double ha = eph.haSunrise(latitude);
+        return new Day(epochDay, noon - ha * 4 / 1440, noon, noon + ha * 4 / 1440, ha * 8);
+    }
+
+    /**
+     * @param from The first date
+     * @param to   The date after the last date
+     */
+    public Stream<Day> stream(LocalDate from, LocalDate to) {
+        return StreamSupport.stream(spliterator(from, to), false);
+    }
+
+    /**
+     * @param from The first date
+     * @param to   The date after the last date
+     */
+    public Spliterator<Day> spliterator(LocalDate from, LocalDate to) {
+        long first = from.toEpochDay();
+        return new DaySpliterator(first, Math.max(first, to.toEpochDay()));
+    }
+
+    /**
+     * Writes {@link #RECORD_SIZE} doubles per day, starting at out[offset].
+     *
+     * @return The number of days written
+     */
+    public int writeTo(LocalDate from, LocalDate to, double[] out, int offset) {
+        long first = from.toEpochDay();
+        int days = Math.toIntExact(Math.max(0, to.toEpochDay() - first));
+        Objects.checkFromIndexSize(offset, days * RECORD_SIZE, out.length);
+        for (int i = 0; i < days; i++) {
+            write(first + i, out, offset + i * RECORD_SIZE);
+        }
+        return days;
+    }
+
+    /**
+     * Writes {@link #RECORD_SIZE} doubles per day at the current position of the buffer.
+     *
+     * @return The number of days written
+     * @throws BufferOverflowException If the days do not fit, then the buffer is unchanged
+     */
+    public int writeTo(LocalDate from, LocalDate to, DoubleBuffer out) {
+        long first = from.toEpochDay();
+        int days = Math.toIntExact(Math.max(0, to.toEpochDay() - first));
+        if ((long) days * RECORD_SIZE > out.remaining()) {
+            throw new BufferOverflowException();
+        }
+        double[] record = new double[RECORD_SIZE];
+        for (int i = 0; i < days; i++) {
+            write(first + i, record, 0);
+            out.put(record);
+        }
+        return days;
+    }
+
+    private void write(long epochDay, double[] out, int offset) {
+        SolarEphemeris eph = ephemeris(epochDay);
+        double noon = eph.solarNoon(longitude);
+        double ha = eph.haSunrise(latitude);
+        out[offset] = epochDay;
+        out[offset + 1] = noon - ha * 4 / 1440;
+        out[offset + 2] = noon;
+        out[offset + 3] = noon + ha * 4 / 1440;
+        out[offset + 4] = ha * 8;
+    }
+
+    private SolarEphemeris ephemeris(long epochDay) {
+        return new SolarEphemeris(JulianDay.EPOCH_JD + epochDay + 0.5 - longitude / 360);
+    }
+
+    // -----------------------------------------------
+    // getters
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    private final class DaySpliterator implements Spliterator<Day> {
+
+        private long next;
+        private final long end;
+
+        DaySpliterator(long next, long end) {
+            this.next = next;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Day> action) {
+            if (next >= end) {
+                return false;
+            }
+            action.accept(day(next++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Day> action) {
+            for (; next < end; next++) {
+                action.accept(day(next));
+            }
+        }
+
+        @Override
+        public Spliterator<Day> trySplit() {
+            long mid = next + (end - next) / 2;
+            if (mid <= next) {
+                return null;
+            }
+            Spliterator<Day> prefix = new DaySpliterator(next, mid);
+            next = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - next;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL | DISTINCT;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package xyz.wirklich.astro.sun;
+
+import xyz.wirklich.astro.time.AstroBulkEvent;
+import xyz.wirklich.astro.time.Instrumentation;
+
+import java.nio.DoubleBuffer;
+import java.util.Objects;
+
+import static java.lang.Math.*;
+
+/**
+ * Columnar evaluation of the sun position for many (time, latitude, longitude) rows at once.
+ * <p>
+ * The input columns are the Julian Day, the latitude (+ to N) and the longitude (+ to E) in units of [degree].
+ * The results are written to caller-provided output columns, any of which may be {@code null} if it is not needed:
+ * <ul>
+ *     <li>elevation: refraction corrected solar elevation, see {@link SolarLocation#solarElevationCorrected()}</li>
+ *     <li>azimuth: in units of [degree] cw from N, see {@link SolarLocation#solarAzimuth()}</li>
+ *     <li>zenith: geometric zenith angle, see {@link SolarLocation#solarZenithAngle()}</li>
+ *     <li>hourAngle: see {@link SolarLocation#hourAngle()}</li>
+ * </ul>
+ * Row {@code i} of the inputs is written to row {@code i} of the outputs, for {@code offset <= i < offset+length}.
+ * The loop does not allocate. The time-dependent part is only re-evaluated when the Julian Day changes from one
+ * row to the next, thus, sorting the rows by time makes the computation considerably cheaper.
+ * <p>
+ * The results are identical to those of {@link SolarLocation}.
+ *
+ * @author Ralf Ulrich
+ */
+public final class SolarBatch {
+
+    /**
+     * Rows copied per chunk when working on {@link DoubleBuffer}s.
+     */
+    private static final int CHUNK = 512;
+
+    private SolarBatch() {
+    }
+
+    public static void compute(double[] jd, double[] latitude, double[] longitude, int offset, int length,
+                               double[] elevation, double[] azimuth, double[] zenith, double[] hourAngle) {
+        checkColumn(jd, offset, length);
+        checkColumn(latitude, offset, length);
+        checkColumn(longitude, offset, length);
+        if (elevation != null) checkColumn(elevation, offset, length);
+        if (azimuth != null) checkColumn(azimuth, offset, length);
+        if (zenith != null) checkColumn(zenith, offset, length);
+        if (hourAngle != null) checkColumn(hourAngle, offset, length);
+
+        AstroBulkEvent event = new AstroBulkEvent("SolarBatch.compute");
+        long start = Instrumentation.start();
+        rows(jd, latitude, longitude, offset, length, elevation, azimuth, zenith, hourAngle);
+        Instrumentation.finish(event, start, length, elevation != null && Instrumentation.countsNaN(event, start)
+                ? Instrumentation.countNaN(elevation, offset, offset + length) : 0);
+    }
+
+    private static void rows(double[] jd, double[] latitude, double[] longitude, int offset, int length,
+                             double[] elevation, double[] azimuth, double[] zenith, double[] hourAngle) {
+        double lastJd = Double.NaN;
+        double timePastMidnight = 0;
+        double eqOfTime = 0;
+        double sinDecl = 0;
+        double cosDecl = 0;
+
+        for (int i = offset, end = offset + length; i < end; i++) {
+            double t = jd[i];
+            if (Double.compare(t, lastJd) != 0) {
+                double jdC = SolarEphemeris.julianCentury(t);
+                double meanLong = SolarEphemeris.meanLongitude(jdC);
+                double meanAnom = SolarEphemeris.meanAnomaly(jdC);
+                double ecc = SolarEphemeris.eccentricity(jdC);
+                double eqCtr = SolarEphemeris.equationOfCenter(jdC, meanAnom);
+                double appLong = SolarEphemeris.apparentLongitude(jdC, eqCtr + meanLong);
+                double obliq = SolarEphemeris.obliquityCorrected(jdC, SolarEphemeris.meanObliquity(jdC));
+                double decl = SolarEphemeris.declination(appLong, obliq);
+                eqOfTime = SolarEphemeris.equationOfTime(meanLong, meanAnom, ecc, obliq);
+                sinDecl = SolarMath.sinDeg(decl);
+                cosDecl = SolarMath.cosDeg(decl);
+                timePastMidnight = SolarEphemeris.timePastMidnight(t);
+                lastJd = t;
+            }
+
+            double sinLat = SolarMath.sinDeg(latitude[i]);
+            double cosLat = SolarMath.cosDeg(latitude[i]);
+            double ha = SolarEphemeris.hourAngle(timePastMidnight, eqOfTime, longitude[i]);
+            double zen = SolarEphemeris.zenithAngle(sinLat, cosLat, sinDecl, cosDecl, ha);
+
+            if (elevation != null) {
+                double elev = 90 - zen;
+                elevation[i] = elev + SolarEphemeris.refractionCorrection(elev);
+            }
+            if (azimuth != null) azimuth[i] = SolarEphemeris.azimuth(sinLat, cosLat, sinDecl, zen, ha);
+            if (zenith != null) zenith[i] = zen;
+            if (hourAngle != null) hourAngle[i] = ha;
+        }
+    }
+
+    /**
+     * Same as {@link #compute(double[], double[], double[], int, int, double[], double[], double[], double[])}, but on
+     * (possibly direct) buffers. Only absolute indices are used, position and limit of the buffers are not changed.
+     */
+    public static void compute(DoubleBuffer jd, DoubleBuffer latitude, DoubleBuffer longitude, int offset, int length,
+                               DoubleBuffer elevation, DoubleBuffer azimuth, DoubleBuffer zenith, DoubleBuffer hourAngle) {
+        checkColumn(jd, offset, length);
+        checkColumn(latitude, offset, length);
+        checkColumn(longitude, offset, length);
+        if (elevation != null) checkColumn(elevation, offset, length);
+        if (azimuth != null) checkColumn(azimuth, offset, length);
+        if (zenith != null) checkColumn(zenith, offset, length);
+        if (hourAngle != null) checkColumn(hourAngle, offset, length);
+
+        AstroBulkEvent event = new AstroBulkEvent("SolarBatch.compute");
+        long start = Instrumentation.start();
+        boolean countNaN = elevation != null && Instrumentation.countsNaN(event, start);
+        long nan = 0;
+
+        int chunk = min(CHUNK, length);
+        double[] t = new double[chunk];
+        double[] lat = new double[chunk];
+        double[] lon = new double[chunk];
+        double[] elev = elevation != null ? new double[chunk] : null;
+        double[] az = azimuth != null ? new double[chunk] : null;
+        double[] zen = zenith != null ? new double[chunk] : null;
+        double[] ha = hourAngle != null ? new double[chunk] : null;
+
+        for (int done = 0; done < length; done += chunk) {
+            int n = min(chunk, length - done);
+            int index = offset + done;
+            jd.get(index, t, 0, n);
+            latitude.get(index, lat, 0, n);
+            longitude.get(index, lon, 0, n);
+            rows(t, lat, lon, 0, n, elev, az, zen, ha);
+            if (countNaN) nan += Instrumentation.countNaN(elev, 0, n);
+            if (elev != null) elevation.put(index, elev, 0, n);
+            if (az != null) azimuth.put(index, az, 0, n);
+            if (zen != null) zenith.put(index, zen, 0, n);
+            if (ha != null) hourAngle.put(index, ha, 0, n);
+        }
+        Instrumentation.finish(event, start, length, nan);
+    }
+
+    private static void checkColumn(double[] column, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, column.length);
+    }
+
+    private static void checkColumn(DoubleBuffer column, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, column.limit());
+    }
+}
@@ -0,0 +1,69 @@
+package xyz.wirklich.astro.sun;
+
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Exchangeable implementation of the columnar sun position calculation of {@link SolarBatch}.
+ * <p>
+ * The {@link #scalar()} engine is always available. Further engines, e.g. the SIMD engine of the
+ * {@code astro-sun-vector} module, are discovered with the {@link ServiceLoader}. Use {@link #select()} to pick the
+ * engine at runtime. The choice can be forced with the system property {@value #ENGINE_PROPERTY} set to
+ * {@code scalar}, {@code auto} (default) or the {@link #name()} of a specific engine.
+ *
+ * @author Ralf Ulrich
+ */
+public interface SolarBatchEngine {
+
+    String ENGINE_PROPERTY = "xyz.wirklich.astro.sun.engine";
+
+    /**
+     * @return A short, unique name of the engine, e.g. "scalar"
+     */
+    String name();
+
+    /**
+     * @return false if the engine cannot run efficiently on this JVM or hardware
+     */
+    default boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * Fills declination [degree] and equation of time [minute] for each Julian Day. Any output may be {@code null}.
+     */
+    void ephemeris(double[] jd, int offset, int length, double[] declination, double[] equationOfTime);
+
+    /**
+     * See {@link SolarBatch#compute(double[], double[], double[], int, int, double[], double[], double[], double[])}.
+     */
+    void compute(double[] jd, double[] latitude, double[] longitude, int offset, int length,
+                 double[] elevation, double[] azimuth, double[] zenith, double[] hourAngle);
+
+    /**
+     * @return The plain java implementation, identical to {@link SolarLocation}
+     */
+    static SolarBatchEngine scalar() {
+        return ScalarSolarBatchEngine.INSTANCE;
+    }
+
+    /**
+     * @return The engine requested by {@value #ENGINE_PROPERTY}, or the first supported one, or {@link #scalar()}
+     */
+    static SolarBatchEngine select() {
+        String wanted = System.getProperty(ENGINE_PROPERTY, "auto");
+        if (wanted.equals(scalar().name())) {
+            return scalar();
+        }
+        try {
+            for (SolarBatchEngine engine : ServiceLoader.load(SolarBatchEngine.class)) {
+                if ((wanted.equals("auto") || wanted.equals(engine.name())) && engine.isSupported()) {
+                    return engine;
+                }
+            }
+        } catch (ServiceConfigurationError | LinkageError e) {
+            // an engine is on the class path but cannot be used, e.g. jdk.incubator.vector is not enabled
+        }
+        return scalar();
+    }
+}
@@ -0,0 +1,348 @@
+package xyz.wirklich.astro.sun;
+
+import xyz.wirklich.astro.time.Instrumentation;
+import xyz.wirklich.astro.time.JulianDay;
+import xyz.wirklich.astro.time.JulianInstant;
+
+import static java.lang.Math.floor;
+import static xyz.wirklich.astro.sun.SolarMath.*;
+
+/**
+ * Immutable snapshot of all time-dependent properties of the sun for one {@link JulianDay}.
+ * <p>
+ * Declination, equation of time, right ascension, radius vector and obliquity only depend on the time, not on the
+ * place on Earth. They are evaluated exactly once in the constructor. All site-dependent quantities (elevation,
+ * azimuth, sunrise, ...) are then derived with a handful of trigonometric calls per site. One instance can be shared
+ * by any number of observers and threads.
+ * <p>
+ * The formulas are the same as in {@link SolarLocation}, which itself delegates to the static helpers in here.
+ *
+ * @author Ralf Ulrich
+ */
+public final class SolarEphemeris {
+
+    private static final double COS_90_833 = Math.cos(Math.toRadians(90.833));
+
+    private final double jd;
+    private final double julianCentury;
+
+    private final double apparentLongitude; // deg
+    private final double obliquity; // deg
+    private final double declination; // deg
+    private final double rightAscension; // deg
+    private final double radiusVector; // AU
+    private final double equationOfTime; // minutes
+
+    private final double sinDeclination;
+    private final double cosDeclination;
+    private final double timePastMidnight; // fraction of 24h/1d
+
+    public SolarEphemeris(JulianDay jd) {
+        this(jd.getJd());
+    }
+
+    /**
+     * Uses the full precision of the two-part JD for the century and the time of day.
+     */
+    public SolarEphemeris(JulianInstant instant) {
+        this(instant.toJd(), instant.getJulianCenturyJ2000(), instant.getTimePastMidnight());
+    }
+
+    public SolarEphemeris(double jd) {
+        this(jd, julianCentury(jd), timePastMidnight(jd));
+    }
+
+    /**
+     * For already known time-dependent quantities, e.g. from an interpolation table.
+     */
+    SolarEphemeris(double jd, double apparentLongitude, double obliquity, double declination,
+                   double rightAscension, double radiusVector, double equationOfTime) {
+        this.jd = jd;
+        this.julianCentury = julianCentury(jd);
+        this.apparentLongitude = apparentLongitude;
+        this.obliquity = obliquity;
+        this.declination = declination;
+        this.rightAscension = rightAscension;
+        this.radiusVector = radiusVector;
+        this.equationOfTime = equationOfTime;
+
+        this.sinDeclination = sinDeg(declination);
+        this.cosDeclination = cosDeg(declination);
+        this.timePastMidnight = timePastMidnight(jd);
+    }
+
+    private SolarEphemeris(double jd, double julianCentury, double timePastMidnight) {
+        this.jd = jd;
+        this.julianCentury = julianCentury;
+
+        double meanLong = meanLongitude(julianCentury);
+        double meanAnom = meanAnomaly(julianCentury);
+        double ecc = eccentricity(julianCentury);
+        double eqCtr = equationOfCenter(julianCentury, meanAnom);
+
+        this.apparentLongitude = apparentLongitude(julianCentury, eqCtr + meanLong);
+        this.obliquity = obliquityCorrected(julianCentury, meanObliquity(julianCentury));
+        this.declination = declination(apparentLongitude, obliquity);
+        this.rightAscension = rightAscension(apparentLongitude, obliquity);
+        this.radiusVector = radiusVector(ecc, eqCtr + meanAnom);
+        this.equationOfTime = equationOfTime(meanLong, meanAnom, ecc, obliquity);
+
+        this.sinDeclination = sinDeg(declination);
+        this.cosDeclination = cosDeg(declination);
+        this.timePastMidnight = timePastMidnight;
+        Instrumentation.count(Instrumentation.EPHEMERIDES);
+    }
+
+    // -----------------------------------------------
+    // site-dependent quantities
+
+    /**
+     * @param longitude In units of [degree], + to E
+     * @return In units of [degree]
+     */
+    public double hourAngle(double longitude) {
+        return hourAngle(timePastMidnight, equationOfTime, longitude);
+    }
+
+    /**
+     * @param latitude  In units of [degree], + to N
+     * @param longitude In units of [degree], + to E
+     * @return In units of [degree]
+     */
+    public double solarZenithAngle(double latitude, double longitude) {
+        return zenithAngle(sinDeg(latitude), cosDeg(latitude), sinDeclination, cosDeclination, hourAngle(longitude));
+    }
+
+    /**
+     * @return In units of [degree]
+     */
+    public double solarElevation(double latitude, double longitude) {
+        return 90 - solarZenithAngle(latitude, longitude);
+    }
+
+    /**
+     * @return In units of [degree]
+     */
+    public double solarElevationCorrected(double latitude, double longitude) {
+        double elevation = solarElevation(latitude, longitude);
+        return elevation + refractionCorrection(elevation);
+    }
+
+    /**
+     * @return In units of [degree] cw from N
+     */
+    public double solarAzimuth(double latitude, double longitude) {
+        double sinLat = sinDeg(latitude);
+        double cosLat = cosDeg(latitude);
+        double hourAngle = hourAngle(longitude);
+        double zenith = zenithAngle(sinLat, cosLat, sinDeclination, cosDeclination, hourAngle);
+        return azimuth(sinLat, cosLat, sinDeclination, zenith, hourAngle);
+    }
+
+    /**
+     * @return In units of [degree]
+     */
+    public double haSunrise(double latitude) {
+        double ha = haSunrise(latitude, declination);
+        if (Double.isNaN(ha)) {
+            Instrumentation.count(Instrumentation.NAN_RESULTS); // polar day or night
+        }
+        return ha;
+    }
+
+    /**
+     * @return In UTC as fraction of a day (24h/1d)
+     */
+    public double solarNoon(double longitude) {
+        return solarNoon(longitude, equationOfTime);
+    }
+
+    /**
+     * @return In UTC as fraction of a day (24h/1d)
+     */
+    public double sunrise(double latitude, double longitude) {
+        return solarNoon(longitude) - haSunrise(latitude) * 4 / 1440;
+    }
+
+    /**
+     * @return In UTC as fraction of a day (24h/1d)
+     */
+    public double sunset(double latitude, double longitude) {
+        return solarNoon(longitude) + haSunrise(latitude) * 4 / 1440;
+    }
+
+    /**
+     * @return In units of [minute]
+     */
+    public double sunlightDuration(double latitude) {
+        return haSunrise(latitude) * 8;
+    }
+
+    // -----------------------------------------------
+    // the formula chain, shared with SolarLocation, all trigonometry through SolarMath
+
+    static double julianCentury(double jd) {
+        return (jd - 2451545) / 36525;
+    }
+
+    static double timePastMidnight(double jd) {
+        double T = jd + 0.5; // shift by half day.
+        return T - floor(T); // time as fraction of 24h / 1d
+    }
+
+    static double meanLongitude(double jdC) { // deg
+        return (280.46646 + jdC * (36000.76983 + jdC * 0.0003032)) % 360;
+    }
+
+    static double meanAnomaly(double jdC) { // deg
+        return 357.52911 + jdC * (35999.05029 - 0.0001537 * jdC);
+    }
+
+    static double eccentricity(double jdC) {
+        return 0.016708634 - jdC * (0.000042037 + 0.0000001267 * jdC);
+    }
+
+    static double equationOfCenter(double jdC, double meanAnomaly) { // deg
+        return sinDeg(meanAnomaly) * (1.914602 - jdC * (0.004817 + 0.000014 * jdC)) + sinDeg(2 * meanAnomaly) * (0.019993 - 0.000101 * jdC) + sinDeg(3 * meanAnomaly) * 0.000289;
+    }
+
+    static double radiusVector(double eccentricity, double trueAnomaly) { // AU
+        return (1.000001018 * (1 - eccentricity * eccentricity)) / (1 + eccentricity * cosDeg(trueAnomaly));
+    }
+
+    static double apparentLongitude(double jdC, double trueLongitude) { // deg
+        return trueLongitude - 0.00569 - 0.00478 * sinDeg(125.04 - 1934.136 * jdC);
+    }
+
+    static double meanObliquity(double jdC) { // deg
+        return 23 + (26 + ((21.448 - jdC * (46.815 + jdC * (0.00059 - jdC * 0.001813)))) / 60) / 60;
+    }
+
+    static double obliquityCorrected(double jdC, double meanObliquity) { // deg
+        return meanObliquity + 0.00256 * cosDeg(125.04 - 1934.136 * jdC);
+    }
+
+    static double rightAscension(double apparentLongitude, double obliquity) { // deg
+        return atan2Deg(cosDeg(obliquity) * sinDeg(apparentLongitude), cosDeg(apparentLongitude));
+    }
+
+    static double declination(double apparentLongitude, double obliquity) { // deg
+        return asinDeg(sinDeg(obliquity) * sinDeg(apparentLongitude));
+    }
+
+    static double equationOfTime(double meanLongitude, double meanAnomaly, double ecc, double obliquity) { // minutes
+        double tanHalfObliq = tanDeg(obliquity / 2);
+        double vY = tanHalfObliq * tanHalfObliq;
+        double sinAnom = sinDeg(meanAnomaly);
+        return 4 * RADIANS_TO_DEGREES * (vY * sinDeg(2 * meanLongitude) - 2 * ecc * sinAnom + 4 * ecc * vY * sinAnom * cosDeg(2 * meanLongitude) - 0.5 * vY * vY * sinDeg(4 * meanLongitude) - 1.25 * ecc * ecc * sinDeg(2 * meanAnomaly));
+    }
+
+    static double hourAngle(double timePastMidnight, double equationOfTime, double longitude) { // deg
+        double tt = (timePastMidnight * 1440 + equationOfTime + 4 * longitude) % 1440;
+        return (tt / 4 < 0 ? tt / 4 + 180
+                : tt / 4 - 180);
+    }
+
+    static double haSunrise(double latitude, double declination) { // deg
+        return haSunrise(cosDeg(latitude), tanDeg(latitude), cosDeg(declination), tanDeg(declination));
+    }
+
+    static double haSunrise(double cosLat, double tanLat, double cosDecl, double tanDecl) { // deg
+        return acosDeg(COS_90_833 / (cosLat * cosDecl) - tanLat * tanDecl);
+    }
+
+    static double solarNoon(double longitude, double equationOfTime) { // fraction of day
+        return (720 - 4 * longitude - equationOfTime) / 1440;
+    }
+
+    static double zenithAngle(double sinLat, double cosLat, double sinDecl, double cosDecl, double hourAngle) { // deg
+        return acosDeg(sinLat * sinDecl + cosLat * cosDecl * cosDeg(hourAngle));
+    }
+
+    static double azimuth(double sinLat, double cosLat, double sinDecl, double zenithAngle, double hourAngle) { // deg cw from N
+        double az = acosDeg(((sinLat * cosDeg(zenithAngle)) - sinDecl) / (cosLat * sinDeg(zenithAngle)));
+        if (hourAngle > 0)
+            return (az + 180) % 360;
+        return (540 - az) % 360;
+    }
+
+    static double refractionCorrection(double elevation) { // deg
+        if (elevation > 85) return 0;
+        if (elevation > 5) {
+            double c = 1 / tanDeg(elevation); // cot, one tangent for all three terms
+            double c2 = c * c;
+            return c * (58.1 + c2 * (-0.07 + c2 * 0.000086)) / 3600;
+        }
+        if (elevation > -0.575)
+            return (1735 + elevation * (-518.2 + elevation * (103.4 + elevation * (-12.79 + elevation * 0.711)))) / 3600;
+        return -20.772 / tanDeg(elevation) / 3600;
+    }
+
+    // -----------------------------------------------
+    // getters
+
+    public double getJd() {
+        return jd;
+    }
+
+    public double getJulianCentury() {
+        return julianCentury;
+    }
+
+    /**
+     * @return In units of [degree]
+     */
+    public double getApparentLongitude() {
+        return apparentLongitude;
+    }
+
+    /**
+     * @return Corrected obliquity of the ecliptic in units of [degree]
+     */
+    public double getObliquity() {
+        return obliquity;
+    }
+
+    /**
+     * @return In units of [degree]
+     */
+    public double getDeclination() {
+        return declination;
+    }
+
+    /**
+     * @return In units of [degree]
+     */
+    public double getRightAscension() {
+        return rightAscension;
+    }
+
+    /**
+     * @return In units of [AU]
+     */
+    public double getRadiusVector() {
+        return radiusVector;
+    }
+
+    /**
+     * @return In units of [minute]
+     */
+    public double getEquationOfTime() {
+        return equationOfTime;
+    }
+
+    double sinDeclination() {
+        return sinDeclination;
+    }
+
+    double cosDeclination() {
+        return cosDeclination;
+    }
+
+    /**
+     * @return The time as fraction of 24h/1d past midnight UT
+     */
+    double timePastMidnight() {
+        return timePastMidnight;
+    }
+}
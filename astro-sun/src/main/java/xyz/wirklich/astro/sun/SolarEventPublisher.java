@@ -0,0 +1,284 @@
+package xyz.wirklich.astro.sun;
+
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publishes the crossings of configured elevations, e.g. sunrise, sunset and twilights, for many sites when they are
+ * due.
+ * <p>
+ * For each site the events of one day are computed ahead with a {@link SolarEventSolver} and put on a
+ * {@link TimerWheel}. After the local solar midnight that ends the day, the events of the next day are computed,
+ * thus, each site costs one computation per day and the wheel only holds the events of about one day. Advancing the
+ * wheel costs per tick and per due event, not per site.
+ * <p>
+ * The time advances with {@link #advanceTo(Instant)}, or once per tick from a background thread after
+ * {@link #start()}. Due events are handed to a {@link SubmissionPublisher}: each subscriber has a bounded buffer, and
+ * if it is full, publishing blocks until the subscriber requested more. Thus, events are never dropped, a slow
+ * subscriber delays the following events instead. Concurrent advances, e.g. from the background thread and a caller,
+ * are serialized, so events are always published in time order.
+ *
+ * @author Ralf Ulrich
+ */
+public final class SolarEventPublisher implements Flow.Publisher<SolarEventPublisher.Event>, AutoCloseable {
+
+    /**
+     * A crossing of an elevation at one site.
+     *
+     * @param siteId    The id given to {@link #addSite(int, double, double)}
+     * @param elevation The crossed elevation in units of [degree], see {@link SolarEventSolver}
+     * @param rising    True if the sun rises above the elevation, false if it sets below
+     * @param time      The exact time of the crossing, it is published up to one tick later
+     */
+    public record Event(int siteId, double elevation, boolean rising, Instant time) {
+    }
+
+    private final double[] elevations;
+    private final long tickMillis;
+    private final Clock clock;
+    private final SubmissionPublisher<Event> publisher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock publishLock = new ReentrantLock(); // held from collecting to submitting, before lock
+    private final Map<Integer, Site> sites = new HashMap<>();
+    private final TimerWheel<Object> wheel;
+    private ScheduledExecutorService timer;
+
+    /**
+     * One second ticks, the system UTC clock and the common pool for the delivery.
+     *
+     * @param elevations The elevations of interest, e.g. {@link SolarEventSolver#SUNRISE}
+     */
+    public SolarEventPublisher(double... elevations) {
+        this(Duration.ofSeconds(1), Clock.systemUTC(), ForkJoinPool.commonPool(), Flow.defaultBufferSize(),
+                elevations);
+    }
+
+    /**
+     * @param tick       The resolution of the timer wheel, at least one millisecond
+     * @param clock      The start time and, after {@link #start()}, the time source
+     * @param executor   Delivers the events to the subscribers
+     * @param bufferSize The maximum number of buffered events per subscriber
+     */
+    public SolarEventPublisher(Duration tick, Clock clock, Executor executor, int bufferSize, double... elevations) {
+        this.tickMillis = tick.toMillis();
+        if (tickMillis < 1 || elevations.length == 0) {
+            throw new IllegalArgumentException("need a tick of at least 1 ms and at least one elevation");
+        }
+        this.elevations = elevations.clone();
+        this.clock = clock;
+        this.publisher = new SubmissionPublisher<>(executor, bufferSize);
+        this.wheel = new TimerWheel<>(Math.floorDiv(clock.millis(), tickMillis));
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Event> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    // -----------------------------------------------
+    // sites
+
+    /**
+     * Schedules the events of the site from the current time of the wheel on.
+     *
+     * @param latitude  In units of [degree], + to N
+     * @param longitude In units of [degree], + to E
+     */
+    public void addSite(int id, double latitude, double longitude) {
+        lock.lock();
+        try {
+            if (sites.containsKey(id)) {
+                throw new IllegalArgumentException("duplicate site id " + id);
+            }
+            Site site = new Site(id, latitude, longitude);
+            sites.put(id, site);
+            long nowMillis = wheel.now() * tickMillis;
+            // the day before may still have events today, depending on the longitude
+            site.epochDay = Math.floorDiv(nowMillis, 86_400_000L) - 2;
+            do {
+                site.epochDay++;
+            } while (site.midnightMillis(site.epochDay) <= nowMillis);
+            schedule(site, nowMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Pending events of the site are discarded.
+     *
+     * @return false if there is no site with this id
+     */
+    public boolean removeSite(int id) {
+        lock.lock();
+        try {
+            Site site = sites.remove(id);
+            if (site != null) {
+                site.removed = true;
+            }
+            return site != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getSiteCount() {
+        lock.lock();
+        try {
+            return sites.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // -----------------------------------------------
+    // time
+
+    /**
+     * Advances the wheel and publishes all events until the time, in time order. May block if a subscriber is slow.
+     */
+    public void advanceTo(Instant time) {
+        List<Event> due = new ArrayList<>();
+        publishLock.lock();
+        try {
+            collect(time, due);
+            due.sort(Comparator.comparing(Event::time)); // within one tick
+            for (Event event : due) {
+                publisher.submit(event);
+            }
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * Advances the wheel, only the sites are locked, not the publishing.
+     */
+    private void collect(Instant time, List<Event> due) {
+        lock.lock();
+        try {
+            wheel.advance(Math.floorDiv(time.toEpochMilli(), tickMillis), entry -> {
+                if (entry instanceof Pending pending) {
+                    if (!pending.site.removed) {
+                        due.add(pending.event);
+                    }
+                } else {
+                    Site site = (Site) entry;
+                    if (!site.removed) {
+                        site.epochDay++;
+                        schedule(site, wheel.now() * tickMillis);
+                    }
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Advances the wheel from a background thread once per tick, with the time of the clock.
+     */
+    public void start() {
+        lock.lock();
+        try {
+            if (timer == null) {
+                timer = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "solar-event-publisher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                timer.scheduleAtFixedRate(() -> advanceTo(clock.instant()), 0, tickMillis, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the background thread and completes all subscriptions.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (timer != null) {
+                timer.shutdownNow();
+                timer = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        publisher.close();
+    }
+
+    /**
+     * Puts the events of the current day of the site after the time on the wheel, and the computation of the next
+     * day at the end of the day.
+     */
+    private void schedule(Site site, long afterMillis) {
+        for (double elevation : elevations) {
+            SolarEventSolver.Events events = site.solver.solve(site.epochDay, elevation);
+            scheduleEvent(site, elevation, true, events.rising(), afterMillis);
+            scheduleEvent(site, elevation, false, events.setting(), afterMillis);
+        }
+        wheel.schedule(Math.floorDiv(site.midnightMillis(site.epochDay), tickMillis), site);
+    }
+
+    private void scheduleEvent(Site site, double elevation, boolean rising, double fraction, long afterMillis) {
+        if (Double.isNaN(fraction)) {
+            return;
+        }
+        long millis = Math.round((site.epochDay + fraction) * 86_400_000);
+        if (millis > afterMillis) {
+            // the tick at or after the event, so it is never published early
+            wheel.schedule(Math.floorDiv(millis + tickMillis - 1, tickMillis),
+                    new Pending(site, new Event(site.id, elevation, rising, Instant.ofEpochMilli(millis))));
+        }
+    }
+
+    /**
+     * An event on the wheel, the other entries are the sites to compute their next day.
+     */
+    private record Pending(Site site, Event event) {
+    }
+
+    private static final class Site {
+
+        final int id;
+        final double longitude;
+        final SolarEventSolver solver;
+        long epochDay;
+        boolean removed;
+
+        Site(int id, double latitude, double longitude) {
+            this.id = id;
+            this.longitude = longitude;
+            this.solver = new SolarEventSolver(latitude, longitude);
+        }
+
+        /**
+         * @return The local solar midnight at the end of the day, the same day as in {@link SolarEventSolver}
+         */
+        long midnightMillis(long epochDay) {
+            double noon = new SolarEphemeris(JulianDay.EPOCH_JD + epochDay + 0.5 - longitude / 360).solarNoon(longitude);
+            return Math.round((epochDay + noon + 0.5) * 86_400_000);
+        }
+    }
+}
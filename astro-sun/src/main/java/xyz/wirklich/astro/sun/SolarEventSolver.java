@@ -0,0 +1,259 @@
+package xyz.wirklich.astro.sun;
+
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.time.LocalDate;
+
+import static java.lang.Math.*;
+
+/**
+ * Times at which the refraction corrected elevation of the sun crosses a threshold, e.g. sunrise, sunset and the
+ * twilights.
+ * <p>
+ * Contrary to {@link SolarLocation#sunrise()}, the declination and equation of time are re-evaluated at each trial
+ * time, so the motion of the sun during the day is taken into account. The rising is searched between the local
+ * solar midnight before and the solar noon, the setting between the solar noon and the solar midnight after it.
+ * The analytic hour angle of the threshold serves as seed, which brackets the crossing within a few minutes. The
+ * bracket is then refined by regula falsi (Illinois variant) until the time tolerance or the maximum number of
+ * evaluations is reached.
+ * <p>
+ * If the sun does not reach the threshold at noon, the day is {@link Kind#POLAR_NIGHT}. If it stays above the
+ * threshold at both solar midnights, the day is {@link Kind#POLAR_DAY}. Close to the polar circles there are days
+ * with only one crossing. Missing crossings are NaN.
+ * <p>
+ * The thresholds refer to the apparent elevation, thus, {@link #SUNRISE} is the upper limb at the horizon. The
+ * twilight thresholds are defined for the geometric elevation, but they are applied as apparent elevation, too. The
+ * refraction model adds 0.055 degree at -6, 0.027 at -12 and 0.018 at -18 degree, which makes the twilights start
+ * later and end earlier than defined, by 20 to 30 seconds at 48 degree N, but by minutes where the sun crosses the
+ * threshold at a shallow angle, e.g. 2.4 minutes for the civil twilight at 60 degree N at the June solstice.
+ *
+ * @author Ralf Ulrich
+ */
+public final class SolarEventSolver {
+
+    /**
+     * Upper limb of the sun at the horizon, in units of [degree] of apparent elevation.
+     */
+    public static final double SUNRISE = -0.2667;
+    /**
+     * End of the golden hour in the morning, start in the evening. The golden hour lasts from {@link #BLUE_HOUR} to
+     * this.
+     */
+    public static final double GOLDEN_HOUR = 6;
+    /**
+     * End of the blue hour in the morning, start in the evening. The blue hour lasts from {@link #CIVIL_TWILIGHT} to
+     * this.
+     */
+    public static final double BLUE_HOUR = -4;
+    public static final double CIVIL_TWILIGHT = -6;
+    public static final double NAUTICAL_TWILIGHT = -12;
+    public static final double ASTRONOMICAL_TWILIGHT = -18;
+
+    private static final double SEED_STEP = 2. / 1440; // days
+
+    public enum Kind {
+        /**
+         * Rising and setting.
+         */
+        REGULAR,
+        /**
+         * Above the threshold all day.
+         */
+        POLAR_DAY,
+        /**
+         * Below the threshold all day.
+         */
+        POLAR_NIGHT,
+        /**
+         * Above the threshold from the rising until the end of the day.
+         */
+        RISING_ONLY,
+        /**
+         * Above the threshold from the start of the day until the setting.
+         */
+        SETTING_ONLY
+    }
+
+    /**
+     * The crossings of one day.
+     *
+     * @param epochDay    The UTC date as count of days since 1970-01-01
+     * @param rising      In UTC as fraction of a day (24h/1d), may be outside of [0, 1), NaN if there is none
+     * @param setting     In UTC as fraction of a day (24h/1d), may be outside of [0, 1), NaN if there is none
+     * @param kind        Which crossings exist
+     * @param evaluations The number of elevations evaluated
+     */
+    public record Events(long epochDay, double rising, double setting, Kind kind, int evaluations) {
+
+        public LocalDate date() {
+            return LocalDate.ofEpochDay(epochDay);
+        }
+    }
+
+    private final double latitude;
+    private final double longitude;
+    private final double tolerance;
+    private final int maxEvaluations;
+
+    /**
+     * Tolerance of 1e-7 days (10 ms) and at most 12 evaluations per crossing.
+     */
+    public SolarEventSolver(double latitude, double longitude) {
+        this(latitude, longitude, 1e-7, 12);
+    }
+
+    /**
+     * @param latitude       In units of [degree], + to N
+     * @param longitude      In units of [degree], + to E
+     * @param tolerance      In units of [day]
+     * @param maxEvaluations Per crossing, at least 4
+     */
+    public SolarEventSolver(double latitude, double longitude, double tolerance, int maxEvaluations) {
+        if (!(tolerance > 0) || maxEvaluations < 4) {
+            throw new IllegalArgumentException("need tolerance > 0 and maxEvaluations >= 4");
+        }
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.tolerance = tolerance;
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    public Events solve(LocalDate date, double elevation) {
+        return solve(date.toEpochDay(), elevation);
+    }
+
+    /**
+     * @param elevation The threshold in units of [degree] of apparent elevation, see {@link #SUNRISE} and friends
+     */
+    public Events solve(long epochDay, double elevation) {
+        double day0 = JulianDay.EPOCH_JD + epochDay;
+        SolarEphemeris eph = new SolarEphemeris(day0 + 0.5 - longitude / 360);
+        double noon = day0 + eph.solarNoon(longitude);
+
+        // seed from the analytic hour angle of the threshold at noon
+        double lat = toRadians(latitude);
+        double decl = toRadians(eph.getDeclination());
+        double cosHa = (sin(toRadians(elevation)) - sin(lat) * sin(decl)) / (cos(lat) * cos(decl));
+        double ha = cosHa >= -1 && cosHa <= 1 ? toDegrees(acos(cosHa)) / 360 : Double.NaN; // days
+
+        Search search = new Search(elevation);
+        double fNoon = search.f(noon);
+        if (fNoon < 0) {
+            return new Events(epochDay, Double.NaN, Double.NaN, Kind.POLAR_NIGHT, search.evaluations);
+        }
+        double rising = search.crossing(noon - 0.5, noon, fNoon, noon - ha, true);
+        double setting = search.crossing(noon + 0.5, noon, fNoon, noon + ha, false);
+
+        Kind kind;
+        if (Double.isNaN(rising)) {
+            kind = Double.isNaN(setting) ? Kind.POLAR_DAY : Kind.SETTING_ONLY;
+        } else {
+            kind = Double.isNaN(setting) ? Kind.RISING_ONLY : Kind.REGULAR;
+        }
+        return new Events(epochDay, rising - day0, setting - day0, kind, search.evaluations);
+    }
+
+    /**
+     * The state of the search for one day and threshold.
+     */
+    private final class Search {
+
+        private final double threshold;
+        private int evaluations;
+
+        Search(double threshold) {
+            this.threshold = threshold;
+        }
+
+        double f(double jd) {
+            evaluations++;
+            return new SolarEphemeris(jd).solarElevationCorrected(latitude, longitude) - threshold;
+        }
+
+        /**
+         * @param midnight The end of the half day where the sun is lowest
+         * @param noon     The end of the half day where the sun is above the threshold
+         * @param seed     The estimated crossing, NaN if none
+         * @return The JD of the crossing, NaN if the sun is above the threshold all of the half day
+         */
+        double crossing(double midnight, double noon, double fNoon, double seed, boolean rising) {
+            int budget = evaluations + maxEvaluations;
+            double fMidnight = f(midnight);
+            if (fMidnight >= 0) {
+                return Double.NaN;
+            }
+            // bracket [a, b] with f(a) < 0 <= f(b)
+            double a = midnight, fa = fMidnight;
+            double b = noon, fb = fNoon;
+            if (!Double.isNaN(seed)) {
+                double towardNoon = rising ? SEED_STEP : -SEED_STEP;
+                double t = seed;
+                for (int i = 0; i < 2 && isInside(t, a, b); i++) {
+                    double ft = f(t);
+                    if (ft < 0) {
+                        a = t;
+                        fa = ft;
+                        t += towardNoon;
+                    } else {
+                        b = t;
+                        fb = ft;
+                        t -= towardNoon;
+                    }
+                }
+            }
+            return refine(a, fa, b, fb, budget);
+        }
+
+        private boolean isInside(double t, double a, double b) {
+            return t > min(a, b) && t < max(a, b);
+        }
+
+        /**
+         * Regula falsi, the Illinois variant halves the retained end to keep the convergence superlinear.
+         */
+        private double refine(double a, double fa, double b, double fb, int budget) {
+            int side = 0;
+            while (abs(b - a) > tolerance && evaluations < budget) {
+                double t = (a * fb - b * fa) / (fb - fa);
+                double ft = f(t);
+                if (ft == 0) {
+                    return t;
+                }
+                if (ft < 0) {
+                    a = t;
+                    fa = ft;
+                    if (side == -1) fb /= 2;
+                    side = -1;
+                } else {
+                    b = t;
+                    fb = ft;
+                    if (side == 1) fa /= 2;
+                    side = 1;
+                }
+            }
+            return (a * fb - b * fa) / (fb - fa);
+        }
+    }
+
+    // -----------------------------------------------
+    // getters
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * @return In units of [day]
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public int getMaxEvaluations() {
+        return maxEvaluations;
+    }
+}
@@ -0,0 +1,197 @@
+package xyz.wirklich.astro.sun;
+
+/**
+ * The trigonometric kernel of the sun position formulas. The formula chain works in degree, thus, the degree variants
+ * take or return degree directly and save the separate {@code toRadians}/{@code toDegrees} calls. The radian variants
+ * are for callers that already hold radians.
+ * <p>
+ * Two tiers are available, chosen once at class loading with the system property {@value #PROPERTY}:
+ * <ul>
+ * <li>{@code strict} (default): {@link Math}, bit-identical to {@code Math.sin(Math.toRadians(x))} and friends.</li>
+ * <li>{@code fast}: polynomials after an exact range reduction. Degree arguments are reduced modulo 90 degree, which
+ * is exact, and evaluated by the Taylor polynomials of degree 15 (sine) and 16 (cosine) on [-45, 45] degree. The
+ * arctangent is reduced to {@code |u| <= 1/8} around a table of four values and evaluated by a polynomial of degree 15, asin
+ * and acos are derived from atan2. The absolute error is below 2e-15 for sin and cos and below 1e-15 radian for
+ * asin, acos and atan2, the relative error of tan is below 1e-13 away from its poles. Arguments beyond 1e9 degree,
+ * zeros, infinities and NaN are handed to {@link Math}.</li>
+ * </ul>
+ * The tier is a static final constant, thus, the JIT removes the unused branch.
+ *
+ * @author Ralf Ulrich
+ */
+public final class SolarMath {
+
+    public static final String PROPERTY = "xyz.wirklich.astro.sun.math";
+
+    public enum Tier {
+        STRICT,
+        FAST
+    }
+
+    static final boolean FAST = "fast".equalsIgnoreCase(System.getProperty(PROPERTY, "strict"));
+
+    // identical to the constants of Math.toRadians and Math.toDegrees
+    static final double DEGREES_TO_RADIANS = 0.017453292519943295;
+    static final double RADIANS_TO_DEGREES = 57.29577951308232;
+
+    private static final double HALF_PI = Math.PI / 2;
+    private static final double LIMIT = 1e9;
+    private static final double[] ATAN_TABLE = {0, Math.atan(0.25), Math.atan(0.5), Math.atan(0.75), Math.PI / 4};
+
+    private SolarMath() {
+    }
+
+    /**
+     * @return The tier selected by {@value #PROPERTY}
+     */
+    public static Tier tier() {
+        return FAST ? Tier.FAST : Tier.STRICT;
+    }
+
+    // -----------------------------------------------
+    // degree arguments
+
+    static double sinDeg(double x) {
+        return FAST ? fastSinDeg(x) : Math.sin(x * DEGREES_TO_RADIANS);
+    }
+
+    static double cosDeg(double x) {
+        return FAST ? fastCosDeg(x) : Math.cos(x * DEGREES_TO_RADIANS);
+    }
+
+    static double tanDeg(double x) {
+        return FAST ? fastTanDeg(x) : Math.tan(x * DEGREES_TO_RADIANS);
+    }
+
+    /**
+     * @return In units of [degree]
+     */
+    static double asinDeg(double x) {
+        return asin(x) * RADIANS_TO_DEGREES;
+    }
+
+    /**
+     * @return In units of [degree]
+     */
+    static double acosDeg(double x) {
+        return acos(x) * RADIANS_TO_DEGREES;
+    }
+
+    /**
+     * @return In units of [degree]
+     */
+    static double atan2Deg(double y, double x) {
+        return atan2(y, x) * RADIANS_TO_DEGREES;
+    }
+
+    // -----------------------------------------------
+    // radian arguments
+
+    static double sin(double x) {
+        return FAST ? fastSinDeg(x * RADIANS_TO_DEGREES) : Math.sin(x);
+    }
+
+    static double cos(double x) {
+        return FAST ? fastCosDeg(x * RADIANS_TO_DEGREES) : Math.cos(x);
+    }
+
+    static double asin(double x) {
+        return FAST ? fastAtan2(x, Math.sqrt((1 - x) * (1 + x))) : Math.asin(x);
+    }
+
+    static double acos(double x) {
+        return FAST ? fastAtan2(Math.sqrt((1 - x) * (1 + x)), x) : Math.acos(x);
+    }
+
+    static double atan2(double y, double x) {
+        return FAST ? fastAtan2(y, x) : Math.atan2(y, x);
+    }
+
+    // -----------------------------------------------
+    // the fast tier
+
+    static double fastSinDeg(double x) {
+        if (!(Math.abs(x) < LIMIT)) return Math.sin(x * DEGREES_TO_RADIANS);
+        double q = Math.rint(x / 90);
+        double r = (x - 90 * q) * DEGREES_TO_RADIANS; // exact reduction, |r| <= pi/4
+        switch ((int) ((long) q & 3)) {
+            case 0:
+                return sinPoly(r);
+            case 1:
+                return cosPoly(r);
+            case 2:
+                return -sinPoly(r);
+            default:
+                return -cosPoly(r);
+        }
+    }
+
+    static double fastCosDeg(double x) {
+        if (!(Math.abs(x) < LIMIT)) return Math.cos(x * DEGREES_TO_RADIANS);
+        double q = Math.rint(x / 90);
+        double r = (x - 90 * q) * DEGREES_TO_RADIANS;
+        switch ((int) ((long) q & 3)) {
+            case 0:
+                return cosPoly(r);
+            case 1:
+                return -sinPoly(r);
+            case 2:
+                return -cosPoly(r);
+            default:
+                return sinPoly(r);
+        }
+    }
+
+    static double fastTanDeg(double x) {
+        if (!(Math.abs(x) < LIMIT)) return Math.tan(x * DEGREES_TO_RADIANS);
+        double q = Math.rint(x / 90);
+        double r = (x - 90 * q) * DEGREES_TO_RADIANS;
+        double s = sinPoly(r);
+        double c = cosPoly(r);
+        return ((long) q & 1) == 0 ? s / c : -c / s;
+    }
+
+    static double fastAtan2(double y, double x) {
+        double ay = Math.abs(y);
+        double ax = Math.abs(x);
+        if (!(ax > 0 || ay > 0) || !(ax < Double.POSITIVE_INFINITY) || !(ay < Double.POSITIVE_INFINITY)) {
+            return Math.atan2(y, x); // zeros, infinities and NaN
+        }
+        double a = ay <= ax ? atanUnit(ay / ax) : HALF_PI - atanUnit(ax / ay);
+        if (x < 0) a = Math.PI - a;
+        return y < 0 ? -a : a;
+    }
+
+    // -----------------------------------------------
+    // kernels
+
+    /**
+     * @param r Within [-pi/4, pi/4]
+     */
+    private static double sinPoly(double r) {
+        double r2 = r * r;
+        return r + r * r2 * (-1. / 6 + r2 * (1. / 120 + r2 * (-1. / 5040 + r2 * (1. / 362880
+                + r2 * (-1. / 39916800 + r2 * (1. / 6227020800L + r2 * (-1. / 1307674368000L)))))));
+    }
+
+    /**
+     * @param r Within [-pi/4, pi/4]
+     */
+    private static double cosPoly(double r) {
+        double r2 = r * r;
+        return 1 + r2 * (-0.5 + r2 * (1. / 24 + r2 * (-1. / 720 + r2 * (1. / 40320 + r2 * (-1. / 3628800
+                + r2 * (1. / 479001600 + r2 * (-1. / 87178291200L + r2 * (1. / 20922789888000L))))))));
+    }
+
+    /**
+     * @param a Within [0, 1]
+     */
+    private static double atanUnit(double a) {
+        int k = (int) (a * 4 + 0.5);
+        double c = k * 0.25;
+        double u = (a - c) / (1 + a * c); // |u| <= 1/8
+        double u2 = u * u;
+        return ATAN_TABLE[k] + u + u * u2 * (-1. / 3 + u2 * (1. / 5 + u2 * (-1. / 7 + u2 * (1. / 9
+                + u2 * (-1. / 11 + u2 * (1. / 13 + u2 * (-1. / 15)))))));
+    }
+}
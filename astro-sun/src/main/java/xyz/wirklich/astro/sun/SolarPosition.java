@@ -0,0 +1,31 @@
+package xyz.wirklich.astro.sun;
+
+/**
+ * Immutable position of the sun for one site and time.
+ *
+ * @param jd          The Julian Day of the position
+ * @param latitude    In units of [degree], + to N
+ * @param longitude   In units of [degree], + to E
+ * @param elevation   Refraction corrected elevation in units of [degree]
+ * @param azimuth     In units of [degree] cw from N
+ * @param zenithAngle Geometric zenith angle in units of [degree]
+ * @param hourAngle   In units of [degree]
+ * @author Ralf Ulrich
+ */
+public record SolarPosition(double jd, double latitude, double longitude,
+                            double elevation, double azimuth, double zenithAngle, double hourAngle) {
+
+    /**
+     * Evaluates all quantities of the position from one ephemeris, see {@link Observer#position(SolarEphemeris)}.
+     */
+    public static SolarPosition of(SolarEphemeris eph, double latitude, double longitude) {
+        return new Observer(latitude, longitude).position(eph);
+    }
+
+    /**
+     * @return Elevation without refraction in units of [degree]
+     */
+    public double geometricElevation() {
+        return 90 - zenithAngle;
+    }
+}
@@ -0,0 +1,242 @@
+package xyz.wirklich.astro.sun;
+
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe source of {@link SolarPosition}s for many concurrent requests.
+ * <p>
+ * The time of a request is rounded to the configured resolution, e.g. one minute. Results are kept in a bounded
+ * cache, split into stripes with their own lock and least-recently-used eviction, so requests for different sites
+ * rarely contend. Concurrent requests for the same site and rounded time are coalesced: only the first computes,
+ * the others wait for its result. The ephemeris of the most recent time step is shared by all sites.
+ * <p>
+ * The locks are {@link ReentrantLock}s and waiting is done on {@link CompletableFuture}s, neither pins a virtual
+ * thread to its carrier. Hits, misses, coalesced requests and evictions are counted with {@link LongAdder}s.
+ *
+ * @author Ralf Ulrich
+ */
+public final class SolarPositionService {
+
+    private final long resolutionMillis;
+    private final Stripe[] stripes;
+    private final Map<Key, CompletableFuture<SolarPosition>> inFlight = new ConcurrentHashMap<>();
+    private volatile Step lastStep;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private record Key(double latitude, double longitude, long step) {
+    }
+
+    private record Step(long step, SolarEphemeris ephemeris) {
+    }
+
+    /**
+     * 16 stripes.
+     *
+     * @param resolution The time resolution, at least one millisecond
+     * @param capacity   The maximum number of cached positions
+     */
+    public SolarPositionService(Duration resolution, int capacity) {
+        this(resolution, capacity, 16);
+    }
+
+    /**
+     * @param stripes The number of independently locked parts of the cache, at most capacity are used, the capacity
+     *                is split exactly among them
+     */
+    public SolarPositionService(Duration resolution, int capacity, int stripes) {
+        this.resolutionMillis = resolution.toMillis();
+        if (resolutionMillis < 1 || capacity < 1 || stripes < 1) {
+            throw new IllegalArgumentException("need resolution >= 1 ms, capacity >= 1 and stripes >= 1");
+        }
+        int n = Math.min(stripes, capacity);
+        this.stripes = new Stripe[n];
+        for (int i = 0; i < n; i++) {
+            this.stripes[i] = new Stripe(capacity / n + (i < capacity % n ? 1 : 0));
+        }
+    }
+
+    public SolarPosition get(double latitude, double longitude, Instant instant) {
+        return get(latitude, longitude, instant.toEpochMilli());
+    }
+
+    public SolarPosition get(double latitude, double longitude, JulianDay jd) {
+        return get(latitude, longitude, JulianDay.jdToEpochMilli(jd.getJd()));
+    }
+
+    /**
+     * @param latitude   In units of [degree], + to N
+     * @param longitude  In units of [degree], + to E
+     * @param epochMilli The time, rounded to the resolution of the service
+     */
+    public SolarPosition get(double latitude, double longitude, long epochMilli) {
+        Key key = new Key(latitude, longitude, Math.floorDiv(epochMilli + resolutionMillis / 2, resolutionMillis));
+        Stripe stripe = stripe(key);
+        SolarPosition position = stripe.get(key);
+        if (position != null) {
+            hits.increment();
+            return position;
+        }
+
+        CompletableFuture<SolarPosition> future = new CompletableFuture<>();
+        CompletableFuture<SolarPosition> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException r ? r : e;
+            }
+        }
+        try {
+            // another request may have finished between the lookup and the registration
+            position = stripe.get(key);
+            if (position != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+                position = SolarPosition.of(ephemeris(key.step), latitude, longitude);
+                stripe.put(key, position);
+            }
+            future.complete(position);
+            return position;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private SolarEphemeris ephemeris(long step) {
+        Step last = lastStep;
+        if (last == null || last.step != step) {
+            last = new Step(step, new SolarEphemeris(JulianDay.epochMilliToJd(step * resolutionMillis)));
+            lastStep = last;
+        }
+        return last.ephemeris;
+    }
+
+    private Stripe stripe(Key key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return stripes[Math.floorMod(h, stripes.length)];
+    }
+
+    /**
+     * Removes all cached positions, the counters are kept.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * One part of the cache, an access-ordered map behind a lock.
+     */
+    private final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Key, SolarPosition> map;
+
+        Stripe(int capacity) {
+            map = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, SolarPosition> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        SolarPosition get(Key key) {
+            lock.lock();
+            try {
+                return map.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(Key key, SolarPosition position) {
+            lock.lock();
+            try {
+                map.put(key, position);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return map.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                map.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // -----------------------------------------------
+    // getters
+
+    public Duration getResolution() {
+        return Duration.ofMillis(resolutionMillis);
+    }
+
+    /**
+     * @return The number of cached positions
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of requests that waited for the same computation of another request
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+}
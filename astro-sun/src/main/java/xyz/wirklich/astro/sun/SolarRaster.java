@@ -0,0 +1,263 @@
+package xyz.wirklich.astro.sun;
+
+import xyz.wirklich.astro.time.AstroBulkEvent;
+import xyz.wirklich.astro.time.Instrumentation;
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.nio.FloatBuffer;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.Math.*;
+
+/**
+ * Solar elevation, azimuth and day/night mask on a regular latitude/longitude grid for one instant.
+ * <p>
+ * Declination and equation of time depend only on the time and are evaluated once per frame. The hour angle only
+ * depends on the longitude, so its sine and cosine are computed once per grid column, and the sine and cosine of
+ * the latitude once per grid row when the raster is created. Each cell then needs one acos (plus the refraction
+ * correction) for the elevation and one atan2 for the azimuth. The day/night mask needs no trigonometry per cell.
+ * <p>
+ * The grid is split into tiles of rows that are processed in a {@link ForkJoinPool}. Cell (row, column) is stored
+ * at index {@code row * columns + column} of the caller-supplied {@code float[]} or {@link FloatBuffer}.
+ *
+ * @author Ralf Ulrich
+ */
+public final class SolarRaster {
+
+    /**
+     * Minimum number of cells of one fork-join tile.
+     */
+    private static final int TILE_CELLS = 16 * 1024;
+
+    private final double latitude0;
+    private final double latitudeStep;
+    private final int rows;
+    private final double longitude0;
+    private final double longitudeStep;
+    private final int columns;
+
+    private final double[] sinLat;
+    private final double[] cosLat;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param latitude0     Latitude of the first row in units of [degree]
+     * @param latitudeStep  Latitude increment per row in units of [degree], may be negative
+     * @param longitude0    Longitude of the first column in units of [degree]
+     * @param longitudeStep Longitude increment per column in units of [degree]
+     */
+    public SolarRaster(double latitude0, double latitudeStep, int rows,
+                       double longitude0, double longitudeStep, int columns) {
+        this(latitude0, latitudeStep, rows, longitude0, longitudeStep, columns, ForkJoinPool.commonPool());
+    }
+
+    public SolarRaster(double latitude0, double latitudeStep, int rows,
+                       double longitude0, double longitudeStep, int columns, ForkJoinPool pool) {
+        if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid raster size " + rows + " x " + columns);
+        }
+        this.latitude0 = latitude0;
+        this.latitudeStep = latitudeStep;
+        this.rows = rows;
+        this.longitude0 = longitude0;
+        this.longitudeStep = longitudeStep;
+        this.columns = columns;
+        this.pool = Objects.requireNonNull(pool);
+
+        sinLat = new double[rows];
+        cosLat = new double[rows];
+        for (int r = 0; r < rows; r++) {
+            double lat = toRadians(getLatitude(r));
+            sinLat[r] = sin(lat);
+            cosLat[r] = cos(lat);
+        }
+    }
+
+    /**
+     * @param resolution In units of [degree], cell centers from north-west to south-east
+     * @return A raster covering the whole Earth
+     */
+    public static SolarRaster global(double resolution) {
+        int rows = (int) round(180 / resolution);
+        int columns = (int) round(360 / resolution);
+        return new SolarRaster(90 - resolution / 2, -resolution, rows, -180 + resolution / 2, resolution, columns);
+    }
+
+    // -----------------------------------------------
+    // frames
+
+    /**
+     * Refraction corrected elevation and azimuth in units of [degree], either output may be {@code null}.
+     */
+    public void compute(JulianDay jd, float[] elevation, float[] azimuth) {
+        compute(new SolarEphemeris(jd), elevation, azimuth);
+    }
+
+    public void compute(SolarEphemeris eph, float[] elevation, float[] azimuth) {
+        if (elevation != null) Objects.checkFromIndexSize(0, size(), elevation.length);
+        if (azimuth != null) Objects.checkFromIndexSize(0, size(), azimuth.length);
+        AstroBulkEvent event = new AstroBulkEvent("SolarRaster.compute");
+        long start = Instrumentation.start();
+        Frame frame = new Frame(eph);
+        pool.invoke(new Tile(0, rows, (r0, r1) -> {
+            for (int r = r0; r < r1; r++) {
+                frame.row(r, elevation, azimuth, r * columns);
+            }
+        }));
+        Instrumentation.finish(event, start, size(), elevation != null && Instrumentation.countsNaN(event, start)
+                ? Instrumentation.countNaN(elevation, 0, size()) : 0);
+    }
+
+    /**
+     * Same as {@link #compute(SolarEphemeris, float[], float[])}, e.g. for direct buffers. Only absolute indices are
+     * used, position and limit of the buffers are not changed.
+     */
+    public void compute(SolarEphemeris eph, FloatBuffer elevation, FloatBuffer azimuth) {
+        if (elevation != null) Objects.checkFromIndexSize(0, size(), elevation.limit());
+        if (azimuth != null) Objects.checkFromIndexSize(0, size(), azimuth.limit());
+        AstroBulkEvent event = new AstroBulkEvent("SolarRaster.compute");
+        long start = Instrumentation.start();
+        LongAdder nan = elevation != null && Instrumentation.countsNaN(event, start) ? new LongAdder() : null;
+        Frame frame = new Frame(eph);
+        pool.invoke(new Tile(0, rows, (r0, r1) -> {
+            float[] elev = elevation != null ? new float[columns] : null;
+            float[] az = azimuth != null ? new float[columns] : null;
+            for (int r = r0; r < r1; r++) {
+                frame.row(r, elev, az, 0);
+                if (nan != null) nan.add(Instrumentation.countNaN(elev, 0, columns));
+                if (elev != null) elevation.put(r * columns, elev, 0, columns);
+                if (az != null) azimuth.put(r * columns, az, 0, columns);
+            }
+        }));
+        Instrumentation.finish(event, start, size(), nan != null ? nan.sum() : 0);
+    }
+
+    /**
+     * Sets mask[cell] to 1 where the geometric elevation of the sun is above the threshold and to 0 otherwise.
+     *
+     * @param elevation In units of [degree], e.g. -0.833 for sunrise/sunset or -6 for civil twilight
+     */
+    public void daylight(SolarEphemeris eph, double elevation, byte[] mask) {
+        Objects.checkFromIndexSize(0, size(), mask.length);
+        AstroBulkEvent event = new AstroBulkEvent("SolarRaster.daylight");
+        long start = Instrumentation.start();
+        Frame frame = new Frame(eph);
+        double sinElevation = sin(toRadians(elevation));
+        pool.invoke(new Tile(0, rows, (r0, r1) -> {
+            for (int r = r0; r < r1; r++) {
+                double a = sinLat[r] * frame.sinDecl;
+                double b = cosLat[r] * frame.cosDecl;
+                for (int c = 0, i = r * columns; c < columns; c++, i++) {
+                    mask[i] = (byte) (a + b * frame.cosH[c] > sinElevation ? 1 : 0);
+                }
+            }
+        }));
+        Instrumentation.finish(event, start, size(), 0);
+    }
+
+    // -----------------------------------------------
+
+    /**
+     * All time-dependent values of one frame, the per-column hour angle terms included.
+     */
+    private final class Frame {
+
+        final double sinDecl;
+        final double cosDecl;
+        final double tanDecl;
+        final double[] sinH = new double[columns];
+        final double[] cosH = new double[columns];
+
+        Frame(SolarEphemeris eph) {
+            double decl = toRadians(eph.getDeclination());
+            sinDecl = sin(decl);
+            cosDecl = cos(decl);
+            tanDecl = tan(decl);
+            for (int c = 0; c < columns; c++) {
+                double ha = toRadians(eph.hourAngle(getLongitude(c)));
+                sinH[c] = sin(ha);
+                cosH[c] = cos(ha);
+            }
+        }
+
+        void row(int r, float[] elevation, float[] azimuth, int offset) {
+            double sLat = sinLat[r];
+            double cLat = cosLat[r];
+            double a = sLat * sinDecl;
+            double b = cLat * cosDecl;
+            double d = tanDecl * cLat;
+            for (int c = 0; c < columns; c++) {
+                if (elevation != null) {
+                    double elev = 90 - SolarMath.acosDeg(a + b * cosH[c]);
+                    elevation[offset + c] = (float) (elev + SolarEphemeris.refractionCorrection(elev));
+                }
+                if (azimuth != null) {
+                    // same as SolarEphemeris.azimuth, but without the zenith angle
+                    double az = SolarMath.atan2Deg(sinH[c], cosH[c] * sLat - d) + 180;
+                    azimuth[offset + c] = (float) (az >= 360 ? az - 360 : az);
+                }
+            }
+        }
+    }
+
+    private interface RowRange {
+        void run(int fromRow, int toRow);
+    }
+
+    @SuppressWarnings("serial") // never serialized
+    private final class Tile extends RecursiveAction {
+
+        private final int fromRow;
+        private final int toRow;
+        private final RowRange work;
+
+        Tile(int fromRow, int toRow, RowRange work) {
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.work = work;
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) (toRow - fromRow) * columns <= TILE_CELLS || toRow - fromRow == 1) {
+                work.run(fromRow, toRow);
+                return;
+            }
+            int mid = (fromRow + toRow) >>> 1;
+            invokeAll(new Tile(fromRow, mid, work), new Tile(mid, toRow, work));
+        }
+    }
+
+    // -----------------------------------------------
+    // getters
+
+    public int size() {
+        return rows * columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return In units of [degree]
+     */
+    public double getLatitude(int row) {
+        return latitude0 + row * latitudeStep;
+    }
+
+    /**
+     * @return In units of [degree]
+     */
+    public double getLongitude(int column) {
+        return longitude0 + column * longitudeStep;
+    }
+}
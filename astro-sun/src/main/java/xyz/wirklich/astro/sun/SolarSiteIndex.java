@@ -0,0 +1,412 @@
+package xyz.wirklich.astro.sun;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import static java.lang.Math.*;
+
+/**
+ * Index of many sites on Earth for queries like "which sites have the sun above 10 degree" or "where does the sun
+ * set within the next 10 minutes".
+ * <p>
+ * The sites are sorted into buckets of latitude bands and longitude sectors. Each bucket stores id, sine and cosine
+ * of the latitude and the longitude in primitive arrays. For a query, the sine of the elevation,
+ * {@code sin(lat) sin(decl) + cos(lat) cos(decl) cos(ha)}, is bounded over the whole latitude and hour angle range
+ * of a bucket with the time-only declination and equation of time of a {@link SolarEphemeris}. Buckets that cannot
+ * contain a match are skipped, buckets that can only contain matches are reported without testing the sites. Only
+ * the buckets along the threshold line are tested site by site, with one cosine per site.
+ * <p>
+ * All thresholds are geometric elevations, e.g. -0.833 degree for sunrise and sunset as in
+ * {@link SolarLocation#sunrise()}. Sites can be added and removed at any time, both in constant time without boxing:
+ * a primitive hash map keeps the bucket and slot of each id, and a removal moves the last site of the bucket into
+ * the freed slot. Instances are not thread-safe.
+ *
+ * @author Ralf Ulrich
+ */
+public final class SolarSiteIndex {
+
+    private final double bandDegrees;
+    private final double sectorDegrees;
+    private final int bands;
+    private final int sectors;
+    private final Bucket[] buckets;
+    private final Locations locations = new Locations();
+
+    /**
+     * Buckets of 2 x 2 degree.
+     */
+    public SolarSiteIndex() {
+        this(2, 2);
+    }
+
+    /**
+     * @param bandDegrees   Height of the latitude bands in units of [degree]
+     * @param sectorDegrees Width of the longitude sectors in units of [degree]
+     */
+    public SolarSiteIndex(double bandDegrees, double sectorDegrees) {
+        if (!(bandDegrees > 0 && bandDegrees <= 180) || !(sectorDegrees > 0 && sectorDegrees <= 360)) {
+            throw new IllegalArgumentException("need band and sector sizes within (0, 180] and (0, 360] degree");
+        }
+        this.bands = (int) ceil(180 / bandDegrees);
+        this.sectors = (int) ceil(360 / sectorDegrees);
+        this.bandDegrees = 180. / bands;
+        this.sectorDegrees = 360. / sectors;
+        this.buckets = new Bucket[bands * sectors];
+    }
+
+    // -----------------------------------------------
+    // sites
+
+    /**
+     * @param id        Unique id of the site
+     * @param latitude  In units of [degree], + to N
+     * @param longitude In units of [degree], + to E
+     */
+    public void add(int id, double latitude, double longitude) {
+        if (!(abs(latitude) <= 90) || !Double.isFinite(longitude)) {
+            throw new IllegalArgumentException("invalid site " + latitude + ", " + longitude);
+        }
+        if (locations.find(id) >= 0) {
+            throw new IllegalArgumentException("duplicate site id " + id);
+        }
+        double lon = longitude - 360 * floor((longitude + 180) / 360); // [-180, 180)
+        int band = min(bands - 1, (int) ((latitude + 90) / bandDegrees));
+        int sector = min(sectors - 1, (int) ((lon + 180) / sectorDegrees));
+        int index = band * sectors + sector;
+        if (buckets[index] == null) {
+            buckets[index] = new Bucket(band, sector);
+        }
+        locations.put(id, index, buckets[index].size);
+        buckets[index].add(id, latitude, lon);
+    }
+
+    /**
+     * @return false if there is no site with this id
+     */
+    public boolean remove(int id) {
+        int p = locations.find(id);
+        if (p < 0) {
+            return false;
+        }
+        Bucket bucket = buckets[locations.buckets[p]];
+        int slot = locations.slots[p];
+        locations.removeAt(p);
+        if (bucket.remove(slot)) {
+            locations.slots[locations.find(bucket.ids[slot])] = slot;
+        }
+        return true;
+    }
+
+    public boolean contains(int id) {
+        return locations.find(id) >= 0;
+    }
+
+    public int size() {
+        return locations.size;
+    }
+
+    // -----------------------------------------------
+    // queries
+
+    /**
+     * Reports all sites with {@code minElevation <= elevation < maxElevation}.
+     *
+     * @param minElevation Geometric elevation in units of [degree]
+     * @param maxElevation Geometric elevation in units of [degree], e.g. 91 for no upper limit
+     * @return The number of reported sites
+     */
+    public int query(SolarEphemeris eph, double minElevation, double maxElevation, IntConsumer action) {
+        Frame frame = new Frame(eph, minElevation, maxElevation);
+        int count = 0;
+        for (Bucket bucket : buckets) {
+            if (bucket == null || bucket.size == 0) {
+                continue;
+            }
+            frame.bound(bucket);
+            if (frame.hi < frame.sinMin || frame.lo >= frame.sinMax) {
+                continue;
+            }
+            boolean all = frame.lo >= frame.sinMin && frame.hi < frame.sinMax;
+            for (int i = 0; i < bucket.size; i++) {
+                if (all || frame.matches(bucket, i)) {
+                    action.accept(bucket.ids[i]);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The ids of all sites with {@code minElevation <= elevation < maxElevation}
+     */
+    public int[] query(SolarEphemeris eph, double minElevation, double maxElevation) {
+        IntList ids = new IntList();
+        query(eph, minElevation, maxElevation, ids);
+        return ids.toArray();
+    }
+
+    /**
+     * Reports all sites where the sun is at or above the elevation now and below it later, e.g. the sunset happens
+     * between the two times.
+     *
+     * @param elevation Geometric elevation in units of [degree]
+     * @return The number of reported sites
+     */
+    public int setting(SolarEphemeris now, SolarEphemeris later, double elevation, IntConsumer action) {
+        return crossing(now, later, elevation, action);
+    }
+
+    /**
+     * Reports all sites where the sun is below the elevation now and at or above it later.
+     *
+     * @param elevation Geometric elevation in units of [degree]
+     * @return The number of reported sites
+     */
+    public int rising(SolarEphemeris now, SolarEphemeris later, double elevation, IntConsumer action) {
+        return crossing(later, now, elevation, action);
+    }
+
+    /**
+     * Sites above the elevation at the first time and below at the second.
+     */
+    private int crossing(SolarEphemeris above, SolarEphemeris below, double elevation, IntConsumer action) {
+        Frame high = new Frame(above, elevation, 91);
+        Frame low = new Frame(below, -91, elevation);
+        int count = 0;
+        for (Bucket bucket : buckets) {
+            if (bucket == null || bucket.size == 0) {
+                continue;
+            }
+            high.bound(bucket);
+            if (high.hi < high.sinMin) {
+                continue;
+            }
+            low.bound(bucket);
+            if (low.lo >= low.sinMax) {
+                continue;
+            }
+            boolean allHigh = high.lo >= high.sinMin;
+            boolean allLow = low.hi < low.sinMax;
+            for (int i = 0; i < bucket.size; i++) {
+                if ((allHigh || high.matches(bucket, i)) && (allLow || low.matches(bucket, i))) {
+                    action.accept(bucket.ids[i]);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The time-dependent terms of one query and the bounds of the current bucket.
+     */
+    private final class Frame {
+
+        final double sinDecl;
+        final double cosDecl;
+        final double ha0; // hour angle at longitude 0, deg
+        final double sinMin;
+        final double sinMax;
+
+        // bounds of sin(elevation) over the current bucket
+        double lo;
+        double hi;
+
+        Frame(SolarEphemeris eph, double minElevation, double maxElevation) {
+            sinDecl = eph.sinDeclination();
+            cosDecl = eph.cosDeclination();
+            ha0 = eph.hourAngle(0);
+            sinMin = minElevation <= -90 ? -2 : sin(toRadians(minElevation));
+            sinMax = maxElevation >= 90 ? 2 : sin(toRadians(maxElevation));
+        }
+
+        boolean matches(Bucket bucket, int i) {
+            double sinElevation = bucket.sinLat[i] * sinDecl
+                    + bucket.cosLat[i] * cosDecl * cos(toRadians(ha0 + bucket.lon[i]));
+            return sinElevation >= sinMin && sinElevation < sinMax;
+        }
+
+        void bound(Bucket bucket) {
+            // sin(lat) sin(decl) is monotonic in the latitude
+            double a1 = bucket.sinLat0 * sinDecl;
+            double a2 = bucket.sinLat1 * sinDecl;
+            // cos(lat) cos(decl) >= 0, the maximum is at the latitude closest to the equator
+            double cMin = bucket.cosLatMin * cosDecl;
+            double cMax = bucket.cosLatMax * cosDecl;
+
+            double start = ha0 + bucket.lon0;
+            start -= 360 * floor(start / 360); // [0, 360)
+            double end = start + sectorDegrees;
+            double cosMax = start == 0 || end >= 360 ? 1 : max(cos(toRadians(start)), cos(toRadians(end)));
+            double cosMin = (start <= 180 && end >= 180) || end >= 540 ? -1
+                    : min(cos(toRadians(start)), cos(toRadians(end)));
+
+            double eps = 1e-12; // rounding of the bounds versus the per-site evaluation
+            lo = min(a1, a2) + (cosMin >= 0 ? cMin * cosMin : cMax * cosMin) - eps;
+            hi = max(a1, a2) + (cosMax >= 0 ? cMax * cosMax : cMin * cosMax) + eps;
+        }
+    }
+
+    /**
+     * The sites of one latitude band and longitude sector.
+     */
+    private final class Bucket {
+
+        final double sinLat0;
+        final double sinLat1;
+        final double cosLatMin;
+        final double cosLatMax;
+        final double lon0;
+
+        int size;
+        int[] ids = new int[4];
+        double[] sinLat = new double[4];
+        double[] cosLat = new double[4];
+        double[] lon = new double[4];
+
+        Bucket(int band, int sector) {
+            double lat0 = -90 + band * bandDegrees;
+            double lat1 = band == bands - 1 ? 90 : lat0 + bandDegrees;
+            sinLat0 = sin(toRadians(lat0));
+            sinLat1 = sin(toRadians(lat1));
+            double cos0 = cos(toRadians(lat0));
+            double cos1 = cos(toRadians(lat1));
+            cosLatMin = max(0, min(cos0, cos1));
+            cosLatMax = lat0 <= 0 && lat1 >= 0 ? 1 : max(cos0, cos1);
+            lon0 = -180 + sector * sectorDegrees;
+        }
+
+        void add(int id, double latitude, double longitude) {
+            if (size == ids.length) {
+                int grow = size * 2;
+                ids = Arrays.copyOf(ids, grow);
+                sinLat = Arrays.copyOf(sinLat, grow);
+                cosLat = Arrays.copyOf(cosLat, grow);
+                lon = Arrays.copyOf(lon, grow);
+            }
+            ids[size] = id;
+            sinLat[size] = sin(toRadians(latitude));
+            cosLat[size] = cos(toRadians(latitude));
+            lon[size] = longitude;
+            size++;
+        }
+
+        /**
+         * @return True if the last site moved into the slot
+         */
+        boolean remove(int slot) {
+            size--;
+            if (slot == size) {
+                return false;
+            }
+            ids[slot] = ids[size];
+            sinLat[slot] = sinLat[size];
+            cosLat[slot] = cosLat[size];
+            lon[slot] = lon[size];
+            return true;
+        }
+    }
+
+    /**
+     * Map from the site id to its bucket and slot, open addressing with linear probing in parallel primitive arrays.
+     * Removal shifts the following entries of the probe sequence back, thus there are no tombstones.
+     */
+    private static final class Locations {
+
+        int size;
+        int[] ids = new int[16];
+        int[] buckets = new int[16]; // -1 if free
+        int[] slots = new int[16];
+
+        Locations() {
+            Arrays.fill(buckets, -1);
+        }
+
+        /**
+         * @return The position of the id, negative if absent
+         */
+        int find(int id) {
+            int mask = ids.length - 1;
+            for (int p = hash(id) & mask; buckets[p] >= 0; p = (p + 1) & mask) {
+                if (ids[p] == id) {
+                    return p;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * The id must be absent.
+         */
+        void put(int id, int bucket, int slot) {
+            if (2 * (size + 1) > ids.length) {
+                grow();
+            }
+            int mask = ids.length - 1;
+            int p = hash(id) & mask;
+            while (buckets[p] >= 0) {
+                p = (p + 1) & mask;
+            }
+            ids[p] = id;
+            buckets[p] = bucket;
+            slots[p] = slot;
+            size++;
+        }
+
+        void removeAt(int p) {
+            int mask = ids.length - 1;
+            int free = p;
+            for (int q = (p + 1) & mask; buckets[q] >= 0; q = (q + 1) & mask) {
+                // the entry may move back if the free position is between its home and its position
+                if (((q - hash(ids[q])) & mask) >= ((q - free) & mask)) {
+                    ids[free] = ids[q];
+                    buckets[free] = buckets[q];
+                    slots[free] = slots[q];
+                    free = q;
+                }
+            }
+            buckets[free] = -1;
+            size--;
+        }
+
+        private void grow() {
+            int[] oldIds = ids;
+            int[] oldBuckets = buckets;
+            int[] oldSlots = slots;
+            ids = new int[oldIds.length * 2];
+            buckets = new int[oldIds.length * 2];
+            slots = new int[oldIds.length * 2];
+            Arrays.fill(buckets, -1);
+            size = 0;
+            for (int p = 0; p < oldIds.length; p++) {
+                if (oldBuckets[p] >= 0) {
+                    put(oldIds[p], oldBuckets[p], oldSlots[p]);
+                }
+            }
+        }
+
+        private static int hash(int id) {
+            int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    private static final class IntList implements IntConsumer {
+
+        private int[] values = new int[64];
+        private int size;
+
+        @Override
+        public void accept(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
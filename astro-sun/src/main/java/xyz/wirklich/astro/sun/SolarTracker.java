@@ -0,0 +1,216 @@
+package xyz.wirklich.astro.sun;
+
+import xyz.wirklich.astro.time.Instrumentation;
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.util.Objects;
+
+import static java.lang.Math.*;
+
+/**
+ * Elevation and azimuth of the sun for one site, advanced in constant time steps, e.g. for the control loop of a
+ * solar tracker or heliostat.
+ * <p>
+ * Declination and equation of time change slowly. They are evaluated by a full {@link SolarEphemeris} only every
+ * {@code refreshSteps} steps, at both ends of the refresh interval. Within the interval the declination terms are
+ * interpolated linearly, and the hour angle grows by a constant angle per step, which includes the change of the
+ * equation of time. Its sine and cosine are advanced with the angle-addition formulas, two multiply-adds each. At
+ * each refresh the hour angle is recomputed from scratch, which removes the rounding drift of the recurrence. A step
+ * then costs one asin, one tan (refraction) and one atan2 instead of the full trigonometric chain.
+ * <p>
+ * For refresh intervals up to one hour the elevation deviates by a few 1e-6 degree from {@link SolarLocation}, the
+ * azimuth by less than 1e-4 degree, growing close to the zenith.
+ * <p>
+ * Instances are not thread-safe, use one tracker per site and thread.
+ *
+ * @author Ralf Ulrich
+ */
+public final class SolarTracker {
+
+    private final double latitude;
+    private final double longitude;
+    private final double sinLat;
+    private final double cosLat;
+
+    private final double startJd;
+    private final double stepDays;
+    private final int refreshSteps;
+
+    private long steps;
+    private double jd;
+
+    // per refresh interval
+    private SolarEphemeris next;
+    private double aStep;
+    private double bStep;
+    private double dStep;
+    private double sinStep;
+    private double cosStep;
+
+    // per step
+    private double a; // sin(lat) sin(decl)
+    private double b; // cos(lat) cos(decl)
+    private double d; // cos(lat) tan(decl)
+    private double sinHa;
+    private double cosHa;
+    private double elevation;
+    private double azimuth;
+    private long clamped; // not yet reported
+
+    /**
+     * Refreshes every 60 steps.
+     *
+     * @param stepSeconds In units of [second]
+     */
+    public SolarTracker(double latitude, double longitude, JulianDay start, double stepSeconds) {
+        this(latitude, longitude, Objects.requireNonNull(start).getJd(), stepSeconds, 60);
+    }
+
+    /**
+     * @param latitude     In units of [degree], + to N
+     * @param longitude    In units of [degree], + to E
+     * @param startJd      The time of the first sample
+     * @param stepSeconds  In units of [second]
+     * @param refreshSteps The number of steps after which declination, equation of time and hour angle are
+     *                     evaluated from scratch
+     */
+    public SolarTracker(double latitude, double longitude, double startJd, double stepSeconds, int refreshSteps) {
+        if (!(stepSeconds > 0) || refreshSteps < 1) {
+            throw new IllegalArgumentException("need stepSeconds > 0 and refreshSteps >= 1");
+        }
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.sinLat = sin(toRadians(latitude));
+        this.cosLat = cos(toRadians(latitude));
+        this.startJd = startJd;
+        this.stepDays = stepSeconds / 86400;
+        this.refreshSteps = refreshSteps;
+
+        refresh();
+        update();
+    }
+
+    /**
+     * Advances the time by one step.
+     */
+    public void step() {
+        steps++;
+        jd = startJd + steps * stepDays;
+        if (steps % refreshSteps == 0) {
+            refresh();
+        } else {
+            a += aStep;
+            b += bStep;
+            d += dStep;
+            double s = sinHa * cosStep + cosHa * sinStep;
+            cosHa = cosHa * cosStep - sinHa * sinStep;
+            sinHa = s;
+        }
+        update();
+    }
+
+    /**
+     * Writes the current sample and advances by one step, count times. Either output may be {@code null}.
+     */
+    public void step(double[] elevation, double[] azimuth, int offset, int count) {
+        if (elevation != null) Objects.checkFromIndexSize(offset, count, elevation.length);
+        if (azimuth != null) Objects.checkFromIndexSize(offset, count, azimuth.length);
+        for (int i = offset; i < offset + count; i++) {
+            if (elevation != null) elevation[i] = this.elevation;
+            if (azimuth != null) azimuth[i] = this.azimuth;
+            step();
+        }
+        report();
+    }
+
+    private void refresh() {
+        report();
+        jd = startJd + steps * stepDays;
+        SolarEphemeris eph = next != null ? next : new SolarEphemeris(jd);
+        next = new SolarEphemeris(startJd + (steps + refreshSteps) * stepDays);
+
+        double decl = toRadians(eph.getDeclination());
+        a = sinLat * sin(decl);
+        b = cosLat * cos(decl);
+        d = cosLat * tan(decl);
+        double nextDecl = toRadians(next.getDeclination());
+        aStep = (sinLat * sin(nextDecl) - a) / refreshSteps;
+        bStep = (cosLat * cos(nextDecl) - b) / refreshSteps;
+        dStep = (cosLat * tan(nextDecl) - d) / refreshSteps;
+
+        double ha = toRadians(eph.hourAngle(longitude));
+        sinHa = sin(ha);
+        cosHa = cos(ha);
+        // the change of the hour angle over the interval, the full turns from the time step plus the wrapped rest
+        double turn = 2 * PI * refreshSteps * stepDays;
+        double rest = toRadians(next.hourAngle(longitude)) - ha - turn;
+        double step = (turn + rest - 2 * PI * rint(rest / (2 * PI))) / refreshSteps;
+        sinStep = sin(step);
+        cosStep = cos(step);
+    }
+
+    private void update() {
+        double sinElev = a + b * cosHa;
+        if (sinElev > 1 || sinElev < -1) {
+            clamped++; // rounding of the recurrence at the zenith or nadir
+            sinElev = sinElev > 1 ? 1 : -1;
+        }
+        double elev = toDegrees(asin(sinElev));
+        elevation = elev + SolarEphemeris.refractionCorrection(elev);
+        double az = toDegrees(atan2(sinHa, cosHa * sinLat - d)) + 180;
+        azimuth = az >= 360 ? az - 360 : az;
+    }
+
+    /**
+     * The clamped steps are counted locally and reported once per refresh interval or bulk step.
+     */
+    private void report() {
+        if (clamped != 0) {
+            Instrumentation.count(Instrumentation.CLAMPED, clamped);
+            clamped = 0;
+        }
+    }
+
+    // -----------------------------------------------
+    // getters
+
+    /**
+     * @return The time of the current sample
+     */
+    public double getJd() {
+        return jd;
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return Refraction corrected elevation in units of [degree]
+     */
+    public double getElevation() {
+        return elevation;
+    }
+
+    /**
+     * @return In units of [degree] cw from N
+     */
+    public double getAzimuth() {
+        return azimuth;
+    }
+
+    /**
+     * @return In units of [degree], within (-180, 180]
+     */
+    public double getHourAngle() {
+        return toDegrees(atan2(sinHa, cosHa));
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+}
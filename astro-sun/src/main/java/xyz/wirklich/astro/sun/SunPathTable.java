@@ -0,0 +1,529 @@
+package xyz.wirklich.astro.sun;
+
+import xyz.wirklich.astro.time.AstroBulkEvent;
+import xyz.wirklich.astro.time.Instrumentation;
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static xyz.wirklich.astro.sun.SolarMath.atan2Deg;
+import static xyz.wirklich.astro.sun.SolarMath.cosDeg;
+import static xyz.wirklich.astro.sun.SolarMath.sinDeg;
+
+/**
+ * Precomputed sun path of one fixed site for one UTC year, for many queries at arbitrary instants.
+ * <p>
+ * The direction towards the sun is tabulated on a grid of every {@code dayStep}-th day of the year and every
+ * {@code minuteStep} minutes of the UTC day, as unit vector (east, north, up) quantized to 16 bit per component. A
+ * query interpolates the vector bilinearly between the four surrounding nodes, converts it to elevation and azimuth,
+ * and adds the refraction correction of {@link SolarEphemeris#refractionCorrection(double)}. Contrary to the angles,
+ * the vector is smooth everywhere, also where the sun passes close to the zenith and the azimuth turns fast. With the
+ * default grid of 6 days and 20 minutes a table takes about 27 kB, and the error is below 0.1 degree.
+ * <p>
+ * The node values are the ones of {@link SolarLocation#solarElevation()} and {@link SolarLocation#solarAzimuth()}.
+ * The ephemerides of the nodes only depend on the time, so tables of many sites are built together, with one
+ * {@link SolarEphemeris} per node shared by all sites, and the sites split into tiles that are processed in a
+ * {@link ForkJoinPool}. The interpolation error of each table is bounded by the errors measured half-way between all
+ * neighboring nodes, see {@link #getMaxElevationError()} and {@link #getMaxAzimuthError()}.
+ * <p>
+ * Tables can be written to a compact binary file and read back without any evaluation. File layout, all values
+ * little-endian:
+ * <pre>
+ *   offset  type     content
+ *        0  int      magic "WXSP"
+ *        4  int      version, currently 1
+ *        8  int      year
+ *       12  int      day step
+ *       16  int      minute step
+ *       20  int      number of grid rows (days)
+ *       24  int      number of grid columns (times of day)
+ *       28  int      number of tables
+ *       32  ...      reserved, zero
+ *       64  tables of: double latitude [deg], double longitude [deg], float max elevation error [deg],
+ *                    float max azimuth error [deg], short[rows * columns * 3] east, north and up per node,
+ *                    in units of 1/32767
+ * </pre>
+ * Immutable and thread-safe.
+ *
+ * @author Ralf Ulrich
+ */
+public final class SunPathTable {
+
+    public static final int MAGIC = 0x57585350; // "WXSP"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+
+    public static final int DEFAULT_DAY_STEP = 6;
+    public static final int DEFAULT_MINUTE_STEP = 20;
+
+    /**
+     * Minimum number of node evaluations of one fork-join tile.
+     */
+    private static final int TILE_NODES = 16 * 1024;
+
+    private static final double SCALE = Short.MAX_VALUE;
+    private static final int COMPONENTS = 3;
+    private static final int EAST = 0;
+    private static final int NORTH = 1;
+    private static final int UP = 2;
+    private static final int TABLE_HEADER_SIZE = 2 * Double.BYTES + 2 * Float.BYTES;
+
+    private final Grid grid;
+    private final double latitude;
+    private final double longitude;
+    private final short[] nodes; // east, north and up, row-major
+    private final float maxElevationError;
+    private final float maxAzimuthError;
+
+    private SunPathTable(Grid grid, double latitude, double longitude, short[] nodes,
+                         float maxElevationError, float maxAzimuthError) {
+        this.grid = grid;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.nodes = nodes;
+        this.maxElevationError = maxElevationError;
+        this.maxAzimuthError = maxAzimuthError;
+    }
+
+    /**
+     * With the default grid.
+     *
+     * @param latitude  In units of [degree], + to N
+     * @param longitude In units of [degree], + to E
+     */
+    public static SunPathTable build(double latitude, double longitude, int year) {
+        return build(new double[]{latitude}, new double[]{longitude}, year)[0];
+    }
+
+    /**
+     * With the default grid, in the common {@link ForkJoinPool}.
+     */
+    public static SunPathTable[] build(double[] latitudes, double[] longitudes, int year) {
+        return build(latitudes, longitudes, year, DEFAULT_DAY_STEP, DEFAULT_MINUTE_STEP, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param latitudes  Per site in units of [degree], + to N
+     * @param longitudes Per site in units of [degree], + to E
+     * @param year       The UTC year covered by the tables, from its first instant to the first instant of the next
+     * @param dayStep    Days between grid rows, at least 1
+     * @param minuteStep Minutes between grid columns, a divisor of 1440
+     */
+    public static SunPathTable[] build(double[] latitudes, double[] longitudes, int year, int dayStep, int minuteStep,
+                                       ForkJoinPool pool) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("need one longitude per latitude");
+        }
+        Objects.requireNonNull(pool);
+        Grid grid = new Grid(year, dayStep, minuteStep);
+        int rows = grid.rows;
+        int columns = grid.columns;
+        AstroBulkEvent event = new AstroBulkEvent("SunPathTable.build");
+        long start = Instrumentation.start();
+
+        // the ephemerides of the nodes and of the probes between them, shared by all sites
+        SolarEphemeris[] nodeEphemerides = new SolarEphemeris[rows * columns];
+        SolarEphemeris[] dayProbes = new SolarEphemeris[rows * columns];
+        SolarEphemeris[] timeProbes = new SolarEphemeris[rows * columns];
+        pool.invoke(new Tile(0, rows, 3 * columns, (r0, r1) -> {
+            for (int r = r0; r < r1; r++) {
+                for (int c = 0; c < columns; c++) {
+                    int i = r * columns + c;
+                    nodeEphemerides[i] = new SolarEphemeris(grid.nodeJd(r, c));
+                    if (grid.hasDayProbe(r)) dayProbes[i] = new SolarEphemeris(grid.dayProbeJd(r, c));
+                    if (c < columns - 1) timeProbes[i] = new SolarEphemeris(grid.timeProbeJd(r, c));
+                }
+            }
+        }));
+
+        SunPathTable[] tables = new SunPathTable[latitudes.length];
+        pool.invoke(new Tile(0, tables.length, 3 * nodeEphemerides.length, (s0, s1) -> {
+            for (int s = s0; s < s1; s++) {
+                tables[s] = build(grid, latitudes[s], longitudes[s], nodeEphemerides, dayProbes, timeProbes);
+            }
+        }));
+        Instrumentation.finish(event, start, 3L * tables.length * nodeEphemerides.length, 0);
+        return tables;
+    }
+
+    private static SunPathTable build(Grid grid, double latitude, double longitude, SolarEphemeris[] nodeEphemerides,
+                                      SolarEphemeris[] dayProbes, SolarEphemeris[] timeProbes) {
+        double sinLat = sinDeg(latitude);
+        double cosLat = cosDeg(latitude);
+        short[] nodes = new short[COMPONENTS * nodeEphemerides.length];
+        double[] direction = new double[COMPONENTS];
+        for (int i = 0; i < nodeEphemerides.length; i++) {
+            direction(nodeEphemerides[i], sinLat, cosLat, longitude, direction);
+            for (int k = 0; k < COMPONENTS; k++) {
+                nodes[COMPONENTS * i + k] = (short) Math.round(direction[k] * SCALE);
+            }
+        }
+
+        // the interpolation error of a smooth path is u(1-u) A + v(1-v) B within a cell, thus it is bounded by the
+        // sum of the maximum errors half-way between the nodes along the days and along the times
+        SunPathTable table = new SunPathTable(grid, latitude, longitude, nodes, 0, 0);
+        double[] dayError = new double[2];
+        double[] timeError = new double[2];
+        for (int r = 0; r < grid.rows; r++) {
+            for (int c = 0; c < grid.columns; c++) {
+                int i = r * grid.columns + c;
+                if (dayProbes[i] != null) {
+                    table.probe(dayProbes[i], grid.dayProbeJd(r, c), sinLat, cosLat, direction, dayError);
+                }
+                if (timeProbes[i] != null) {
+                    table.probe(timeProbes[i], grid.timeProbeJd(r, c), sinLat, cosLat, direction, timeError);
+                }
+            }
+        }
+        double dayFactor = grid.dayProbeFactor();
+        return new SunPathTable(grid, latitude, longitude, nodes,
+                (float) (dayError[0] * dayFactor + timeError[0]), (float) (dayError[1] * dayFactor + timeError[1]));
+    }
+
+    /**
+     * Updates the maximum errors of the refraction corrected elevation and of the azimuth.
+     */
+    private void probe(SolarEphemeris eph, double jd, double sinLat, double cosLat, double[] direction,
+                       double[] maxErrors) {
+        if (!contains(jd)) {
+            return; // the last row may extend beyond the year
+        }
+        direction(eph, sinLat, cosLat, longitude, direction);
+        double elevation = elevation(direction[EAST], direction[NORTH], direction[UP]);
+        double azimuth = azimuth(direction[EAST], direction[NORTH]);
+        maxErrors[0] = Math.max(maxErrors[0], Math.abs(elevation(jd) - elevation
+                - SolarEphemeris.refractionCorrection(elevation)));
+        double dAz = Math.abs(azimuth(jd) - azimuth);
+        maxErrors[1] = Math.max(maxErrors[1], Math.min(dAz, 360 - dAz) * cosDeg(elevation));
+    }
+
+    /**
+     * The unit vector towards the sun, as for {@link SolarEphemeris#solarZenithAngle(double, double)} and
+     * {@link SolarEphemeris#solarAzimuth(double, double)}.
+     */
+    private static void direction(SolarEphemeris eph, double sinLat, double cosLat, double longitude,
+                                  double[] direction) {
+        double hourAngle = eph.hourAngle(longitude);
+        double sinH = sinDeg(hourAngle);
+        double cosH = cosDeg(hourAngle);
+        direction[EAST] = -eph.cosDeclination() * sinH;
+        direction[NORTH] = cosLat * eph.sinDeclination() - sinLat * eph.cosDeclination() * cosH;
+        direction[UP] = sinLat * eph.sinDeclination() + cosLat * eph.cosDeclination() * cosH;
+    }
+
+    private static double elevation(double east, double north, double up) {
+        return atan2Deg(up, Math.hypot(east, north));
+    }
+
+    private static double azimuth(double east, double north) {
+        double az = atan2Deg(east, north);
+        return az < 0 ? az + 360 : az;
+    }
+
+    // -----------------------------------------------
+    // queries
+
+    /**
+     * @param jd Within [{@link #getStartJd()}, {@link #getEndJd()}]
+     * @return The refraction corrected elevation in units of [degree]
+     */
+    public double elevation(double jd) {
+        check(jd);
+        double elevation = elevation(interpolate(jd, EAST), interpolate(jd, NORTH), interpolate(jd, UP));
+        return elevation + SolarEphemeris.refractionCorrection(elevation);
+    }
+
+    /**
+     * @param jd Within [{@link #getStartJd()}, {@link #getEndJd()}]
+     * @return In units of [degree] cw from N
+     */
+    public double azimuth(double jd) {
+        check(jd);
+        return azimuth(interpolate(jd, EAST), interpolate(jd, NORTH));
+    }
+
+    public boolean contains(double jd) {
+        return jd >= grid.startJd && jd <= grid.startJd + grid.days;
+    }
+
+    private void check(double jd) {
+        if (!contains(jd)) {
+            throw new IllegalArgumentException("need a JD within the year " + grid.year + ", got " + jd);
+        }
+    }
+
+    /**
+     * @param jd Within the grid, which may extend beyond the end of the year
+     * @return One component of the direction, not normalized
+     */
+    private double interpolate(double jd, int component) {
+        double t = jd - grid.startJd;
+        double day = Math.floor(t);
+        double u = day / grid.dayStep;
+        double v = (t - day) * 1440 / grid.minuteStep;
+        int r = Math.min((int) u, grid.rows - 2);
+        int c = Math.min((int) v, grid.columns - 2);
+        double fu = u - r;
+        double fv = v - c;
+
+        int i00 = COMPONENTS * (r * grid.columns + c) + component;
+        int i01 = i00 + COMPONENTS;
+        int i10 = i00 + COMPONENTS * grid.columns;
+        int i11 = i10 + COMPONENTS;
+        double v0 = nodes[i00] + fv * (nodes[i01] - nodes[i00]);
+        double v1 = nodes[i10] + fv * (nodes[i11] - nodes[i10]);
+        return v0 + fu * (v1 - v0);
+    }
+
+    // -----------------------------------------------
+    // serialization
+
+    /**
+     * @param tables At least one, all built for the same year and grid
+     */
+    public static void write(Path path, SunPathTable... tables) throws IOException {
+        if (tables.length == 0) {
+            throw new IllegalArgumentException("need at least one table");
+        }
+        Grid grid = tables[0].grid;
+        for (SunPathTable table : tables) {
+            if (!grid.sameAs(table.grid)) {
+                throw new IllegalArgumentException("need tables of the same year and grid");
+            }
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(grid.year).putInt(grid.dayStep).putInt(grid.minuteStep)
+                .putInt(grid.rows).putInt(grid.columns).putInt(tables.length);
+        header.clear();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+            ByteBuffer buffer = ByteBuffer.allocate(grid.tableSize()).order(ByteOrder.LITTLE_ENDIAN);
+            for (SunPathTable table : tables) {
+                buffer.clear();
+                buffer.putDouble(table.latitude).putDouble(table.longitude)
+                        .putFloat(table.maxElevationError).putFloat(table.maxAzimuthError);
+                buffer.asShortBuffer().put(table.nodes);
+                writeFully(channel, buffer.clear());
+            }
+        }
+    }
+
+    public static SunPathTable[] read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (data.capacity() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+                throw new IOException("not a sun path table file");
+            }
+            if (data.getInt(4) != VERSION) {
+                throw new IOException("unsupported sun path table file version " + data.getInt(4));
+            }
+            Grid grid;
+            try {
+                grid = new Grid(data.getInt(8), data.getInt(12), data.getInt(16));
+            } catch (RuntimeException e) {
+                throw new IOException("corrupt sun path table file", e);
+            }
+            int count = data.getInt(28);
+            if (data.getInt(20) != grid.rows || data.getInt(24) != grid.columns || count < 0) {
+                throw new IOException("corrupt sun path table file");
+            }
+            if (data.capacity() < HEADER_SIZE + (long) count * grid.tableSize()) {
+                throw new IOException("truncated sun path table file");
+            }
+            SunPathTable[] tables = new SunPathTable[count];
+            for (int t = 0; t < count; t++) {
+                int offset = HEADER_SIZE + t * grid.tableSize();
+                short[] nodes = new short[COMPONENTS * grid.rows * grid.columns];
+                data.slice(offset + TABLE_HEADER_SIZE, Short.BYTES * nodes.length).order(ByteOrder.LITTLE_ENDIAN)
+                        .asShortBuffer().get(nodes);
+                tables[t] = new SunPathTable(grid, data.getDouble(offset), data.getDouble(offset + 8), nodes,
+                        data.getFloat(offset + 16), data.getFloat(offset + 20));
+            }
+            return tables;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // -----------------------------------------------
+
+    /**
+     * The nodes in time, shared by all tables built together.
+     */
+    private static final class Grid {
+
+        final int year;
+        final int dayStep;
+        final int minuteStep;
+        final int days;
+        final int rows;
+        final int columns;
+        final double startJd;
+
+        Grid(int year, int dayStep, int minuteStep) {
+            if (dayStep < 1 || minuteStep < 1 || 1440 % minuteStep != 0) {
+                throw new IllegalArgumentException("need a day step >= 1 and a minute step dividing 1440, got "
+                        + dayStep + " and " + minuteStep);
+            }
+            this.year = year;
+            this.dayStep = dayStep;
+            this.minuteStep = minuteStep;
+            this.days = Year.of(year).length();
+            this.rows = (days + dayStep - 1) / dayStep + 1;
+            this.columns = 1440 / minuteStep + 1;
+            this.startJd = JulianDay.EPOCH_JD + LocalDate.of(year, 1, 1).toEpochDay();
+        }
+
+        double nodeJd(int row, int column) {
+            return startJd + row * dayStep + column * minuteStep / 1440.;
+        }
+
+        boolean hasDayProbe(int row) {
+            return dayStep > 1 && row < rows - 1;
+        }
+
+        /**
+         * Between the rows, in the middle if the day step is even.
+         */
+        double dayProbeJd(int row, int column) {
+            return startJd + row * dayStep + dayStep / 2 + column * minuteStep / 1440.;
+        }
+
+        /**
+         * Scales the error at {@link #dayProbeJd(int, int)} to the middle between the rows.
+         */
+        double dayProbeFactor() {
+            double f = (double) (dayStep / 2) / dayStep;
+            return f > 0 ? 0.25 / (f * (1 - f)) : 0;
+        }
+
+        double timeProbeJd(int row, int column) {
+            return startJd + row * dayStep + (column + 0.5) * minuteStep / 1440;
+        }
+
+        int tableSize() {
+            return TABLE_HEADER_SIZE + COMPONENTS * Short.BYTES * rows * columns;
+        }
+
+        boolean sameAs(Grid other) {
+            return year == other.year && dayStep == other.dayStep && minuteStep == other.minuteStep;
+        }
+    }
+
+    private interface Range {
+        void run(int from, int to);
+    }
+
+    @SuppressWarnings("serial") // never serialized
+    private static final class Tile extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final int cost;
+        private final Range work;
+
+        /**
+         * @param cost Node evaluations per item
+         */
+        Tile(int from, int to, int cost, Range work) {
+            this.from = from;
+            this.to = to;
+            this.cost = cost;
+            this.work = work;
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) (to - from) * cost <= TILE_NODES || to - from <= 1) {
+                work.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Tile(from, mid, cost, work), new Tile(mid, to, cost, work));
+        }
+    }
+
+    // -----------------------------------------------
+    // getters
+
+    /**
+     * @return In units of [degree], + to N
+     */
+    public double getLatitude() {
+        return latitude;
+    }
+
+    /**
+     * @return In units of [degree], + to E
+     */
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public int getYear() {
+        return grid.year;
+    }
+
+    public int getDayStep() {
+        return grid.dayStep;
+    }
+
+    public int getMinuteStep() {
+        return grid.minuteStep;
+    }
+
+    /**
+     * @return The JD of the first instant of the year
+     */
+    public double getStartJd() {
+        return grid.startJd;
+    }
+
+    /**
+     * @return The JD of the first instant of the next year
+     */
+    public double getEndJd() {
+        return grid.startJd + grid.days;
+    }
+
+    /**
+     * @return The bound of the error of the refraction corrected elevation in units of [degree], quantization
+     * included
+     */
+    public float getMaxElevationError() {
+        return maxElevationError;
+    }
+
+    /**
+     * @return The bound of the error of the azimuth times the cosine of the elevation, i.e. the resulting error
+     * of the direction on the sky, in units of [degree], quantization included. Close to the zenith, where the
+     * azimuth turns fast, the error of the azimuth itself is larger.
+     */
+    public float getMaxAzimuthError() {
+        return maxAzimuthError;
+    }
+
+    /**
+     * @return The size of the tabulated values in units of [byte]
+     */
+    public int getDataSize() {
+        return nodes.length * Short.BYTES;
+    }
+}
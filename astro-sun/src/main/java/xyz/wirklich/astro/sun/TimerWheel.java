@@ -0,0 +1,136 @@
+package xyz.wirklich.astro.sun;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timer wheel with integer ticks.
+ * <p>
+ * Level 0 has 256 slots of one tick, the levels 1 to 3 have 64 slots each covering the whole range of the level
+ * below. This covers 2^26 ticks ahead, about two years at one second per tick; later entries wait in an overflow
+ * list. Scheduling is O(1). Whenever a level wraps around, the entries of the next slot of the level above are
+ * redistributed to the levels below. Entries are fired in tick order, within the same tick in scheduling order.
+ * <p>
+ * Not thread-safe.
+ *
+ * @author Ralf Ulrich
+ */
+final class TimerWheel<T> {
+
+    private static final int BITS0 = 8;
+    private static final int BITS = 6;
+    private static final int LEVELS = 4;
+
+    private final List<List<Entry<T>>> slots = new ArrayList<>();
+    private List<Entry<T>> overflow = new ArrayList<>();
+    private long now;
+    private int size;
+    private int sizeLevel0;
+
+    private record Entry<T>(long tick, T value) {
+    }
+
+    /**
+     * @param now The current tick, entries are due after it
+     */
+    TimerWheel(long now) {
+        this.now = now;
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < (level == 0 ? 1 << BITS0 : 1 << BITS); slot++) {
+                slots.add(new ArrayList<>());
+            }
+        }
+    }
+
+    /**
+     * Entries at or before the current tick are fired with the next advance.
+     */
+    void schedule(long tick, T value) {
+        place(new Entry<>(Math.max(tick, now + 1), value));
+        size++;
+    }
+
+    /**
+     * Advances to the tick and fires all entries due until then.
+     */
+    void advance(long to, Consumer<? super T> action) {
+        while (now < to) {
+            if (size == 0) {
+                now = to;
+                return;
+            }
+            if (sizeLevel0 == 0) {
+                // the other levels only hold entries from the next wrap of level 0 on
+                now = Math.min(to - 1, now | mask(0));
+            }
+            now++;
+            if ((now & mask(0)) == 0) {
+                cascade(1);
+            }
+            List<Entry<T>> due = slot(0, now);
+            if (!due.isEmpty()) {
+                List<Entry<T>> fired = new ArrayList<>(due);
+                due.clear();
+                size -= fired.size();
+                sizeLevel0 -= fired.size();
+                for (Entry<T> entry : fired) {
+                    action.accept(entry.value);
+                }
+            }
+        }
+    }
+
+    private void cascade(int level) {
+        if (level == LEVELS) {
+            List<Entry<T>> entries = overflow;
+            overflow = new ArrayList<>();
+            entries.forEach(this::place);
+            return;
+        }
+        if (((now >> shift(level)) & mask(level)) == 0) {
+            cascade(level + 1);
+        }
+        List<Entry<T>> entries = slot(level, now);
+        if (!entries.isEmpty()) {
+            List<Entry<T>> moved = new ArrayList<>(entries);
+            entries.clear();
+            moved.forEach(this::place);
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        for (int level = 0; level < LEVELS; level++) {
+            int above = shift(level) + (level == 0 ? BITS0 : BITS);
+            if ((entry.tick >> above) == (now >> above)) {
+                slot(level, entry.tick).add(entry);
+                if (level == 0) {
+                    sizeLevel0++;
+                }
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private List<Entry<T>> slot(int level, long tick) {
+        int offset = level == 0 ? 0 : (1 << BITS0) + (level - 1) * (1 << BITS);
+        return slots.get(offset + (int) ((tick >> shift(level)) & mask(level)));
+    }
+
+    private static int shift(int level) {
+        return level == 0 ? 0 : BITS0 + (level - 1) * BITS;
+    }
+
+    private static long mask(int level) {
+        return level == 0 ? (1 << BITS0) - 1 : (1 << BITS) - 1;
+    }
+
+    long now() {
+        return now;
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,57 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.ChebyshevEphemeris;
+import xyz.wirklich.astro.sun.SolarEphemeris;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class ChebyshevEphemerisTest {
+
+    private static final double ARC_SECOND = 1. / 3600;
+
+    @Test
+    void testFit() {
+        double start = 2459945.5; // 2023-01-01
+        ChebyshevEphemeris cheb = new ChebyshevEphemeris(start, start + 365);
+
+        assertThat("Declination error", cheb.getMaxDeclinationError(), lessThan(0.01 * ARC_SECOND));
+        assertThat("App Long error", cheb.getMaxApparentLongitudeError(), lessThan(0.01 * ARC_SECOND));
+        assertThat("Eq of Time error", cheb.getMaxEquationOfTimeError(), lessThan(1e-5));
+        assertThat("Rad Vector error", cheb.getMaxRadiusVectorError(), lessThan(1e-9));
+        assertThat("End of range", cheb.getEndJd(), greaterThanOrEqualTo(start + 365));
+
+        Random rnd = new Random(3);
+        for (int i = 0; i < 1000; i++) {
+            double jd = start + 365 * rnd.nextDouble();
+            SolarEphemeris eph = new SolarEphemeris(jd);
+            SolarEphemeris fast = cheb.ephemeris(jd);
+            assertThat("Declination", cheb.declination(jd), closeTo(eph.getDeclination(), 2 * cheb.getMaxDeclinationError()));
+            assertThat("Eq of Time", fast.getEquationOfTime(), closeTo(eph.getEquationOfTime(), 2 * cheb.getMaxEquationOfTimeError()));
+            assertThat("Rt Ascend", fast.getRightAscension(), closeTo(eph.getRightAscension(), ARC_SECOND));
+            assertThat("Elevation", fast.solarElevationCorrected(48, 11), closeTo(eph.solarElevationCorrected(48, 11), ARC_SECOND));
+            assertThat("Azimuth", fast.solarAzimuth(48, 11), closeTo(eph.solarAzimuth(48, 11), ARC_SECOND));
+        }
+        assertThat("Last JD", cheb.declination(cheb.getEndJd()), closeTo(new SolarEphemeris(cheb.getEndJd()).getDeclination(), 1e-6));
+    }
+
+    @Test
+    void testLowOrder() {
+        double start = 2451545;
+        ChebyshevEphemeris coarse = new ChebyshevEphemeris(start, start + 100, 16, 3);
+        ChebyshevEphemeris fine = new ChebyshevEphemeris(start, start + 100, 2, 10);
+        assertThat("Error grows with coarser fit", coarse.getMaxDeclinationError(), greaterThan(fine.getMaxDeclinationError()));
+        assertThat("Coarse is still usable", coarse.getMaxDeclinationError(), lessThan(0.01));
+    }
+
+    @Test
+    void testRange() {
+        ChebyshevEphemeris cheb = new ChebyshevEphemeris(2451545, 2451555);
+        assertThrows(IllegalArgumentException.class, () -> cheb.declination(2451544));
+        assertThrows(IllegalArgumentException.class, () -> cheb.declination(2451600));
+        assertThrows(IllegalArgumentException.class, () -> new ChebyshevEphemeris(2451545, 2451545));
+    }
+}
@@ -0,0 +1,57 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.EphemerisFile;
+import xyz.wirklich.astro.sun.SolarEphemeris;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class EphemerisFileTest {
+
+    @Test
+    void testWriteAndRead() throws IOException {
+        Path path = Files.createTempFile("ephemeris", ".bin");
+        try {
+            double start = 2459945.5; // 2023-01-01
+            EphemerisFile.write(path, start, start + 400);
+            EphemerisFile file = EphemerisFile.open(path);
+
+            assertThat("Start", file.getStartJd(), is(start));
+            assertThat("Rows", file.getRows(), is(400 * 24 + 1));
+            assertThat("File size", Files.size(path), is(EphemerisFile.HEADER_SIZE + file.getRows() * 4L * Double.BYTES));
+
+            Random rnd = new Random(11);
+            for (int i = 0; i < 2000; i++) {
+                double jd = start + 400 * rnd.nextDouble();
+                SolarEphemeris eph = new SolarEphemeris(jd);
+                assertThat("Declination", file.declination(jd), closeTo(eph.getDeclination(), 1e-9));
+                assertThat("Eq of Time", file.equationOfTime(jd), closeTo(eph.getEquationOfTime(), 1e-8));
+                assertThat("Rad Vector", file.radiusVector(jd), closeTo(eph.getRadiusVector(), 1e-12));
+                assertThat("App Long", file.apparentLongitude(jd), closeTo((eph.getApparentLongitude() + 360) % 360, 1e-9));
+                assertThat("Elevation", file.ephemeris(jd).solarElevationCorrected(-23, 150), closeTo(eph.solarElevationCorrected(-23, 150), 1e-7));
+            }
+            assertThat("End of table", file.declination(file.getEndJd()), closeTo(new SolarEphemeris(file.getEndJd()).getDeclination(), 1e-9));
+            assertThrows(IllegalArgumentException.class, () -> file.declination(start - 1));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testInvalidFile() throws IOException {
+        Path path = Files.createTempFile("ephemeris", ".bin");
+        try {
+            Files.write(path, new byte[100]);
+            assertThrows(IOException.class, () -> EphemerisFile.open(path));
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
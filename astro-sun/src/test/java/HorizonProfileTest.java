@@ -0,0 +1,130 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.HorizonProfile;
+import xyz.wirklich.astro.sun.SolarEphemeris;
+import xyz.wirklich.astro.sun.SolarLocation;
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class HorizonProfileTest {
+
+    /**
+     * Sampled sun path with the same constant declination, returns rising, setting, sunlit minutes and intervals.
+     */
+    private static double[] sampled(HorizonProfile profile, double latitude, double longitude, long epochDay,
+                                    double step) {
+        SolarEphemeris eph = new SolarEphemeris(JulianDay.EPOCH_JD + epochDay + 0.5 - longitude / 360);
+        double lat = Math.toRadians(latitude);
+        double decl = Math.toRadians(eph.getDeclination());
+        double noon = eph.solarNoon(longitude);
+        double first = Double.NaN, last = Double.NaN, sunlit = 0;
+        int intervals = 0;
+        boolean before = false;
+        for (double h = -180 + step / 2; h < 180; h += step) {
+            double hr = Math.toRadians(h);
+            double elevation = Math.toDegrees(Math.asin(Math.sin(lat) * Math.sin(decl)
+                    + Math.cos(lat) * Math.cos(decl) * Math.cos(hr)));
+            double azimuth = Math.toDegrees(Math.atan2(-Math.cos(decl) * Math.sin(hr),
+                    Math.cos(lat) * Math.sin(decl) - Math.sin(lat) * Math.cos(decl) * Math.cos(hr)));
+            azimuth = (azimuth + 360) % 360;
+            int bin = (int) (azimuth * profile.getBins() / 360) % profile.getBins();
+            boolean visible = elevation > profile.getThreshold(bin);
+            if (visible) {
+                sunlit += step * 4;
+                if (!before) {
+                    intervals++;
+                    if (Double.isNaN(first)) first = h - step / 2;
+                }
+                last = h + step / 2;
+            }
+            before = visible;
+        }
+        return new double[]{first > -180 ? noon + first / 360 : Double.NaN,
+                last < 180 ? noon + last / 360 : Double.NaN, sunlit, intervals};
+    }
+
+    @Test
+    void testFlat() {
+        HorizonProfile flat = HorizonProfile.flat();
+        Random rnd = new Random(24);
+        for (int i = 0; i < 5000; i++) {
+            double lat = rnd.nextDouble() * 130 - 65;
+            double lon = rnd.nextDouble() * 360 - 180;
+            long epochDay = 19000 + rnd.nextInt(1000);
+            HorizonProfile.Day day = flat.day(lat, lon, epochDay);
+            SolarLocation sl = new SolarLocation(lat, lon,
+                    new JulianDay(JulianDay.EPOCH_JD + epochDay + 0.5 - lon / 360));
+            String label = lat + " " + lon + " " + epochDay;
+            assertThat(label + " rising", day.rising(), closeTo(sl.sunrise(), 1e-9));
+            assertThat(label + " setting", day.setting(), closeTo(sl.sunset(), 1e-9));
+            assertThat(label + " minutes", day.sunlitMinutes(), closeTo(sl.sunlightDuration(), 1e-6));
+            assertThat(label + " intervals", day.intervals(), is(1));
+        }
+
+        // polar day and night
+        HorizonProfile.Day summer = flat.day(80, 0, LocalDate.of(2023, 6, 21));
+        assertThat("polar day", summer.sunlitMinutes(), closeTo(1440, 1e-9));
+        assertThat("polar day rising", Double.isNaN(summer.rising()), is(true));
+        assertThat("polar day setting", Double.isNaN(summer.setting()), is(true));
+        HorizonProfile.Day winter = flat.day(80, 0, LocalDate.of(2023, 12, 21));
+        assertThat("polar night", winter.sunlitMinutes(), is(0.));
+        assertThat("polar night intervals", winter.intervals(), is(0));
+        assertThat("polar night rising", Double.isNaN(winter.rising()), is(true));
+    }
+
+    @Test
+    void testRandomProfiles() {
+        Random rnd = new Random(24);
+        double step = 0.002;
+        for (int i = 0; i < 40; i++) {
+            float[] elevations = new float[1 + rnd.nextInt(400)];
+            for (int b = 0; b < elevations.length; b++) {
+                elevations[b] = (float) (rnd.nextDouble() * 25 - 3);
+            }
+            HorizonProfile profile = new HorizonProfile(elevations);
+            double lat = rnd.nextDouble() * 140 - 70;
+            double lon = rnd.nextDouble() * 360 - 180;
+            long epochDay = 19000 + rnd.nextInt(1000);
+            HorizonProfile.Day day = profile.day(lat, lon, epochDay);
+            double[] expected = sampled(profile, lat, lon, epochDay, step);
+            String label = elevations.length + " bins " + lat + " " + lon + " " + epochDay;
+            assertThat(label + " minutes", day.sunlitMinutes(), closeTo(expected[2], 2 * step * 4 * (1 + day.intervals())));
+            if (!Double.isNaN(expected[0])) {
+                assertThat(label + " rising", day.rising(), closeTo(expected[0], step / 360));
+            }
+            if (!Double.isNaN(expected[1])) {
+                assertThat(label + " setting", day.setting(), closeTo(expected[1], step / 360));
+            }
+        }
+    }
+
+    @Test
+    void testPeak() {
+        // a summer morning at 50 N, with a peak in the east-south-east
+        float[] elevations = new float[360];
+        for (int b = 100; b < 130; b++) {
+            elevations[b] = 50;
+        }
+        HorizonProfile profile = new HorizonProfile(elevations);
+        long epochDay = LocalDate.of(2023, 6, 21).toEpochDay();
+        HorizonProfile.Day day = profile.day(50, 10, epochDay);
+        HorizonProfile.Day flat = HorizonProfile.flat().day(50, 10, epochDay);
+        double[] expected = sampled(profile, 50, 10, epochDay, 0.001);
+        assertThat("intervals", day.intervals(), is(2));
+        assertThat("sampled intervals", (int) expected[3], is(2));
+        assertThat("rising", day.rising(), closeTo(flat.rising(), 1e-12));
+        assertThat("setting", day.setting(), closeTo(flat.setting(), 1e-12));
+        assertThat("minutes", day.sunlitMinutes(), closeTo(expected[2], 0.02));
+        assertThat("hidden", flat.sunlitMinutes() - day.sunlitMinutes() > 60, is(true));
+        assertThat("elevation at", profile.elevationAt(-245.5), is(50f));
+        assertThrows(IllegalArgumentException.class, () -> new HorizonProfile(new float[]{0, Float.NaN}));
+        assertThrows(IllegalArgumentException.class, () -> new HorizonProfile(new float[0]));
+    }
+}
@@ -0,0 +1,138 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.InsolationIntegrator;
+import xyz.wirklich.astro.sun.SolarEphemeris;
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class InsolationIntegratorTest {
+
+    private static final LocalDate SUMMER = LocalDate.of(2023, 6, 21);
+    private static final LocalDate WINTER = LocalDate.of(2023, 12, 21);
+    private static final LocalDate EQUINOX = LocalDate.of(2023, 3, 20);
+
+    @Test
+    void testHorizontal() {
+        InsolationIntegrator integrator = new InsolationIntegrator();
+        double[][] sites = {{52.5, 13.4}, {0, -60}, {-33.9, 151.2}, {69.6, 18.9}, {-80, 0}};
+        for (double[] site : sites) {
+            for (LocalDate date : new LocalDate[]{SUMMER, WINTER, EQUINOX}) {
+                InsolationIntegrator.Day day = integrator.day(site[0], site[1], date);
+                double expected = sampled(site[0], site[1], date, 0, 0);
+                assertThat("irradiation " + site[0] + " " + date, day.irradiation(),
+                        closeTo(expected, 2e-3 * expected + 1e-6));
+                double r = new SolarEphemeris(JulianDay.EPOCH_JD + date.toEpochDay() + 0.5).getRadiusVector();
+                assertThat("mean cos zenith", day.meanCosZenith(),
+                        closeTo(expected * r * r / (InsolationIntegrator.SOLAR_CONSTANT * 24), 1e-3));
+            }
+        }
+        // polar night
+        assertThat("polar night", integrator.day(80, 0, WINTER).irradiation(), is(0.0));
+        // about S0 * 24 / pi at the equator at equinox
+        assertThat("equator", integrator.day(0, 0, EQUINOX).irradiation(), closeTo(1361 * 24 / Math.PI, 200));
+    }
+
+    @Test
+    void testPanel() {
+        double[][] panels = {{35, 180}, {90, 90}, {90, 0}, {60, 250}, {180, 0}};
+        double[][] sites = {{52.5, 13.4}, {-33.9, 151.2}, {69.6, 18.9}};
+        for (double[] panel : panels) {
+            InsolationIntegrator integrator = new InsolationIntegrator(panel[0], panel[1]);
+            for (double[] site : sites) {
+                for (LocalDate date : new LocalDate[]{SUMMER, WINTER, EQUINOX}) {
+                    // declination constant over the day, which does not cancel for panels not facing the equator
+                    double expected = sampled(site[0], site[1], date, panel[0], panel[1]);
+                    assertThat("irradiation " + panel[0] + "/" + panel[1] + " " + site[0] + " " + date,
+                            integrator.day(site[0], site[1], date).irradiation(), closeTo(expected, 1e-2 * expected + 1));
+                }
+            }
+        }
+        // a horizontal panel facing down gets nothing
+        assertThat("down", new InsolationIntegrator(180, 0).day(52.5, 13.4, SUMMER).irradiation(), closeTo(0, 1e-9));
+    }
+
+    @Test
+    void testRange() {
+        InsolationIntegrator integrator = new InsolationIntegrator(30, 170);
+        LocalDate from = LocalDate.of(2023, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 1);
+        InsolationIntegrator.Day[] days = integrator.days(52.5, 13.4, from, to);
+        assertThat("count", days.length, is(365));
+        assertThat("first", days[0].date(), is(from));
+        double sum = 0;
+        for (InsolationIntegrator.Day day : days) {
+            InsolationIntegrator.Day direct = integrator.day(52.5, 13.4, day.date());
+            assertThat("interpolated", day.irradiation(), closeTo(direct.irradiation(), 1e-3 * direct.irradiation()));
+            sum += day.irradiation();
+        }
+        // yearly irradiation at the top of the atmosphere, in kWh/m^2
+        assertThat("year", sum / 1000, closeTo(3700, 500));
+    }
+
+    @Test
+    void testGrid() {
+        InsolationIntegrator integrator = new InsolationIntegrator(20, 180);
+        LocalDate from = LocalDate.of(2024, 2, 1);
+        LocalDate to = LocalDate.of(2024, 5, 1);
+        int n = 2000;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = -89.5 + 179. * i / n;
+            lon[i] = -180 + 360. * ((i * 37) % n) / n;
+        }
+        double[] irradiation = new double[n];
+        double[] meanCosZenith = new double[n];
+        integrator.integrate(lat, lon, from, to, irradiation, meanCosZenith);
+        for (int i = 0; i < n; i += 97) {
+            double sum = 0;
+            double cos = 0;
+            InsolationIntegrator.Day[] days = integrator.days(lat[i], lon[i], from, to);
+            for (InsolationIntegrator.Day day : days) {
+                sum += day.irradiation();
+                cos += day.meanCosZenith();
+            }
+            assertThat("irradiation", irradiation[i], closeTo(sum, 1e-9 * sum));
+            assertThat("mean cos zenith", meanCosZenith[i], closeTo(cos / days.length, 1e-12));
+        }
+        integrator.integrate(lat, lon, from, to, null, null);
+
+        assertThrows(IllegalArgumentException.class, () -> integrator.integrate(lat, lon, to, from, null, null));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> integrator.integrate(lat, new double[1], from, to, null, null));
+    }
+
+    @Test
+    void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new InsolationIntegrator(-5, 180));
+        assertThrows(IllegalArgumentException.class, () -> new InsolationIntegrator().day(91, 0, SUMMER));
+    }
+
+    /**
+     * Sums the irradiance every 30 seconds over the day around the local solar noon, in units of [Wh/m^2].
+     */
+    private static double sampled(double latitude, double longitude, LocalDate date, double tilt, double panelAzimuth) {
+        double noon = JulianDay.EPOCH_JD + date.toEpochDay() + 0.5 - longitude / 360;
+        double beta = Math.toRadians(tilt);
+        int steps = 2880;
+        double sum = 0;
+        for (int i = 0; i < steps; i++) {
+            SolarEphemeris eph = new SolarEphemeris(noon - 0.5 + (i + 0.5) / steps);
+            double zenith = Math.toRadians(eph.solarZenithAngle(latitude, longitude));
+            if (zenith >= Math.PI / 2) {
+                continue;
+            }
+            double azimuth = Math.toRadians(eph.solarAzimuth(latitude, longitude) - panelAzimuth);
+            double cos = Math.cos(beta) * Math.cos(zenith) + Math.sin(beta) * Math.sin(zenith) * Math.cos(azimuth);
+            double r = eph.getRadiusVector();
+            sum += InsolationIntegrator.SOLAR_CONSTANT / (r * r) * Math.max(0, cos);
+        }
+        return sum * 24 / steps;
+    }
+}
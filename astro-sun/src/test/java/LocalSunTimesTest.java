@@ -0,0 +1,87 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.LocalSunTimes;
+import xyz.wirklich.astro.sun.SolarEphemeris;
+import xyz.wirklich.astro.time.JulianDay;
+import xyz.wirklich.astro.time.ZoneOffsetTable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+
+class LocalSunTimesTest {
+
+    @Test
+    void testBerlin() {
+        ZoneId zone = ZoneId.of("Europe/Berlin");
+        LocalSunTimes times = new LocalSunTimes(new ZoneOffsetTable(zone, 2023, 2024));
+        for (LocalDate date = LocalDate.of(2023, 1, 1); date.getYear() < 2025; date = date.plusDays(3)) {
+            times.compute(52.52, 13.405, date);
+            assertThat("day", times.getEpochDay(), is(date.toEpochDay()));
+
+            // same as SolarEphemeris at the local solar noon
+            SolarEphemeris eph = new SolarEphemeris(JulianDay.EPOCH_JD + date.toEpochDay() + 0.5 - 13.405 / 360);
+            double sunrise = (date.toEpochDay() + eph.sunrise(52.52, 13.405)) * 86_400_000;
+            assertThat("sunrise", (double) Math.abs(times.getSunriseEpochMilli() - Math.round(sunrise)), lessThan(1.));
+
+            for (long utc : new long[]{times.getSunriseEpochMilli(), times.getSolarNoonEpochMilli(),
+                    times.getSunsetEpochMilli()}) {
+                ZonedDateTime zoned = Instant.ofEpochMilli(utc).atZone(zone);
+                assertThat("local date " + zoned, zoned.toLocalDate(), is(date));
+            }
+            assertThat("local sunrise", times.getSunriseLocalMilli(), is(local(times.getSunriseEpochMilli(), zone)));
+            assertThat("local noon", times.getSolarNoonLocalMilli(), is(local(times.getSolarNoonEpochMilli(), zone)));
+            assertThat("local sunset", times.getSunsetLocalMilli(), is(local(times.getSunsetEpochMilli(), zone)));
+            assertThat("offset", times.getSolarNoonOffsetSeconds(),
+                    is(zone.getRules().getOffset(Instant.ofEpochMilli(times.getSolarNoonEpochMilli())).getTotalSeconds()));
+        }
+
+        // 2023-06-21 in Berlin: sunrise 04:43, noon 13:08, sunset 21:33 CEST
+        times.compute(52.52, 13.405, LocalDate.of(2023, 6, 21));
+        LocalDateTime noon = LocalDateTime.ofEpochSecond(times.getSolarNoonLocalMilli() / 1000, 0, ZoneOffset.UTC);
+        assertThat("noon hour", noon.getHour(), is(13));
+        assertThat("noon minute", noon.getMinute(), is(8));
+        LocalDateTime sunrise = LocalDateTime.ofEpochSecond(times.getSunriseLocalMilli() / 1000, 0, ZoneOffset.UTC);
+        assertThat("sunrise", sunrise.getHour() * 60 + sunrise.getMinute(), is(4 * 60 + 43));
+    }
+
+    @Test
+    void testDateLine() {
+        // local dates far from UTC, and zones whose clock is about a day off the solar time
+        for (String[] site : new String[][]{{"-41.29", "174.78", "Pacific/Auckland"}, {"21.31", "-157.86", "Pacific/Honolulu"},
+                {"1.87", "-157.43", "Pacific/Kiritimati"}, {"-14.0", "170.0", "Etc/GMT+12"}}) {
+            ZoneId zone = ZoneId.of(site[2]);
+            LocalSunTimes times = new LocalSunTimes(new ZoneOffsetTable(zone, 2024, 2024));
+            for (LocalDate date = LocalDate.of(2024, 1, 1); date.getYear() < 2025; date = date.plusDays(7)) {
+                times.compute(Double.parseDouble(site[0]), Double.parseDouble(site[1]), date);
+                assertThat(site[2] + " " + date,
+                        Instant.ofEpochMilli(times.getSolarNoonEpochMilli()).atZone(zone).toLocalDate(), is(date));
+                assertThat("order", times.getSunriseEpochMilli() < times.getSunsetEpochMilli(), is(true));
+            }
+        }
+    }
+
+    @Test
+    void testPolar() {
+        LocalSunTimes times = new LocalSunTimes(new ZoneOffsetTable(ZoneId.of("Arctic/Longyearbyen"), 2023, 2023));
+        times.compute(78.2, 15.6, LocalDate.of(2023, 6, 21));
+        assertThat("polar day", times.hasSunrise() || times.hasSunset(), is(false));
+        assertThat("no sunrise", times.getSunriseLocalMilli(), is(LocalSunTimes.NONE));
+        assertThat("noon", times.getSolarNoonOffsetSeconds(), is(7200));
+
+        times.compute(78.2, 15.6, LocalDate.of(2023, 3, 21));
+        assertThat("reused", times.hasSunrise() && times.hasSunset(), is(true));
+    }
+
+    private static long local(long epochMilli, ZoneId zone) {
+        return Instant.ofEpochMilli(epochMilli).atZone(zone).toLocalDateTime().toEpochSecond(ZoneOffset.UTC) * 1000
+                + Math.floorMod(epochMilli, 1000);
+    }
+}
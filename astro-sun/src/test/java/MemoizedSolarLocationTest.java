@@ -0,0 +1,92 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.MemoizedSolarLocation;
+import xyz.wirklich.astro.sun.SolarLocation;
+import xyz.wirklich.astro.time.Instrumentation;
+import xyz.wirklich.astro.time.JulianDay;
+import xyz.wirklich.astro.time.SimpleMetrics;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+
+class MemoizedSolarLocationTest {
+
+    private static void assertSame(String label, SolarLocation expected, SolarLocation memo) {
+        assertThat(label + " declination", memo.sunDeclination(), is(expected.sunDeclination()));
+        assertThat(label + " obliquity", memo.obliqueCorrected(), is(expected.obliqueCorrected()));
+        assertThat(label + " ha sunrise", memo.haSunrise(), is(expected.haSunrise()));
+        assertThat(label + " sunrise", memo.sunrise(), is(expected.sunrise()));
+        assertThat(label + " noon", memo.solarNoon(), is(expected.solarNoon()));
+        assertThat(label + " sunset", memo.sunset(), is(expected.sunset()));
+        assertThat(label + " duration", memo.sunlightDuration(), is(expected.sunlightDuration()));
+        assertThat(label + " true solar time", memo.trueSolarTime(), is(expected.trueSolarTime()));
+        assertThat(label + " hour angle", memo.hourAngle(), is(expected.hourAngle()));
+        assertThat(label + " zenith", memo.solarZenithAngle(), is(expected.solarZenithAngle()));
+        assertThat(label + " elevation", memo.solarElevation(), is(expected.solarElevation()));
+        assertThat(label + " corrected", memo.solarElevationCorrected(), is(expected.solarElevationCorrected()));
+        assertThat(label + " azimuth", memo.solarAzimuth(), is(expected.solarAzimuth()));
+    }
+
+    @Test
+    void testIdentical() {
+        Random rnd = new Random(23);
+        JulianDay jd = new JulianDay(2460117.0);
+        SolarLocation expected = new SolarLocation(0, 0, jd);
+        MemoizedSolarLocation memo = new MemoizedSolarLocation(0, 0, jd);
+        for (int i = 0; i < 20000; i++) {
+            // scrub time, site or both
+            int what = rnd.nextInt(4);
+            if (what != 1) {
+                jd.setJd(2451545 + rnd.nextDouble() * 20000);
+            }
+            if (what == 1 || what == 3) {
+                double lat = rnd.nextDouble() * 180 - 90;
+                expected.setLatitude(lat);
+                memo.setLatitude(lat);
+            }
+            if (what >= 2) {
+                double lon = rnd.nextDouble() * 360 - 180;
+                expected.setLongitude(lon);
+                memo.setLongitude(lon);
+            }
+            assertSame("step " + i, expected, memo);
+        }
+    }
+
+    @Test
+    void testInvalidation() {
+        SimpleMetrics metrics = new SimpleMetrics();
+        Instrumentation.setMetrics(metrics);
+        try {
+            JulianDay jd = new JulianDay(2460117.25);
+            MemoizedSolarLocation memo = new MemoizedSolarLocation(50, 10, jd);
+            memo.solarElevation();
+            memo.solarAzimuth();
+            memo.sunrise();
+            memo.sunset();
+            assertThat("ephemerides", metrics.getCount(Instrumentation.EPHEMERIDES), is(1L));
+
+            // moving the site keeps the ephemeris
+            memo.setLatitude(40);
+            memo.setLongitude(-70);
+            memo.solarElevation();
+            memo.sunrise();
+            assertThat("site moved", metrics.getCount(Instrumentation.EPHEMERIDES), is(1L));
+            assertThat("same ephemeris", memo.getEphemeris() == memo.getEphemeris(), is(true));
+
+            // changing the time recomputes it once
+            jd.setJd(2460117.5);
+            memo.solarElevation();
+            memo.solarAzimuth();
+            memo.haSunrise();
+            assertThat("time changed", metrics.getCount(Instrumentation.EPHEMERIDES), is(2L));
+
+            SolarLocation expected = new SolarLocation(40, -70, jd);
+            assertSame("after", expected, memo);
+        } finally {
+            Instrumentation.setMetrics(null);
+        }
+    }
+}
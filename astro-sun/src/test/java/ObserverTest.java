@@ -0,0 +1,45 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.Observer;
+import xyz.wirklich.astro.sun.SolarEphemeris;
+import xyz.wirklich.astro.sun.SolarLocation;
+import xyz.wirklich.astro.sun.SolarPosition;
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+
+class ObserverTest {
+
+    @Test
+    void testPosition() {
+        Random rnd = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            double lat = -89 + 178 * rnd.nextDouble();
+            double lon = -180 + 360 * rnd.nextDouble();
+            JulianDay jd = new JulianDay(2451545 + 20000 * rnd.nextDouble());
+            SolarPosition position = new Observer(lat, lon).position(jd);
+            SolarLocation loc = new SolarLocation(lat, lon, jd);
+
+            assertThat("jd", position.jd(), is(jd.getJd()));
+            assertThat("latitude", position.latitude(), is(lat));
+            assertThat("hour angle", position.hourAngle(), is(loc.hourAngle()));
+            assertThat("zenith", position.zenithAngle(), closeTo(loc.solarZenithAngle(), 1e-9));
+            assertThat("elevation", position.geometricElevation(), closeTo(loc.solarElevation(), 1e-9));
+            assertThat("corrected", position.elevation(), closeTo(loc.solarElevationCorrected(), 1e-9));
+            assertThat("azimuth", position.azimuth(), closeTo(loc.solarAzimuth(), 1e-8));
+        }
+    }
+
+    @Test
+    void testSharedEphemeris() {
+        SolarEphemeris eph = new SolarEphemeris(2460117.07443);
+        Observer munich = new Observer(48.137, 11.575);
+        assertThat("same", munich.position(eph), is(SolarPosition.of(eph, 48.137, 11.575)));
+        assertThat("elevation", munich.position(eph).elevation(),
+                closeTo(eph.solarElevationCorrected(48.137, 11.575), 1e-9));
+    }
+}
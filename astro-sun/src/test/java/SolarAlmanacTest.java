@@ -0,0 +1,82 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.SolarAlmanac;
+import xyz.wirklich.astro.sun.SolarLocation;
+
+import java.nio.BufferOverflowException;
+import java.nio.DoubleBuffer;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class SolarAlmanacTest {
+
+    @Test
+    void testDay() {
+        SolarAlmanac almanac = new SolarAlmanac(30, 10);
+        SolarAlmanac.Day day = almanac.day(LocalDate.of(2022, 7, 22));
+        SolarLocation sl = new SolarLocation(30, 10, ZonedDateTime.of(2022, 7, 22, 11, 20, 0, 0, ZoneId.of("UTC")));
+
+        assertThat("Date", day.date(), equalTo(LocalDate.of(2022, 7, 22)));
+        assertThat("solar noon", day.solarNoon(), closeTo(sl.solarNoon(), 1e-5));
+        assertThat("sunrise", day.sunrise(), closeTo(sl.sunrise(), 1e-5));
+        assertThat("sunset", day.sunset(), closeTo(sl.sunset(), 1e-5));
+        assertThat("duration", day.sunlightDuration(), closeTo(sl.sunlightDuration(), 0.01));
+    }
+
+    @Test
+    void testStream() {
+        SolarAlmanac almanac = new SolarAlmanac(52.5, 13.4);
+        LocalDate from = LocalDate.of(2020, 1, 1);
+        LocalDate to = LocalDate.of(2030, 1, 1);
+
+        List<SolarAlmanac.Day> sequential = almanac.stream(from, to).collect(Collectors.toList());
+        List<SolarAlmanac.Day> parallel = almanac.stream(from, to).parallel().collect(Collectors.toList());
+        assertThat("Number of days", (long) sequential.size(), is(to.toEpochDay() - from.toEpochDay()));
+        assertThat("Parallel in order", parallel, equalTo(sequential));
+        assertThat("First day", sequential.get(0).date(), equalTo(from));
+
+        double longest = sequential.stream().mapToDouble(SolarAlmanac.Day::sunlightDuration).max().orElseThrow();
+        assertThat("Longest day in Berlin", longest / 60, closeTo(16.8, 0.1));
+    }
+
+    @Test
+    void testPolar() {
+        SolarAlmanac.Day day = new SolarAlmanac(80, 0).day(LocalDate.of(2023, 6, 21));
+        assertThat("No sunrise at polar day", Double.isNaN(day.sunrise()), is(true));
+        assertThat("Noon exists", Double.isNaN(day.solarNoon()), is(false));
+    }
+
+    @Test
+    void testWrite() {
+        SolarAlmanac almanac = new SolarAlmanac(-33.9, 18.4);
+        LocalDate from = LocalDate.of(2024, 2, 27);
+        LocalDate to = LocalDate.of(2024, 3, 3);
+        double[] out = new double[2 + 5 * SolarAlmanac.RECORD_SIZE];
+        assertThat("Days written", almanac.writeTo(from, to, out, 2), is(5));
+
+        DoubleBuffer buffer = DoubleBuffer.allocate(5 * SolarAlmanac.RECORD_SIZE);
+        almanac.writeTo(from, to, buffer);
+
+        List<SolarAlmanac.Day> days = almanac.stream(from, to).collect(Collectors.toList());
+        for (int i = 0; i < days.size(); i++) {
+            int o = 2 + i * SolarAlmanac.RECORD_SIZE;
+            assertThat("Epoch day", out[o], is((double) days.get(i).epochDay()));
+            assertThat("Sunrise", out[o + 1], is(days.get(i).sunrise()));
+            assertThat("Noon", out[o + 2], is(days.get(i).solarNoon()));
+            assertThat("Sunset", out[o + 3], is(days.get(i).sunset()));
+            assertThat("Duration", out[o + 4], is(days.get(i).sunlightDuration()));
+            assertThat("Buffer", buffer.get(o - 2 + 3), is(out[o + 3]));
+        }
+
+        DoubleBuffer small = DoubleBuffer.allocate(5 * SolarAlmanac.RECORD_SIZE - 1);
+        assertThrows(BufferOverflowException.class, () -> almanac.writeTo(from, to, small));
+        assertThat("Unchanged", small.position(), is(0));
+    }
+}
@@ -0,0 +1,34 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.SolarBatchEngine;
+import xyz.wirklich.astro.sun.SolarEphemeris;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+
+class SolarBatchEngineTest {
+
+    @Test
+    void testSelectScalar() {
+        System.setProperty(SolarBatchEngine.ENGINE_PROPERTY, "scalar");
+        try {
+            assertThat("Forced engine", SolarBatchEngine.select().name(), is("scalar"));
+        } finally {
+            System.clearProperty(SolarBatchEngine.ENGINE_PROPERTY);
+        }
+        assertThat("Fallback engine", SolarBatchEngine.select() != null, is(true));
+    }
+
+    @Test
+    void testScalarEphemeris() {
+        double[] jd = {2459782.54, 2451545, 2460202.05};
+        double[] declination = new double[3];
+        double[] eqOfTime = new double[3];
+        SolarBatchEngine.scalar().ephemeris(jd, 0, 3, declination, eqOfTime);
+        for (int i = 0; i < jd.length; i++) {
+            SolarEphemeris eph = new SolarEphemeris(jd[i]);
+            assertThat("Declination", declination[i], is(eph.getDeclination()));
+            assertThat("Eq of Time", eqOfTime[i], is(eph.getEquationOfTime()));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.SolarBatch;
+import xyz.wirklich.astro.sun.SolarLocation;
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class SolarBatchTest {
+
+    private static final int N = 2000;
+
+    private final double[] jd = new double[N];
+    private final double[] lat = new double[N];
+    private final double[] lon = new double[N];
+
+    SolarBatchTest() {
+        Random rnd = new Random(42);
+        for (int i = 0; i < N; i++) {
+            jd[i] = 2459000 + (i / 10) * 0.37; // groups of ten rows share the same time
+            lat[i] = -85 + 170 * rnd.nextDouble();
+            lon[i] = -180 + 360 * rnd.nextDouble();
+        }
+    }
+
+    @Test
+    void testArrays() {
+        int offset = 17;
+        int length = 1500;
+        double[] elevation = new double[N];
+        double[] azimuth = new double[N];
+        double[] zenith = new double[N];
+        double[] hourAngle = new double[N];
+        SolarBatch.compute(jd, lat, lon, offset, length, elevation, azimuth, zenith, hourAngle);
+
+        for (int i = 0; i < N; i++) {
+            if (i < offset || i >= offset + length) {
+                assertThat("Untouched row", elevation[i], is(0.));
+                continue;
+            }
+            SolarLocation sl = new SolarLocation(lat[i], lon[i], new JulianDay(jd[i]));
+            assertThat("Elevation", elevation[i], is(sl.solarElevationCorrected()));
+            assertThat("Azimuth", azimuth[i], is(sl.solarAzimuth()));
+            assertThat("Zenith", zenith[i], is(sl.solarZenithAngle()));
+            assertThat("Hour Angle", hourAngle[i], is(sl.hourAngle()));
+        }
+    }
+
+    @Test
+    void testBuffers() {
+        DoubleBuffer jdBuf = DoubleBuffer.wrap(jd);
+        DoubleBuffer latBuf = ByteBuffer.allocateDirect(N * Double.BYTES).asDoubleBuffer().put(lat);
+        DoubleBuffer lonBuf = DoubleBuffer.wrap(lon);
+        DoubleBuffer elevation = ByteBuffer.allocateDirect(N * Double.BYTES).asDoubleBuffer();
+        double[] azimuth = new double[N];
+
+        SolarBatch.compute(jdBuf, latBuf, lonBuf, 3, N - 3, elevation, DoubleBuffer.wrap(azimuth), null, null);
+
+        double[] expected = new double[N];
+        SolarBatch.compute(jd, lat, lon, 3, N - 3, expected, null, null, null);
+        for (int i = 3; i < N; i++) {
+            assertThat("Elevation", elevation.get(i), is(expected[i]));
+            assertThat("Azimuth", azimuth[i], is(new SolarLocation(lat[i], lon[i], new JulianDay(jd[i])).solarAzimuth()));
+        }
+    }
+
+    @Test
+    void testBounds() {
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> SolarBatch.compute(jd, lat, lon, 10, N, new double[N], null, null, null));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> SolarBatch.compute(jd, lat, lon, 0, N, new double[N - 1], null, null, null));
+    }
+}
@@ -0,0 +1,60 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.SolarEphemeris;
+import xyz.wirklich.astro.sun.SolarLocation;
+import xyz.wirklich.astro.time.JulianDay;
+import xyz.wirklich.astro.time.JulianInstant;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+
+class SolarEphemerisTest {
+
+    @Test
+    void testTimeDependent() {
+        JulianDay jd = new JulianDay(ZonedDateTime.of(2022, 7, 22, 1, 0, 0, 0, ZoneId.of("UTC")));
+        SolarEphemeris eph = new SolarEphemeris(jd);
+
+        assertThat("Julian Century", eph.getJulianCentury(), closeTo(0.22553160, 0.00001));
+        assertThat("App Long", eph.getApparentLongitude(), closeTo(119.24, 0.01));
+        assertThat("Obliq Corr", eph.getObliquity(), closeTo(23.44, 0.01));
+        assertThat("Sun Rt Ascen", eph.getRightAscension(), closeTo(121.39, 0.01));
+        assertThat("Sun Declin", eph.getDeclination(), closeTo(20.31, 0.01));
+        assertThat("Sun Rad Vector", eph.getRadiusVector(), closeTo(1.02, 0.01));
+        assertThat("Eq of Time", eph.getEquationOfTime(), closeTo(-6.47, 0.01));
+    }
+
+    @Test
+    void testManySites() {
+        JulianDay jd = new JulianDay(ZonedDateTime.of(2023, 3, 14, 15, 9, 26, 0, ZoneId.of("UTC")));
+        SolarEphemeris eph = new SolarEphemeris(jd);
+
+        for (double lat = -80; lat <= 80; lat += 10) {
+            for (double lon = -180; lon < 180; lon += 15) {
+                SolarLocation sl = new SolarLocation(lat, lon, jd);
+                assertThat("Hour Angle", eph.hourAngle(lon), is(sl.hourAngle()));
+                assertThat("Zenith", eph.solarZenithAngle(lat, lon), is(sl.solarZenithAngle()));
+                assertThat("Elevation", eph.solarElevationCorrected(lat, lon), is(sl.solarElevationCorrected()));
+                assertThat("Azimuth", eph.solarAzimuth(lat, lon), is(sl.solarAzimuth()));
+                assertThat("Sunrise", eph.sunrise(lat, lon), is(sl.sunrise()));
+                assertThat("Sunset", eph.sunset(lat, lon), is(sl.sunset()));
+            }
+        }
+    }
+
+    @Test
+    void testJulianInstant() {
+        ZonedDateTime date = ZonedDateTime.of(2022, 7, 22, 1, 0, 0, 0, ZoneId.of("UTC"));
+        SolarEphemeris precise = new SolarEphemeris(JulianInstant.ofInstant(date.toInstant()));
+        SolarEphemeris plain = new SolarEphemeris(new JulianDay(date));
+
+        assertThat("Declination", precise.getDeclination(), closeTo(plain.getDeclination(), 1e-9));
+        assertThat("Eq of Time", precise.getEquationOfTime(), closeTo(plain.getEquationOfTime(), 1e-9));
+        assertThat("Hour Angle", precise.hourAngle(10), closeTo(plain.hourAngle(10), 1e-6));
+        assertThat("Azimuth", precise.solarAzimuth(30, 10), closeTo(plain.solarAzimuth(30, 10), 1e-6));
+    }
+}
@@ -0,0 +1,158 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.SolarEventPublisher;
+import xyz.wirklich.astro.sun.SolarEventSolver;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class SolarEventPublisherTest {
+
+    private static final Instant START = Instant.parse("2023-03-01T00:00:00Z");
+
+    @Test
+    void testEvents() {
+        SolarEventPublisher publisher = publisher();
+        double[][] sites = {{48.137, 11.575}, {-33.9, 18.4}, {40.7, -74.0}, {35.7, 139.7}, {64.1, -21.9}};
+        for (int i = 0; i < sites.length; i++) {
+            publisher.addSite(i, sites[i][0], sites[i][1]);
+        }
+        Collector collector = new Collector(Long.MAX_VALUE);
+        publisher.subscribe(collector);
+
+        Instant end = START.plus(Duration.ofDays(10));
+        for (Instant t = START; t.isBefore(end); t = t.plus(Duration.ofMinutes(7))) {
+            publisher.advanceTo(t);
+        }
+        publisher.advanceTo(end);
+
+        // two crossings per elevation, site and day, in time order
+        assertThat("events", (double) collector.events.size(), closeTo(sites.length * 2 * 2 * 10, 2 * 2 * sites.length));
+        Instant last = START;
+        for (SolarEventPublisher.Event event : collector.events) {
+            assertThat("order", event.time().compareTo(last), greaterThanOrEqualTo(0));
+            assertThat("range", event.time().compareTo(end), lessThan(0));
+            last = event.time();
+
+            double[] site = sites[event.siteId()];
+            SolarEventSolver solver = new SolarEventSolver(site[0], site[1]);
+            boolean found = false;
+            long epochDay = LocalDate.ofInstant(event.time(), ZoneOffset.UTC).toEpochDay();
+            for (long day = epochDay - 1; day <= epochDay + 1; day++) {
+                SolarEventSolver.Events events = solver.solve(day, event.elevation());
+                double fraction = event.rising() ? events.rising() : events.setting();
+                found |= Math.abs((day + fraction) * 86_400_000 - event.time().toEpochMilli()) <= 1;
+            }
+            assertTrue(found, event.toString());
+        }
+    }
+
+    @Test
+    void testBackPressureAndRemove() throws Exception {
+        SolarEventPublisher publisher = publisher();
+        publisher.addSite(1, 48.137, 11.575);
+        publisher.addSite(2, 51.5, -0.1);
+        Collector collector = new Collector(3);
+        publisher.subscribe(collector);
+
+        publisher.advanceTo(START.plus(Duration.ofDays(1)));
+        assertThat("requested", collector.events.size(), is(3));
+        collector.subscription.request(100);
+        assertThat("all", collector.events.size(), is(8));
+
+        assertTrue(publisher.removeSite(2));
+        assertFalse(publisher.removeSite(2));
+        assertThat("sites", publisher.getSiteCount(), is(1));
+        publisher.advanceTo(START.plus(Duration.ofDays(2)));
+        assertThat("one site", collector.events.size(), is(12));
+        for (SolarEventPublisher.Event event : collector.events.subList(8, 12)) {
+            assertThat("site", event.siteId(), is(1));
+        }
+        assertThrows(IllegalArgumentException.class, () -> publisher.addSite(1, 0, 0));
+
+        publisher.close();
+        assertTrue(collector.complete);
+    }
+
+    @Test
+    void testNeverEarly() {
+        // coarse ticks, advanced in finer steps than a tick
+        SolarEventPublisher publisher = new SolarEventPublisher(Duration.ofMinutes(1), Clock.fixed(START, ZoneOffset.UTC),
+                Runnable::run, 16, SolarEventSolver.SUNRISE);
+        publisher.addSite(0, 48.137, 11.575);
+        publisher.addSite(1, 40.7, -74.0);
+        Instant[] now = {START};
+        List<String> early = new ArrayList<>();
+        Collector collector = new Collector(Long.MAX_VALUE) {
+            @Override
+            public void onNext(SolarEventPublisher.Event item) {
+                super.onNext(item);
+                if (item.time().isAfter(now[0])) {
+                    early.add(item + " at " + now[0]);
+                }
+                assertThat("late " + item, Duration.between(item.time(), now[0]).toMillis(), lessThan(70_000L));
+            }
+        };
+        publisher.subscribe(collector);
+        for (Instant end = START.plus(Duration.ofDays(5)); now[0].isBefore(end); ) {
+            now[0] = now[0].plusSeconds(10);
+            publisher.advanceTo(now[0]);
+        }
+        assertThat("events", collector.events.size(), greaterThanOrEqualTo(18));
+        assertThat("early " + early, early.size(), is(0));
+    }
+
+    private static SolarEventPublisher publisher() {
+        // deliver on the publishing thread, so the test sees all events right after advanceTo
+        return new SolarEventPublisher(Duration.ofSeconds(1), Clock.fixed(START, ZoneOffset.UTC), Runnable::run, 16,
+                SolarEventSolver.SUNRISE, SolarEventSolver.CIVIL_TWILIGHT);
+    }
+
+    private static class Collector implements Flow.Subscriber<SolarEventPublisher.Event> {
+
+        final List<SolarEventPublisher.Event> events = new ArrayList<>();
+        final long initial;
+        Flow.Subscription subscription;
+        boolean complete;
+
+        Collector(long initial) {
+            this.initial = initial;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initial);
+        }
+
+        @Override
+        public void onNext(SolarEventPublisher.Event item) {
+            events.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            throw new AssertionError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            complete = true;
+        }
+    }
+}
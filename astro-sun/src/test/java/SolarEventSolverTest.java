@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.SolarEphemeris;
+import xyz.wirklich.astro.sun.SolarEventSolver;
+import xyz.wirklich.astro.sun.SolarLocation;
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notANumber;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class SolarEventSolverTest {
+
+    @Test
+    void testSunrise() {
+        // Munich, the classic sunrise with -0.833 deg geometric elevation is within a minute
+        SolarEventSolver solver = new SolarEventSolver(48.137, 11.575);
+        LocalDate date = LocalDate.of(2023, 6, 21);
+        SolarEventSolver.Events events = solver.solve(date, SolarEventSolver.SUNRISE);
+        assertThat("kind", events.kind(), is(SolarEventSolver.Kind.REGULAR));
+        assertThat("date", events.date(), is(date));
+
+        double noonJd = JulianDay.EPOCH_JD + date.toEpochDay() + 0.5;
+        SolarLocation loc = new SolarLocation(48.137, 11.575, new JulianDay(noonJd - 11.575 / 360));
+        assertThat("sunrise", events.rising(), closeTo(loc.sunrise(), 1. / 1440));
+        assertThat("sunset", events.setting(), closeTo(loc.sunset(), 1. / 1440));
+    }
+
+    @Test
+    void testCrossings() {
+        double[] thresholds = {SolarEventSolver.SUNRISE, SolarEventSolver.GOLDEN_HOUR, SolarEventSolver.BLUE_HOUR,
+                SolarEventSolver.CIVIL_TWILIGHT, SolarEventSolver.NAUTICAL_TWILIGHT,
+                SolarEventSolver.ASTRONOMICAL_TWILIGHT};
+        double[][] sites = {{0, 0}, {-33.9, 18.4}, {40.7, -74.0}, {35.7, 139.7}, {60.2, 24.9}};
+        for (double[] site : sites) {
+            SolarEventSolver solver = new SolarEventSolver(site[0], site[1]);
+            for (long day = 19000; day < 19365; day += 29) {
+                for (double threshold : thresholds) {
+                    SolarEventSolver.Events events = solver.solve(day, threshold);
+                    assertThat("evaluations", events.evaluations(), lessThanOrEqualTo(1 + 2 * 12));
+                    if (events.kind() != SolarEventSolver.Kind.REGULAR) {
+                        continue;
+                    }
+                    assertThat("rising", elevation(day, events.rising(), site), closeTo(threshold, 1e-4));
+                    assertThat("setting", elevation(day, events.setting(), site), closeTo(threshold, 1e-4));
+                    assertThat("order", events.rising(), lessThan(events.setting()));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testPolar() {
+        SolarEventSolver solver = new SolarEventSolver(78.2, 15.6); // Longyearbyen
+        SolarEventSolver.Events summer = solver.solve(LocalDate.of(2023, 6, 21), SolarEventSolver.SUNRISE);
+        assertThat("kind", summer.kind(), is(SolarEventSolver.Kind.POLAR_DAY));
+        assertThat("rising", summer.rising(), is(notANumber()));
+        assertThat("setting", summer.setting(), is(notANumber()));
+
+        SolarEventSolver.Events winter = solver.solve(LocalDate.of(2023, 12, 21), SolarEventSolver.CIVIL_TWILIGHT);
+        assertThat("kind", winter.kind(), is(SolarEventSolver.Kind.POLAR_NIGHT));
+
+        // the last rising before the polar day, the sun does not set again on that day
+        SolarEventSolver.Events transition = solver.solve(LocalDate.of(2023, 4, 19), SolarEventSolver.SUNRISE);
+        assertThat("kind", transition.kind(), is(SolarEventSolver.Kind.RISING_ONLY));
+        assertThat("rising", Double.isFinite(transition.rising()), is(true));
+        assertThat("setting", transition.setting(), is(notANumber()));
+        assertThat("before", solver.solve(LocalDate.of(2023, 4, 18), SolarEventSolver.SUNRISE).kind(),
+                is(SolarEventSolver.Kind.REGULAR));
+        assertThat("after", solver.solve(LocalDate.of(2023, 4, 20), SolarEventSolver.SUNRISE).kind(),
+                is(SolarEventSolver.Kind.POLAR_DAY));
+    }
+
+    @Test
+    void testArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new SolarEventSolver(0, 0, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new SolarEventSolver(0, 0, 1e-6, 2));
+    }
+
+    private static double elevation(long epochDay, double fraction, double[] site) {
+        return new SolarEphemeris(JulianDay.EPOCH_JD + epochDay + fraction).solarElevationCorrected(site[0], site[1]);
+    }
+}
@@ -0,0 +1,55 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.InsolationIntegrator;
+import xyz.wirklich.astro.sun.SolarBatch;
+import xyz.wirklich.astro.sun.SolarEphemeris;
+import xyz.wirklich.astro.sun.SolarRaster;
+import xyz.wirklich.astro.time.Instrumentation;
+import xyz.wirklich.astro.time.SimpleMetrics;
+
+import java.nio.DoubleBuffer;
+import java.time.LocalDate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+
+class SolarInstrumentationTest {
+
+    @Test
+    void testCounters() {
+        SimpleMetrics metrics = new SimpleMetrics();
+        Instrumentation.setMetrics(metrics);
+        try {
+            SolarEphemeris eph = new SolarEphemeris(2460117.0);
+            assertThat("ephemerides", metrics.getCount(Instrumentation.EPHEMERIDES), is(1L));
+            eph.haSunrise(80); // polar day
+            eph.haSunrise(50);
+            assertThat("nan", metrics.getCount(Instrumentation.NAN_RESULTS), is(1L));
+
+            double[] jd = {2460117.0, 2460117.1, 2460117.2, 2460117.3};
+            double[] lat = {50, Double.NaN, 10, Double.NaN};
+            double[] lon = {10, 10, 10, 10};
+            double[] elevation = new double[4];
+            SolarBatch.compute(jd, lat, lon, 0, 4, elevation, null, null, null);
+            SolarBatch.compute(DoubleBuffer.wrap(jd), DoubleBuffer.wrap(lat), DoubleBuffer.wrap(lon), 1, 3,
+                    DoubleBuffer.wrap(elevation), null, null, null);
+            assertThat("evaluations", metrics.getCount(Instrumentation.EVALUATIONS), is(7L));
+            assertThat("nan rows", metrics.getCount(Instrumentation.NAN_RESULTS), is(5L));
+            assertThat("latency", metrics.getHistogram("SolarBatch.compute").getCount(), is(2L));
+
+            SolarRaster raster = SolarRaster.global(10);
+            raster.compute(eph, new float[raster.size()], null);
+            raster.daylight(eph, -0.833, new byte[raster.size()]);
+            assertThat("raster", metrics.getHistogram("SolarRaster.compute").getCount(), is(1L));
+            assertThat("daylight", metrics.getHistogram("SolarRaster.daylight").getCount(), is(1L));
+            assertThat("cells", metrics.getCount(Instrumentation.EVALUATIONS), is(7L + 2 * raster.size()));
+
+            // polar night and day are clamped
+            new InsolationIntegrator().integrate(new double[]{85, 0, -85}, new double[]{0, 0, 0},
+                    LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 11), null, null);
+            assertThat("clamped", metrics.getCount(Instrumentation.CLAMPED), is(20L));
+        } finally {
+            Instrumentation.setMetrics(null);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.SolarLocation;
+import xyz.wirklich.astro.sun.SolarPosition;
+import xyz.wirklich.astro.sun.SolarPositionService;
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class SolarPositionServiceTest {
+
+    @Test
+    void testQuantizedCache() {
+        SolarPositionService service = new SolarPositionService(Duration.ofMinutes(1), 100);
+        Instant instant = Instant.parse("2023-06-21T10:15:00Z");
+
+        SolarPosition first = service.get(48.137, 11.575, instant.plusSeconds(10));
+        SolarPosition second = service.get(48.137, 11.575, instant.minusSeconds(20));
+        assertSame(first, second);
+        assertThat("hits", service.getHits(), is(1L));
+        assertThat("misses", service.getMisses(), is(1L));
+
+        // the position is the one of the rounded time
+        SolarLocation loc = new SolarLocation(48.137, 11.575, new JulianDay(JulianDay.instantToJd(instant)));
+        assertThat("jd", first.jd(), closeTo(JulianDay.instantToJd(instant), 1e-9));
+        assertThat("elevation", first.elevation(), closeTo(loc.solarElevationCorrected(), 1e-9));
+        assertThat("azimuth", first.azimuth(), closeTo(loc.solarAzimuth(), 1e-9));
+        assertThat("zenith", first.zenithAngle(), closeTo(loc.solarZenithAngle(), 1e-9));
+        assertThat("hour angle", first.hourAngle(), closeTo(loc.hourAngle(), 1e-9));
+
+        service.get(48.137, 11.575, instant.plusSeconds(31));
+        assertThat("misses", service.getMisses(), is(2L));
+    }
+
+    @Test
+    void testEviction() {
+        SolarPositionService service = new SolarPositionService(Duration.ofSeconds(1), 64, 4);
+        for (int i = 0; i < 1000; i++) {
+            service.get(i * 0.01, 0, 0);
+        }
+        assertThat("size", service.size(), lessThanOrEqualTo(64));
+        assertThat("evictions", service.getEvictions(), is(1000L - service.size()));
+        service.clear();
+        assertThat("size", service.size(), is(0));
+
+        // the capacity is exact, also below the number of stripes and if it does not divide evenly
+        for (int capacity : new int[]{1, 5, 17, 70}) {
+            SolarPositionService small = new SolarPositionService(Duration.ofSeconds(1), capacity);
+            for (int i = 0; i < 1000; i++) {
+                small.get(i * 0.01, 0, 0);
+            }
+            assertThat("capacity " + capacity, small.size(), lessThanOrEqualTo(capacity));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new SolarPositionService(Duration.ZERO, 10));
+    }
+
+    @Test
+    void testConcurrent() throws Exception {
+        SolarPositionService service = new SolarPositionService(Duration.ofMinutes(1), 10_000);
+        int threads = 8;
+        int requests = 5000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < requests; i++) {
+                    int site = i % 50;
+                    SolarPosition position = service.get(site, -site, 1_687_000_000_000L + (i % 7) * 60_000L);
+                    assertThat("latitude", position.latitude(), is((double) site));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertThat("requests", service.getHits() + service.getMisses() + service.getCoalesced(),
+                is((long) threads * requests));
+        assertThat("misses", service.getMisses(), is(50L * 7));
+    }
+}
@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.SolarEphemeris;
+import xyz.wirklich.astro.sun.SolarLocation;
+import xyz.wirklich.astro.sun.SolarRaster;
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+
+class SolarRasterTest {
+
+    private static final JulianDay JD = new JulianDay(2459000.3);
+
+    @Test
+    void testGlobal() {
+        SolarRaster raster = SolarRaster.global(1);
+        assertThat("rows", raster.getRows(), is(180));
+        assertThat("columns", raster.getColumns(), is(360));
+        assertThat("first latitude", raster.getLatitude(0), closeTo(89.5, 1e-12));
+        assertThat("first longitude", raster.getLongitude(0), closeTo(-179.5, 1e-12));
+
+        float[] elevation = new float[raster.size()];
+        float[] azimuth = new float[raster.size()];
+        raster.compute(JD, elevation, azimuth);
+
+        for (int r = 0; r < raster.getRows(); r += 7) {
+            for (int c = 0; c < raster.getColumns(); c += 11) {
+                SolarLocation loc = new SolarLocation(raster.getLatitude(r), raster.getLongitude(c), JD);
+                int i = r * raster.getColumns() + c;
+                assertThat("elevation", (double) elevation[i], closeTo(loc.solarElevationCorrected(), 1e-4));
+                assertThat("azimuth", (double) azimuth[i], closeTo(loc.solarAzimuth(), 1e-4));
+            }
+        }
+    }
+
+    @Test
+    void testBuffer() {
+        SolarRaster raster = new SolarRaster(60, -0.5, 241, 0, 0.5, 300);
+        SolarEphemeris eph = new SolarEphemeris(JD);
+        float[] elevation = new float[raster.size()];
+        raster.compute(eph, elevation, null);
+
+        FloatBuffer buffer = ByteBuffer.allocateDirect(raster.size() * Float.BYTES)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        raster.compute(eph, buffer, null);
+        assertThat("position", buffer.position(), is(0));
+        for (int i = 0; i < raster.size(); i++) {
+            assertThat("buffer", buffer.get(i), is(elevation[i]));
+        }
+    }
+
+    @Test
+    void testDaylight() {
+        SolarRaster raster = SolarRaster.global(2);
+        SolarEphemeris eph = new SolarEphemeris(JD);
+        byte[] mask = new byte[raster.size()];
+        raster.daylight(eph, 0, mask);
+        for (int r = 0; r < raster.getRows(); r++) {
+            for (int c = 0; c < raster.getColumns(); c++) {
+                double elevation = eph.solarElevation(raster.getLatitude(r), raster.getLongitude(c));
+                if (Math.abs(elevation) > 1e-9) {
+                    assertThat("mask", mask[r * raster.getColumns() + c] == 1, is(elevation > 0));
+                }
+            }
+        }
+    }
+}
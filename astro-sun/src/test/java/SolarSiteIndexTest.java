@@ -0,0 +1,136 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.SolarEphemeris;
+import xyz.wirklich.astro.sun.SolarSiteIndex;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class SolarSiteIndexTest {
+
+    private static final int N = 20000;
+
+    private final double[] lat = new double[N];
+    private final double[] lon = new double[N];
+    private final SolarSiteIndex index = new SolarSiteIndex(3, 5);
+
+    SolarSiteIndexTest() {
+        Random rnd = new Random(11);
+        for (int i = 0; i < N; i++) {
+            lat[i] = Math.toDegrees(Math.asin(2 * rnd.nextDouble() - 1));
+            lon[i] = -180 + 360 * rnd.nextDouble();
+            index.add(i, lat[i], lon[i]);
+        }
+    }
+
+    @Test
+    void testQuery() {
+        double[][] ranges = {{10, 91}, {-0.833, 91}, {-6, -0.833}, {-18, -12}, {-91, -30}};
+        for (double jd = 2459000.1; jd < 2459400; jd += 37.3) {
+            SolarEphemeris eph = new SolarEphemeris(jd);
+            for (double[] range : ranges) {
+                int[] found = index.query(eph, range[0], range[1]);
+                Arrays.sort(found);
+                assertArrayEquals(bruteForce(eph, range[0], range[1]), found);
+            }
+        }
+    }
+
+    @Test
+    void testSetting() {
+        SolarEphemeris now = new SolarEphemeris(2459100.3);
+        SolarEphemeris later = new SolarEphemeris(2459100.3 + 10. / 1440);
+        int[] setting = collect((index, action) -> index.setting(now, later, -0.833, action));
+        int[] rising = collect((index, action) -> index.rising(now, later, -0.833, action));
+        int expectedSetting = 0;
+        int expectedRising = 0;
+        for (int i = 0; i < N; i++) {
+            double before = now.solarElevation(lat[i], lon[i]);
+            double after = later.solarElevation(lat[i], lon[i]);
+            if (before >= -0.833 && after < -0.833) {
+                assertTrue(Arrays.binarySearch(setting, i) >= 0);
+                expectedSetting++;
+            }
+            if (before < -0.833 && after >= -0.833) {
+                assertTrue(Arrays.binarySearch(rising, i) >= 0);
+                expectedRising++;
+            }
+        }
+        assertThat("setting", setting.length, is(expectedSetting));
+        assertThat("rising", rising.length, is(expectedRising));
+        assertTrue(expectedSetting > 0 && expectedRising > 0);
+    }
+
+    @Test
+    void testRemove() {
+        SolarEphemeris eph = new SolarEphemeris(2459000.5);
+        for (int i = 0; i < N; i += 2) {
+            assertTrue(index.remove(i));
+        }
+        assertFalse(index.remove(0));
+        assertFalse(index.contains(0));
+        assertThat("size", index.size(), is(N / 2));
+        for (int id : index.query(eph, -91, 91)) {
+            assertThat("odd", id % 2, is(1));
+        }
+        index.add(0, 0, 0);
+        assertTrue(index.contains(0));
+        assertThrows(IllegalArgumentException.class, () -> index.add(1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> index.add(-1, 91, 0));
+    }
+
+    @Test
+    void testChurn() {
+        SolarEphemeris eph = new SolarEphemeris(2459000.5);
+        SolarSiteIndex churn = new SolarSiteIndex(30, 30);
+        boolean[] present = new boolean[4096];
+        Random rnd = new Random(5);
+        for (int i = 0; i < 100_000; i++) {
+            int k = rnd.nextInt(present.length);
+            int id = (k - 2048) * 1_000_003; // sparse and negative ids
+            if (present[k]) {
+                assertTrue(churn.remove(id));
+            } else {
+                churn.add(id, rnd.nextDouble() * 20, rnd.nextDouble() * 20); // few buckets
+            }
+            present[k] = !present[k];
+        }
+        int[] expected = IntStream.range(0, present.length).filter(k -> present[k])
+                .map(k -> (k - 2048) * 1_000_003).sorted().toArray();
+        int[] found = churn.query(eph, -91, 91);
+        Arrays.sort(found);
+        assertArrayEquals(expected, found);
+        assertThat("size", churn.size(), is(expected.length));
+        for (int k = 0; k < present.length; k++) {
+            assertThat("contains", churn.contains((k - 2048) * 1_000_003), is(present[k]));
+        }
+    }
+
+    private int[] bruteForce(SolarEphemeris eph, double min, double max) {
+        return IntStream.range(0, N).filter(i -> {
+            double elevation = eph.solarElevation(lat[i], lon[i]);
+            return elevation >= min && elevation < max;
+        }).toArray();
+    }
+
+    private interface Query {
+        int run(SolarSiteIndex index, IntConsumer action);
+    }
+
+    private int[] collect(Query query) {
+        IntStream.Builder ids = IntStream.builder();
+        int count = query.run(index, ids);
+        int[] result = ids.build().sorted().toArray();
+        assertThat("count", result.length, is(count));
+        return result;
+    }
+}
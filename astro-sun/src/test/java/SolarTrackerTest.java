@@ -0,0 +1,54 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.SolarLocation;
+import xyz.wirklich.astro.sun.SolarTracker;
+import xyz.wirklich.astro.time.JulianDay;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class SolarTrackerTest {
+
+    @Test
+    void testSeries() {
+        double startJd = 2460117.2;
+        SolarTracker tracker = new SolarTracker(48.137, 11.575, new JulianDay(startJd), 1);
+        for (int i = 0; i < 20000; i++) {
+            if (i % 97 == 0) {
+                SolarLocation loc = new SolarLocation(48.137, 11.575, new JulianDay(tracker.getJd()));
+                assertThat("jd", tracker.getJd(), closeTo(startJd + i / 86400., 1e-9));
+                assertThat("hour angle", tracker.getHourAngle(), closeTo(loc.hourAngle(), 1e-4));
+                assertThat("elevation", tracker.getElevation(), closeTo(loc.solarElevationCorrected(), 5e-6));
+                assertThat("azimuth", tracker.getAzimuth(), closeTo(loc.solarAzimuth(), 1e-4));
+            }
+            tracker.step();
+        }
+        assertThat("steps", tracker.getSteps(), is(20000L));
+
+        // the longest documented refresh interval, one hour
+        SolarTracker hourly = new SolarTracker(48.137, 11.575, startJd, 60, 60);
+        for (int i = 0; i < 3000; i++) {
+            SolarLocation loc = new SolarLocation(48.137, 11.575, new JulianDay(hourly.getJd()));
+            assertThat("hourly", hourly.getElevation(), closeTo(loc.solarElevationCorrected(), 5e-6));
+            hourly.step();
+        }
+    }
+
+    @Test
+    void testArrays() {
+        double startJd = 2459500.9;
+        SolarTracker tracker = new SolarTracker(-33.9, 18.4, startJd, 30, 20); // refresh every 10 minutes
+        double[] elevation = new double[500];
+        double[] azimuth = new double[500];
+        tracker.step(elevation, azimuth, 100, 400);
+        for (int i = 100; i < 500; i += 13) {
+            SolarLocation loc = new SolarLocation(-33.9, 18.4, new JulianDay(startJd + (i - 100) * 30 / 86400.));
+            assertThat("elevation", elevation[i], closeTo(loc.solarElevationCorrected(), 5e-6));
+            assertThat("azimuth", azimuth[i], closeTo(loc.solarAzimuth(), 1e-4));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> tracker.step(elevation, null, 200, 400));
+        assertThrows(IllegalArgumentException.class, () -> new SolarTracker(0, 0, startJd, 0, 10));
+    }
+}
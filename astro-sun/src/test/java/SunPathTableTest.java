@@ -0,0 +1,100 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.sun.SolarLocation;
+import xyz.wirklich.astro.sun.SunPathTable;
+import xyz.wirklich.astro.time.JulianDay;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class SunPathTableTest {
+
+    private static final double[] LATITUDES = {48.14, -33.9, 10.5, 23.4, 69.6, -89};
+    private static final double[] LONGITUDES = {11.58, 18.4, -66.9, 90, 18.9, 0};
+
+    private static double azimuthError(double a, double b) {
+        double d = Math.abs(a - b) % 360;
+        return Math.min(d, 360 - d);
+    }
+
+    @Test
+    void testAccuracy() {
+        SunPathTable[] tables = SunPathTable.build(LATITUDES, LONGITUDES, 2024);
+        Random rnd = new Random(25);
+        for (SunPathTable table : tables) {
+            String site = table.getLatitude() + " " + table.getLongitude();
+            assertThat(site + " elevation bound", (double) table.getMaxElevationError(), lessThan(0.1));
+            assertThat(site + " azimuth bound", (double) table.getMaxAzimuthError(), lessThan(0.1));
+            assertThat(site + " size", table.getDataSize() < 30_000, is(true));
+            for (int i = 0; i < 20000; i++) {
+                double jd = table.getStartJd() + rnd.nextDouble() * (table.getEndJd() - table.getStartJd());
+                SolarLocation sl = new SolarLocation(table.getLatitude(), table.getLongitude(), new JulianDay(jd));
+                double elevation = sl.solarElevationCorrected();
+                assertThat(site + " elevation " + jd, table.elevation(jd),
+                        closeTo(elevation, table.getMaxElevationError()));
+                double error = azimuthError(table.azimuth(jd), sl.solarAzimuth())
+                        * Math.cos(Math.toRadians(sl.solarElevation()));
+                assertThat(site + " azimuth " + jd, error, closeTo(0, table.getMaxAzimuthError()));
+            }
+        }
+    }
+
+    @Test
+    void testNodes() {
+        SunPathTable table = SunPathTable.build(new double[]{48.14}, new double[]{11.58}, 2023, 3, 20,
+                ForkJoinPool.commonPool())[0];
+        for (int day = 0; day <= 365; day += 3) {
+            for (int minute = 0; minute < 1440; minute += 20) {
+                double jd = table.getStartJd() + day + minute / 1440.;
+                SolarLocation sl = new SolarLocation(48.14, 11.58, new JulianDay(jd));
+                // quantization only
+                assertThat("elevation " + jd, table.elevation(jd), closeTo(sl.solarElevationCorrected(), 0.002));
+                assertThat("azimuth " + jd, azimuthError(table.azimuth(jd), sl.solarAzimuth()), closeTo(0, 0.003));
+            }
+        }
+        assertThat("end", table.contains(table.getEndJd()), is(true));
+        assertThat("after", table.contains(table.getEndJd() + 1e-6), is(false));
+        assertThrows(IllegalArgumentException.class, () -> table.elevation(table.getStartJd() - 1e-6));
+        assertThrows(IllegalArgumentException.class, () -> SunPathTable.build(new double[]{0}, new double[]{0},
+                2023, 5, 17, ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    void testSerialization() throws IOException {
+        SunPathTable[] tables = SunPathTable.build(LATITUDES, LONGITUDES, 2023);
+        Path path = Files.createTempFile("sunpath", ".bin");
+        try {
+            SunPathTable.write(path, tables);
+            SunPathTable[] read = SunPathTable.read(path);
+            assertThat("count", read.length, is(tables.length));
+            Random rnd = new Random(25);
+            for (int t = 0; t < tables.length; t++) {
+                assertThat("latitude", read[t].getLatitude(), is(tables[t].getLatitude()));
+                assertThat("longitude", read[t].getLongitude(), is(tables[t].getLongitude()));
+                assertThat("year", read[t].getYear(), is(2023));
+                assertThat("error", read[t].getMaxElevationError(), is(tables[t].getMaxElevationError()));
+                for (int i = 0; i < 1000; i++) {
+                    double jd = tables[t].getStartJd() + rnd.nextDouble() * 365;
+                    assertThat("elevation", read[t].elevation(jd), is(tables[t].elevation(jd)));
+                    assertThat("azimuth", read[t].azimuth(jd), is(tables[t].azimuth(jd)));
+                }
+            }
+
+            SunPathTable other = SunPathTable.build(0, 0, 2024);
+            assertThrows(IllegalArgumentException.class, () -> SunPathTable.write(path, tables[0], other));
+            Files.write(path, new byte[100]);
+            assertThrows(IOException.class, () -> SunPathTable.read(path));
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package xyz.wirklich.astro.sun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+
+/**
+ * In the package, unlike the other tests, because the fast kernels are package-private and the tier of this JVM is
+ * strict, thus they are not reachable through the public API.
+ */
+class SolarMathTest {
+
+    @Test
+    void testStrict() {
+        // the default tier is bit-identical to Math
+        assertThat("tier", SolarMath.tier(), is(SolarMath.Tier.STRICT));
+        Random rnd = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            double x = 720 * (2 * rnd.nextDouble() - 1);
+            double y = 2 * rnd.nextDouble() - 1;
+            assertThat("sin", SolarMath.sinDeg(x), is(Math.sin(Math.toRadians(x))));
+            assertThat("cos", SolarMath.cosDeg(x), is(Math.cos(Math.toRadians(x))));
+            assertThat("tan", SolarMath.tanDeg(x), is(Math.tan(Math.toRadians(x))));
+            assertThat("acos", SolarMath.acosDeg(y), is(Math.toDegrees(Math.acos(y))));
+            assertThat("asin", SolarMath.asinDeg(y), is(Math.toDegrees(Math.asin(y))));
+            assertThat("atan2", SolarMath.atan2Deg(y, x), is(Math.toDegrees(Math.atan2(y, x))));
+        }
+    }
+
+    @Test
+    void testFastDegree() {
+        Random rnd = new Random(2);
+        for (int i = 0; i < 100000; i++) {
+            double x = 720 * (2 * rnd.nextDouble() - 1);
+            assertThat("sin", SolarMath.fastSinDeg(x), closeTo(Math.sin(Math.toRadians(x)), 2e-15));
+            assertThat("cos", SolarMath.fastCosDeg(x), closeTo(Math.cos(Math.toRadians(x)), 2e-15));
+            double m = Math.abs(x % 180);
+            if (m < 89 || m > 91 && m < 179) {
+                double tan = Math.tan(Math.toRadians(x));
+                assertThat("tan", SolarMath.fastTanDeg(x), closeTo(tan, 1e-13 * Math.max(1, Math.abs(tan))));
+            }
+        }
+        // exact reduction in degree
+        assertThat("sin 180", SolarMath.fastSinDeg(180), closeTo(0, 0));
+        assertThat("cos 90", SolarMath.fastCosDeg(-90), closeTo(0, 0));
+        assertThat("sin 30", SolarMath.fastSinDeg(390), closeTo(0.5, 1e-16));
+        assertThat("large", SolarMath.fastSinDeg(1e12), is(Math.sin(Math.toRadians(1e12))));
+        assertThat("NaN", Double.isNaN(SolarMath.fastCosDeg(Double.NaN)), is(true));
+    }
+
+    @Test
+    void testFastInverse() {
+        Random rnd = new Random(3);
+        for (int i = 0; i < 100000; i++) {
+            double x = 2 * rnd.nextDouble() - 1;
+            double y = 2 * rnd.nextDouble() - 1;
+            double scale = Math.pow(10, 6 * rnd.nextDouble() - 3);
+            assertThat("atan2", SolarMath.fastAtan2(y * scale, x), closeTo(Math.atan2(y * scale, x), 1e-15));
+            double root = Math.sqrt((1 - x) * (1 + x));
+            assertThat("asin", SolarMath.fastAtan2(x, root), closeTo(Math.asin(x), 1e-15));
+            assertThat("acos", SolarMath.fastAtan2(root, x), closeTo(Math.acos(x), 1e-15));
+        }
+        assertThat("zero", SolarMath.fastAtan2(0, -1), is(Math.PI));
+        assertThat("axis", SolarMath.fastAtan2(-1, 0), is(-Math.PI / 2));
+        assertThat("infinity", SolarMath.fastAtan2(1, Double.NEGATIVE_INFINITY), is(Math.PI));
+    }
+}
@@ -0,0 +1,43 @@
+package xyz.wirklich.astro.sun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+
+class TimerWheelTest {
+
+    @Test
+    void testOrder() {
+        long start = 1_687_000_000L;
+        TimerWheel<Long> wheel = new TimerWheel<>(start);
+        Random rnd = new Random(5);
+        List<Long> ticks = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            // all levels and the overflow
+            long tick = start + (long) Math.pow(2, 30 * rnd.nextDouble());
+            ticks.add(tick);
+            wheel.schedule(tick, tick);
+        }
+        wheel.schedule(start - 10, start + 1); // late entries are due with the next tick
+        ticks.add(start + 1);
+        ticks.sort(null);
+
+        List<Long> fired = new ArrayList<>();
+        long end = start + (1L << 30);
+        for (long t = start; t < end; t += 1 + (long) rnd.nextInt(1 << 20)) {
+            wheel.advance(t, tick -> {
+                assertThat("due", tick <= wheel.now(), is(true));
+                fired.add(tick);
+            });
+        }
+        wheel.advance(end, fired::add);
+        assertThat("fired", fired, is(ticks));
+        assertThat("size", wheel.size(), is(0));
+    }
+}
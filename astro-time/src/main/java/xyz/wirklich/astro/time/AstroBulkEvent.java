@@ -0,0 +1,37 @@
+package xyz.wirklich.astro.time;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @author Ralf Ulrich
+ * <p>
+ * JDK Flight Recorder event of one bulk operation, e.g. a {@code SolarBatch.compute} over many rows. Recorded while a
+ * flight recording runs, e.g. {@code -XX:StartFlightRecording}, and free otherwise. Begins on construction, see
+ * {@link Instrumentation#finish(AstroBulkEvent, long, long, long)}.
+ */
+@Name("xyz.wirklich.astro.Bulk")
+@Label("Astro Bulk Operation")
+@Category("Astro")
+@Description("A bulk computation of the astro libraries")
+@StackTrace(false)
+public final class AstroBulkEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Rows")
+    @Description("The number of computed rows, cells or site-days")
+    long rows;
+
+    @Label("NaN Results")
+    long nanResults;
+
+    public AstroBulkEvent(String operation) {
+        this.operation = operation;
+        begin();
+    }
+}
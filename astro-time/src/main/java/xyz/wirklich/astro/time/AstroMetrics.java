@@ -0,0 +1,25 @@
+package xyz.wirklich.astro.time;
+
+/**
+ * @author Ralf Ulrich
+ * <p>
+ * Receiver of the counters and latencies of the astro libraries, installed with
+ * {@link Instrumentation#setMetrics(AstroMetrics)}. Bridge it to the metrics system of the application, or use
+ * {@link SimpleMetrics}.
+ * <p>
+ * Implementations are called concurrently from any thread, also from the worker threads of bulk operations, and
+ * should return quickly.
+ */
+public interface AstroMetrics {
+
+    /**
+     * @param counter One of the counter names in {@link Instrumentation}
+     */
+    void count(String counter, long delta);
+
+    /**
+     * @param operation The name of a bulk operation, e.g. {@code SolarBatch.compute}
+     * @param nanos     The duration in units of [nanosecond]
+     */
+    void record(String operation, long nanos);
+}
@@ -23,13 +23,17 @@ public class FractionOfDay {
     }
 
     public FractionOfDay(int hour, int minute, int second, int nanoSecond) {
-        this.dayFraction = ((double)hour + (double)minute / 60 + (double)second / 60 / 60 + (double)nanoSecond / 60 / 60 / 1e9) / 24;
+        this.dayFraction = dayFraction(hour, minute, second, nanoSecond);
         this.hour = hour;
         this.minute = minute;
         this.second = second;
         this.nanoSecond = nanoSecond;
     }
 
+    static double dayFraction(int hour, int minute, int second, int nanoSecond) {
+        return ((double)hour + (double)minute / 60 + (double)second / 60 / 60 + (double)nanoSecond / 60 / 60 / 1e9) / 24;
+    }
+
     public double getDayFraction() {
         return dayFraction;
     }
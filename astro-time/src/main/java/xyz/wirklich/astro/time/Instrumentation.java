@@ -0,0 +1,136 @@
+package xyz.wirklich.astro.time;
+
+/**
+ * @author Ralf Ulrich
+ * <p>
+ * Switch for the counters and latencies of the astro libraries, off by default.
+ * <p>
+ * While no {@link AstroMetrics} is installed, each instrumented place costs one volatile read and a branch that is
+ * never taken, and no clock is read. Hot inner loops are never instrumented per element, they count into a local
+ * and bulk operations report once per call. Independently of this switch, each bulk call allocates one
+ * {@link AstroBulkEvent}, which is emitted to the JDK Flight Recorder while a recording runs.
+ */
+public final class Instrumentation {
+
+    /**
+     * Calendar conversions of {@link JulianDay#getDate()} and {@link JulianDay#setDate(java.time.ZonedDateTime)}.
+     */
+    public static final String CONVERSIONS = "astro.time.conversions";
+    /**
+     * Full evaluations of the time-dependent sun quantities (declination, equation of time, ...).
+     */
+    public static final String EPHEMERIDES = "astro.sun.ephemerides";
+    /**
+     * Evaluations of the sun position for one site and time by the bulk operations, one per row or cell.
+     */
+    public static final String EVALUATIONS = "astro.sun.evaluations";
+    /**
+     * NaN results, e.g. {@code haSunrise} in polar day and night, or rounding beyond the domain of acos.
+     */
+    public static final String NAN_RESULTS = "astro.sun.nan";
+    /**
+     * Inputs or intermediates clamped into their domain, e.g. the cosine of the sunset hour angle at polar latitudes.
+     */
+    public static final String CLAMPED = "astro.sun.clamped";
+
+    private static volatile AstroMetrics metrics;
+
+    private Instrumentation() {
+    }
+
+    /**
+     * @param metrics null switches the instrumentation off
+     */
+    public static void setMetrics(AstroMetrics metrics) {
+        Instrumentation.metrics = metrics;
+    }
+
+    /**
+     * @return null if switched off
+     */
+    public static AstroMetrics getMetrics() {
+        return metrics;
+    }
+
+    public static boolean isEnabled() {
+        return metrics != null;
+    }
+
+    public static void count(String counter) {
+        AstroMetrics m = metrics;
+        if (m != null) m.count(counter, 1);
+    }
+
+    public static void count(String counter, long delta) {
+        AstroMetrics m = metrics;
+        if (m != null && delta != 0) m.count(counter, delta);
+    }
+
+    /**
+     * @return The start time for {@link #finish(AstroBulkEvent, long, long, long)}, 0 if switched off
+     */
+    public static long start() {
+        return metrics != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * @return True if the NaN results of the current bulk operation are of interest, either for the metrics or for
+     * the flight recorder
+     */
+    public static boolean countsNaN(AstroBulkEvent event, long start) {
+        return start != 0 || event.shouldCommit();
+    }
+
+    /**
+     * Records the latency and the counters of one bulk operation, and commits the event if it is recorded.
+     *
+     * @param start      From {@link #start()}
+     * @param rows       The number of evaluations
+     * @param nanResults The number of NaN results, if counted
+     */
+    public static void finish(AstroBulkEvent event, long start, long rows, long nanResults) {
+        finish(event, start, rows, nanResults, 0);
+    }
+
+    /**
+     * @param clamped The number of {@link #CLAMPED} intermediates, counted locally by the operation
+     * @see #finish(AstroBulkEvent, long, long, long)
+     */
+    public static void finish(AstroBulkEvent event, long start, long rows, long nanResults, long clamped) {
+        AstroMetrics m = metrics;
+        if (start != 0 && m != null) {
+            m.record(event.operation, System.nanoTime() - start);
+            m.count(EVALUATIONS, rows);
+            if (nanResults != 0) m.count(NAN_RESULTS, nanResults);
+            if (clamped != 0) m.count(CLAMPED, clamped);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.rows = rows;
+            event.nanResults = nanResults;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return The number of NaN values in the range
+     */
+    public static long countNaN(double[] values, int from, int to) {
+        long n = 0;
+        for (int i = from; i < to; i++) {
+            if (values[i] != values[i]) n++;
+        }
+        return n;
+    }
+
+    /**
+     * @return The number of NaN values in the range
+     */
+    public static long countNaN(float[] values, int from, int to) {
+        long n = 0;
+        for (int i = from; i < to; i++) {
+            if (values[i] != values[i]) n++;
+        }
+        return n;
+    }
+}
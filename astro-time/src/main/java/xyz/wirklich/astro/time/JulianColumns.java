@@ -0,0 +1,121 @@
+package xyz.wirklich.astro.time;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Ralf Ulrich
+ * <p>
+ * Columnar conversions between {@code long[]} epoch counts (seconds, milliseconds, ... since 1970-01-01T00:00:00Z)
+ * and {@code double[]} JD or MJD columns.
+ * <p>
+ * Element {@code i} of the input is written to element {@code i} of the output, for
+ * {@code offset <= i < offset+length}. The results are identical to the single-value conversions, e.g.
+ * {@link JulianDay#epochMilliToJd(long)} and {@link ModifiedJulianDate#mjdToEpochSecond(double)}. Columns of at least
+ * {@value #PARALLEL_THRESHOLD} elements are split into chunks that are converted in the common
+ * {@link ForkJoinPool}. Nothing is allocated per element.
+ */
+public final class JulianColumns {
+
+    /**
+     * Minimum length of a column that is converted in parallel, also the minimum chunk size.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private JulianColumns() {
+    }
+
+    /**
+     * @param unit Of the epoch counts
+     */
+    public static void toJd(long[] epoch, TimeUnit unit, int offset, int length, double[] jd) {
+        toDays(epoch, unit, offset, length, jd, JulianDay.EPOCH_JD);
+    }
+
+    public static void toMjd(long[] epoch, TimeUnit unit, int offset, int length, double[] mjd) {
+        toDays(epoch, unit, offset, length, mjd, ModifiedJulianDate.EPOCH_MJD);
+    }
+
+    /**
+     * Rounded to the nearest unit. Note, a double JD near the present only resolves about 40 microseconds.
+     */
+    public static void fromJd(double[] jd, TimeUnit unit, int offset, int length, long[] epoch) {
+        fromDays(jd, unit, offset, length, epoch, JulianDay.EPOCH_JD);
+    }
+
+    /**
+     * Rounded to the nearest unit.
+     */
+    public static void fromMjd(double[] mjd, TimeUnit unit, int offset, int length, long[] epoch) {
+        fromDays(mjd, unit, offset, length, epoch, ModifiedJulianDate.EPOCH_MJD);
+    }
+
+    // -----------------------------------------------
+
+    private static void toDays(long[] epoch, TimeUnit unit, int offset, int length, double[] days, double epochDay) {
+        Objects.checkFromIndexSize(offset, length, epoch.length);
+        Objects.checkFromIndexSize(offset, length, days.length);
+        long perDay = perDay(unit);
+        run("JulianColumns.toDays", offset, length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                days[i] = JulianDay.fromEpochCount(epochDay, epoch[i], perDay);
+            }
+        });
+    }
+
+    private static void fromDays(double[] days, TimeUnit unit, int offset, int length, long[] epoch, double epochDay) {
+        Objects.checkFromIndexSize(offset, length, days.length);
+        Objects.checkFromIndexSize(offset, length, epoch.length);
+        long perDay = perDay(unit);
+        run("JulianColumns.fromDays", offset, length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                epoch[i] = JulianDay.toEpochCount(days[i] - epochDay, perDay);
+            }
+        });
+    }
+
+    private static long perDay(TimeUnit unit) {
+        return unit.convert(1, TimeUnit.DAYS);
+    }
+
+    private static void run(String operation, int offset, int length, Range work) {
+        AstroBulkEvent event = new AstroBulkEvent(operation);
+        long start = Instrumentation.start();
+        if (length < PARALLEL_THRESHOLD) {
+            work.run(offset, offset + length);
+        } else {
+            ForkJoinPool.commonPool().invoke(new Chunk(offset, offset + length, work));
+        }
+        Instrumentation.finish(event, start, length, 0);
+    }
+
+    private interface Range {
+        void run(int from, int to);
+    }
+
+    @SuppressWarnings("serial") // never serialized
+    private static final class Chunk extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final Range work;
+
+        Chunk(int from, int to, Range work) {
+            this.from = from;
+            this.to = to;
+            this.work = work;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < 2 * PARALLEL_THRESHOLD) {
+                work.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Chunk(from, mid, work), new Chunk(mid, to, work));
+        }
+    }
+}
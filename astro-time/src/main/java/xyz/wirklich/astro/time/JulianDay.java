@@ -16,10 +16,12 @@
 
 package xyz.wirklich.astro.time;
 
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
 import static java.lang.Math.floor;
+import static java.lang.Math.round;
 
 
 /**
@@ -30,6 +32,17 @@ import static java.lang.Math.floor;
 
 public class JulianDay {
 
+    /**
+     * The JD of the unix epoch 1970-01-01T00:00:00Z.
+     */
+    public static final double EPOCH_JD = 2_440_587.5;
+
+    static final ZoneId UTC = ZoneId.of("UTC+0");
+
+    private static final long SECONDS_PER_DAY = 86_400;
+    private static final long MILLIS_PER_DAY = 86_400_000;
+    private static final long NANOS_PER_DAY = 86_400_000_000_000L;
+
     private double jd;
 
     public JulianDay() {
@@ -44,6 +57,10 @@ public class JulianDay {
         setDate(date);
     }
 
+    public JulianDay(JulianInstant instant) {
+        this.jd = instant.toJd();
+    }
+
     public double getJd() {
         return jd;
     }
@@ -53,6 +70,18 @@ public class JulianDay {
     }
 
     public ZonedDateTime getDate() {
+        Instrumentation.count(Instrumentation.CONVERSIONS);
+        int[] f = new int[7];
+        calendarFields(jd, f);
+        return ZonedDateTime.of(f[0], f[1], f[2], f[3], f[4], f[5], f[6], UTC);
+    }
+
+    /**
+     * The fields of {@link #getDate()} without allocation, shared with {@link JulianDayFormatter}.
+     *
+     * @param fields Receives year, month, day, hour, minute, second and nanosecond
+     */
+    static void calendarFields(double jd, int[] fields) {
 
         // this is all for gregorian (modern) calendar
 
@@ -69,18 +98,32 @@ public class JulianDay {
 
         double dayFrac = B - D - floor(30.6001 * E) + F;
         int day = (int) dayFrac;
-        FractionOfDay fod = new FractionOfDay(dayFrac - day);
+
+        // same as FractionOfDay
+        double hourInDay = (dayFrac - day) * 24;
+        int hour = (int) floor(hourInDay);
+        double minuteInHour = (hourInDay - hour) * 60;
+        int minute = (int) floor(minuteInHour);
+        double secondFrac = (minuteInHour - minute) * 60;
+        int second = (int) floor(secondFrac);
 
         if (E <= 13) {
             C -= 1;
             E += 12;
         }
-        return ZonedDateTime.of(C - 4715, E - 13, day, fod.getHour(), fod.getMinute(), fod.getSecond(), fod.getNanoSecond(), ZoneId.of("UTC+0"));
+        fields[0] = C - 4715;
+        fields[1] = E - 13;
+        fields[2] = day;
+        fields[3] = hour;
+        fields[4] = minute;
+        fields[5] = second;
+        fields[6] = (int) ((secondFrac - second) * 1e9);
     }
 
     public void setDate(ZonedDateTime date) {
+        Instrumentation.count(Instrumentation.CONVERSIONS);
 
-        ZonedDateTime utc = date.withZoneSameInstant(ZoneId.of("UTC"));
+        ZonedDateTime utc = date.withZoneSameInstant(UTC);
         int month = utc.getMonthValue();
         int year = utc.getYear();
         if (month <= 2) {
@@ -88,11 +131,11 @@ public class JulianDay {
             month += 12;
         }
         double day = utc.getDayOfMonth();
-        FractionOfDay fod = new FractionOfDay(utc.getHour(), utc.getMinute(), utc.getSecond(), utc.getNano());
+        double dayFraction = FractionOfDay.dayFraction(utc.getHour(), utc.getMinute(), utc.getSecond(), utc.getNano());
 
         // this is all for gregorian (modern) calendar
         double B = 2 - floor(year / 100) + floor(year / 400);
-        this.jd = floor(365.25 * (year + 4716)) + floor(30.6001 * (month + 1)) + day + fod.getDayFraction() + B - 1524.5;
+        this.jd = floor(365.25 * (year + 4716)) + floor(30.6001 * (month + 1)) + day + dayFraction + B - 1524.5;
     }
 
     /**
@@ -101,5 +144,74 @@ public class JulianDay {
     public double getJulianCenturyJ2000() {
         return ((jd - 2451545) / 36525);
     }
-}
 
+    // ---------------------------------------------
+    // allocation-free conversions between epoch counts and JD
+
+    public static double epochSecondToJd(long epochSecond) {
+        return fromEpochCount(EPOCH_JD, epochSecond, SECONDS_PER_DAY);
+    }
+
+    public static double epochMilliToJd(long epochMilli) {
+        return fromEpochCount(EPOCH_JD, epochMilli, MILLIS_PER_DAY);
+    }
+
+    public static double epochNanoToJd(long epochNano) {
+        return fromEpochCount(EPOCH_JD, epochNano, NANOS_PER_DAY);
+    }
+
+    public static double instantToJd(Instant instant) {
+        return fromInstant(EPOCH_JD, instant);
+    }
+
+    /**
+     * Note, a double JD near the present has a resolution of about 40 microseconds. All conversions to epoch counts are
+     * rounded to the nearest unit.
+     */
+    public static long jdToEpochSecond(double jd) {
+        return toEpochCount(jd - EPOCH_JD, SECONDS_PER_DAY);
+    }
+
+    public static long jdToEpochMilli(double jd) {
+        return toEpochCount(jd - EPOCH_JD, MILLIS_PER_DAY);
+    }
+
+    /**
+     * Only valid for the years 1678 to 2261, the range of a long epoch nano count.
+     */
+    public static long jdToEpochNano(double jd) {
+        return toEpochCount(jd - EPOCH_JD, NANOS_PER_DAY);
+    }
+
+    public static Instant jdToInstant(double jd) {
+        return toInstant(jd - EPOCH_JD);
+    }
+
+    /**
+     * The whole days are split off the count and added exactly. Only the division of the fraction of the day and the
+     * final addition round, thus the error stays within about one ulp of the JD, independent of the size of the
+     * count.
+     */
+    static double fromEpochCount(double epochDay, long count, long perDay) {
+        return epochDay + Math.floorDiv(count, perDay) + (double) Math.floorMod(count, perDay) / perDay;
+    }
+
+    static double fromInstant(double epochDay, Instant instant) {
+        long epochSecond = instant.getEpochSecond();
+        return epochDay + Math.floorDiv(epochSecond, SECONDS_PER_DAY)
+                + (Math.floorMod(epochSecond, SECONDS_PER_DAY) + instant.getNano() / 1e9) / SECONDS_PER_DAY;
+    }
+
+    /**
+     * @param daysSinceEpoch Days since 1970-01-01T00:00:00Z, the difference to the epoch is exact for any JD/MJD
+     */
+    static long toEpochCount(double daysSinceEpoch, long perDay) {
+        double whole = floor(daysSinceEpoch);
+        return (long) whole * perDay + round((daysSinceEpoch - whole) * perDay);
+    }
+
+    static Instant toInstant(double daysSinceEpoch) {
+        double whole = floor(daysSinceEpoch);
+        return Instant.ofEpochSecond((long) whole * SECONDS_PER_DAY, round((daysSinceEpoch - whole) * NANOS_PER_DAY));
+    }
+}
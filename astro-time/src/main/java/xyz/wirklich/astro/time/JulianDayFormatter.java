@@ -0,0 +1,99 @@
+package xyz.wirklich.astro.time;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @author Ralf Ulrich
+ * <p>
+ * Writes a JD as ISO-8601 UTC text in US-ASCII, e.g. {@code 2023-09-14T13:12:03.456Z}, straight into a
+ * {@code byte[]} or {@link ByteBuffer}.
+ * <p>
+ * The text is identical to {@code new JulianDay(jd).getDate().toInstant().toString()}: the fraction of the second is
+ * omitted if zero, and otherwise written with 3, 6 or 9 digits. Years beyond 9999 carry a '+', years before 0 a '-'.
+ * Nothing is allocated per call. An instance is reusable but not thread-safe.
+ */
+public final class JulianDayFormatter {
+
+    /**
+     * Upper bound of the number of bytes written by one call.
+     */
+    public static final int MAX_LENGTH = 40;
+
+    private final int[] fields = new int[7];
+    private final byte[] scratch = new byte[MAX_LENGTH];
+
+    /**
+     * @return The number of bytes written
+     * @throws IndexOutOfBoundsException If the text does not fit, then the content of {@code out} is undefined
+     */
+    public int format(double jd, byte[] out, int offset) {
+        JulianDay.calendarFields(jd, fields);
+        int p = offset;
+        int year = fields[0];
+        if (year > 9999) {
+            out[p++] = '+';
+        } else if (year < 0) {
+            out[p++] = '-';
+            year = -year;
+        }
+        p = digits(year, year > 9999 ? stringSize(year) : 4, out, p);
+        out[p++] = '-';
+        p = digits(fields[1], 2, out, p);
+        out[p++] = '-';
+        p = digits(fields[2], 2, out, p);
+        out[p++] = 'T';
+        p = digits(fields[3], 2, out, p);
+        out[p++] = ':';
+        p = digits(fields[4], 2, out, p);
+        out[p++] = ':';
+        p = digits(fields[5], 2, out, p);
+        int nano = fields[6];
+        if (nano != 0) {
+            out[p++] = '.';
+            if (nano % 1_000_000 == 0) {
+                p = digits(nano / 1_000_000, 3, out, p);
+            } else if (nano % 1_000 == 0) {
+                p = digits(nano / 1_000, 6, out, p);
+            } else {
+                p = digits(nano, 9, out, p);
+            }
+        }
+        out[p++] = 'Z';
+        return p - offset;
+    }
+
+    /**
+     * Writes at the position of the buffer and advances it.
+     *
+     * @return The number of bytes written
+     * @throws java.nio.BufferOverflowException If the text does not fit, then the buffer is unchanged
+     */
+    public int format(double jd, ByteBuffer out) {
+        int n = format(jd, scratch, 0);
+        out.put(scratch, 0, n);
+        return n;
+    }
+
+    // -----------------------------------------------
+
+    /**
+     * Zero-padded to at least {@code width} digits.
+     */
+    private static int digits(int value, int width, byte[] out, int p) {
+        int end = p + width;
+        for (int i = end - 1; i >= p; i--) {
+            out[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    private static int stringSize(int value) {
+        int size = 1;
+        while (value >= 10) {
+            value /= 10;
+            size++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,208 @@
+package xyz.wirklich.astro.time;
+
+import java.time.Instant;
+
+import static java.lang.Math.floor;
+
+/**
+ * @author Ralf Ulrich
+ * <p>
+ * Immutable, high-precision point in time on the JD scale.
+ * <p>
+ * The integer day number and the fraction of the day are stored separately. A single double JD near the present
+ * only resolves about 40 microseconds, while the two-part representation resolves better than a nanosecond for any
+ * date. The day number follows the JD convention, thus, days start at UT 12:00 and a fraction of 0.5 is midnight.
+ * <p>
+ * Instances are value-based: they can be shared freely between threads and should not be compared by identity.
+ */
+public final class JulianInstant implements Comparable<JulianInstant> {
+
+    private static final double SECONDS_PER_DAY = 86_400;
+
+    private final long day;
+    private final double fraction; // [0, 1)
+
+    private JulianInstant(long day, double fraction) {
+        this.day = day;
+        this.fraction = fraction;
+    }
+
+    /**
+     * @param day      The JD day number
+     * @param fraction The fraction of the day, any value is normalized into [0, 1) by carrying whole days
+     */
+    public static JulianInstant of(long day, double fraction) {
+        double whole = floor(fraction);
+        fraction -= whole;
+        day += (long) whole;
+        if (fraction >= 1) { // tiny negative fractions round up to 1
+            fraction = 0;
+            day += 1;
+        }
+        return new JulianInstant(day, fraction);
+    }
+
+    public static JulianInstant ofJd(double jd) {
+        double whole = floor(jd);
+        return of((long) whole, jd - whole);
+    }
+
+    public static JulianInstant ofMjd(double mjd) {
+        // MJD = JD - 2400000.5, the half day is added to the fraction only
+        double whole = floor(mjd);
+        return of((long) whole + 2_400_000, mjd - whole + 0.5);
+    }
+
+    public static JulianInstant of(JulianDay jd) {
+        return ofJd(jd.getJd());
+    }
+
+    public static JulianInstant ofEpochSecond(long epochSecond, long nanoAdjustment) {
+        long days = Math.floorDiv(epochSecond, 86_400);
+        long secondOfDay = Math.floorMod(epochSecond, 86_400);
+        // the unix epoch is JD 2440587 + 0.5
+        return of(2_440_587 + days, 0.5 + (secondOfDay + nanoAdjustment / 1e9) / SECONDS_PER_DAY);
+    }
+
+    public static JulianInstant ofEpochMilli(long epochMilli) {
+        return ofEpochSecond(Math.floorDiv(epochMilli, 1000), Math.floorMod(epochMilli, 1000) * 1_000_000L);
+    }
+
+    public static JulianInstant ofEpochNano(long epochNano) {
+        return ofEpochSecond(Math.floorDiv(epochNano, 1_000_000_000L), Math.floorMod(epochNano, 1_000_000_000L));
+    }
+
+    public static JulianInstant ofInstant(Instant instant) {
+        return ofEpochSecond(instant.getEpochSecond(), instant.getNano());
+    }
+
+    // ---------------------------------------------
+    // arithmetic
+
+    public JulianInstant plusDays(double days) {
+        double whole = floor(days);
+        return of(day + (long) whole, fraction + (days - whole));
+    }
+
+    public JulianInstant plusSeconds(double seconds) {
+        return plusDays(seconds / SECONDS_PER_DAY);
+    }
+
+    public JulianInstant plusNanos(long nanos) {
+        long days = Math.floorDiv(nanos, 86_400_000_000_000L);
+        long nanoOfDay = Math.floorMod(nanos, 86_400_000_000_000L);
+        return of(day + days, fraction + nanoOfDay / 86_400e9);
+    }
+
+    /**
+     * @return The time from this to other in units of [day], positive if other is later
+     */
+    public double daysUntil(JulianInstant other) {
+        return (other.day - day) + (other.fraction - fraction);
+    }
+
+    /**
+     * @return The time from this to other in units of [second], positive if other is later
+     */
+    public double secondsUntil(JulianInstant other) {
+        return (other.day - day) * SECONDS_PER_DAY + (other.fraction - fraction) * SECONDS_PER_DAY;
+    }
+
+    public boolean isBefore(JulianInstant other) {
+        return compareTo(other) < 0;
+    }
+
+    public boolean isAfter(JulianInstant other) {
+        return compareTo(other) > 0;
+    }
+
+    @Override
+    public int compareTo(JulianInstant other) {
+        int cmp = Long.compare(day, other.day);
+        return cmp != 0 ? cmp : Double.compare(fraction, other.fraction);
+    }
+
+    // ---------------------------------------------
+    // conversions
+
+    public double toJd() {
+        return day + fraction;
+    }
+
+    public double toMjd() {
+        return (day - 2_400_000) + (fraction - 0.5);
+    }
+
+    public JulianDay toJulianDay() {
+        return new JulianDay(toJd());
+    }
+
+    public long toEpochSecond() {
+        return (day - 2_440_587) * 86_400 + Math.floorDiv(nanoOfEpochDay(), 1_000_000_000L);
+    }
+
+    public long toEpochMilli() {
+        return (day - 2_440_587) * 86_400_000 + Math.floorDiv(nanoOfEpochDay(), 1_000_000L);
+    }
+
+    /**
+     * Only valid for the years 1678 to 2261, the range of a long epoch nano count.
+     */
+    public long toEpochNano() {
+        return (day - 2_440_587) * 86_400_000_000_000L + nanoOfEpochDay();
+    }
+
+    public Instant toInstant() {
+        return Instant.ofEpochSecond((day - 2_440_587) * 86_400, nanoOfEpochDay());
+    }
+
+    /**
+     * @return Nanoseconds relative to 00:00 UT of the civil day that ends within this JD day, may be negative
+     */
+    private long nanoOfEpochDay() {
+        return Math.round((fraction - 0.5) * 86_400e9);
+    }
+
+    /**
+     * @return This is the fractional century in the J2000 epoch.
+     */
+    public double getJulianCenturyJ2000() {
+        return ((day - 2451545) + fraction) / 36525;
+    }
+
+    /**
+     * @return The time as fraction of 24h/1d past midnight UT, thus, 0.5 is noon/12:00.
+     */
+    public double getTimePastMidnight() {
+        return fraction < 0.5 ? fraction + 0.5 : fraction - 0.5;
+    }
+
+    // ---------------------------------------------
+    // getter
+
+    public long getDay() {
+        return day;
+    }
+
+    public double getFraction() {
+        return fraction;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof JulianInstant)) return false;
+        JulianInstant other = (JulianInstant) o;
+        return day == other.day && Double.compare(fraction, other.fraction) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(day) + Double.hashCode(fraction);
+    }
+
+    @Override
+    public String toString() {
+        return "JD " + day + " + " + fraction;
+    }
+}
@@ -1,6 +1,7 @@
 package xyz.wirklich.astro.time;
 
 
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
@@ -11,6 +12,11 @@ import java.time.ZonedDateTime;
  */
 public class ModifiedJulianDate {
 
+    /**
+     * The MJD of the unix epoch 1970-01-01T00:00:00Z.
+     */
+    public static final double EPOCH_MJD = 40_587;
+
     private static final double mjdRef = 2_400_000.5;
     private static final ZonedDateTime mjdRefDate = ZonedDateTime.of(1858, 11, 17, 0, 0, 0, 0, ZoneId.of("UTC+0"));
 
@@ -32,12 +38,53 @@ public class ModifiedJulianDate {
         jd = new JulianDay(date);
     }
 
+    public ModifiedJulianDate(JulianInstant instant) {
+        jd = new JulianDay(instant);
+    }
+
     public double getMjd() {
         return jd.getJd() - mjdRef;
     }
 
     public void setMjd(double mjd) {
-        this.jd.setJd(mjd + mjdRef);
+        // replace, do not modify, the JulianDay: it may be shared with the caller of the constructor
+        this.jd = new JulianDay(mjd + mjdRef);
+    }
+
+
+    // ---------------------------------------------
+    // allocation-free conversions between epoch counts and MJD, see JulianDay
+
+    public static double epochSecondToMjd(long epochSecond) {
+        return JulianDay.fromEpochCount(EPOCH_MJD, epochSecond, 86_400);
+    }
+
+    public static double epochMilliToMjd(long epochMilli) {
+        return JulianDay.fromEpochCount(EPOCH_MJD, epochMilli, 86_400_000);
+    }
+
+    public static double epochNanoToMjd(long epochNano) {
+        return JulianDay.fromEpochCount(EPOCH_MJD, epochNano, 86_400_000_000_000L);
+    }
+
+    public static double instantToMjd(Instant instant) {
+        return JulianDay.fromInstant(EPOCH_MJD, instant);
+    }
+
+    public static long mjdToEpochSecond(double mjd) {
+        return JulianDay.toEpochCount(mjd - EPOCH_MJD, 86_400);
+    }
+
+    public static long mjdToEpochMilli(double mjd) {
+        return JulianDay.toEpochCount(mjd - EPOCH_MJD, 86_400_000);
+    }
+
+    public static long mjdToEpochNano(double mjd) {
+        return JulianDay.toEpochCount(mjd - EPOCH_MJD, 86_400_000_000_000L);
+    }
+
+    public static Instant mjdToInstant(double mjd) {
+        return JulianDay.toInstant(mjd - EPOCH_MJD);
     }
 
 
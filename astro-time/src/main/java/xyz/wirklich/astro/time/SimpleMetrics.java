@@ -0,0 +1,65 @@
+package xyz.wirklich.astro.time;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Ralf Ulrich
+ * <p>
+ * In-memory {@link AstroMetrics}: a {@link LongAdder} per counter and a {@link LatencyHistogram} per operation.
+ */
+public final class SimpleMetrics implements AstroMetrics {
+
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    @Override
+    public void count(String counter, long delta) {
+        counters.computeIfAbsent(counter, c -> new LongAdder()).add(delta);
+    }
+
+    @Override
+    public void record(String operation, long nanos) {
+        histograms.computeIfAbsent(operation, o -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * @return 0 if never counted
+     */
+    public long getCount(String counter) {
+        LongAdder adder = counters.get(counter);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * @return null if never recorded
+     */
+    public LatencyHistogram getHistogram(String operation) {
+        return histograms.get(operation);
+    }
+
+    /**
+     * @return A sorted snapshot of all counters
+     */
+    public Map<String, Long> getCounts() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((counter, adder) -> snapshot.put(counter, adder.sum()));
+        return snapshot;
+    }
+
+    public void reset() {
+        counters.clear();
+        histograms.clear();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        getCounts().forEach((counter, value) -> sb.append(counter).append(": ").append(value).append('\n'));
+        new TreeMap<>(histograms).forEach((operation, histogram) ->
+                sb.append(operation).append(": ").append(histogram).append('\n'));
+        return sb.toString();
+    }
+}
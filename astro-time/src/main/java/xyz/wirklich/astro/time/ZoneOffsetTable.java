@@ -0,0 +1,120 @@
+package xyz.wirklich.astro.time;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+
+/**
+ * @author Ralf Ulrich
+ * <p>
+ * Immutable table of the UTC offsets of one time zone over a range of years.
+ * <p>
+ * The offset transitions of the years are precomputed once from the {@link ZoneRules} into a sorted {@code long[]}
+ * of epoch seconds and an {@code int[]} of offsets. A lookup is a binary search on the primitive array, without the
+ * allocation of an {@link Instant} or {@link ZoneOffset}. Times outside of the covered years fall back to the
+ * {@link ZoneRules}, which gives the same result, only slower.
+ * <p>
+ * Instances can be shared freely between threads.
+ */
+public final class ZoneOffsetTable {
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    private final int fromYear;
+    private final int toYear;
+    private final long startEpochSecond;
+    private final long endEpochSecond;
+
+    private final long[] transitions; // epoch seconds, sorted
+    private final int[] offsets; // offsets[i] applies before transitions[i], the last one after all transitions
+
+    /**
+     * @param fromYear First covered year
+     * @param toYear   Last covered year, inclusive
+     */
+    public ZoneOffsetTable(ZoneId zone, int fromYear, int toYear) {
+        if (toYear < fromYear) {
+            throw new IllegalArgumentException("need fromYear <= toYear, got " + fromYear + " and " + toYear);
+        }
+        this.zone = zone;
+        this.rules = zone.getRules();
+        this.fromYear = fromYear;
+        this.toYear = toYear;
+        // a day of margin, so that the local dates of all covered years are covered for any offset
+        this.startEpochSecond = (LocalDate.of(fromYear, 1, 1).toEpochDay() - 1) * SECONDS_PER_DAY;
+        this.endEpochSecond = (LocalDate.of(toYear + 1, 1, 1).toEpochDay() + 1) * SECONDS_PER_DAY;
+
+        long[] times = new long[16];
+        int[] values = new int[17];
+        int count = 0;
+        Instant t = Instant.ofEpochSecond(startEpochSecond);
+        values[0] = rules.getOffset(t).getTotalSeconds();
+        ZoneOffsetTransition next;
+        while ((next = rules.nextTransition(t)) != null && next.toEpochSecond() < endEpochSecond) {
+            if (count == times.length) {
+                times = Arrays.copyOf(times, count * 2);
+                values = Arrays.copyOf(values, count * 2 + 1);
+            }
+            times[count] = next.toEpochSecond();
+            values[++count] = next.getOffsetAfter().getTotalSeconds();
+            t = next.getInstant();
+        }
+        this.transitions = Arrays.copyOf(times, count);
+        this.offsets = Arrays.copyOf(values, count + 1);
+    }
+
+    /**
+     * @return The offset from UTC in units of [second]
+     */
+    public int getOffsetSeconds(long epochSecond) {
+        if (epochSecond < startEpochSecond || epochSecond >= endEpochSecond) {
+            return rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+        }
+        int i = Arrays.binarySearch(transitions, epochSecond);
+        // at a transition the new offset applies
+        return offsets[i >= 0 ? i + 1 : -i - 1];
+    }
+
+    /**
+     * @return The offset from UTC in units of [second]
+     */
+    public int getOffsetSecondsOfMilli(long epochMilli) {
+        return getOffsetSeconds(Math.floorDiv(epochMilli, 1000));
+    }
+
+    /**
+     * @return The local date and time as milliseconds since 1970-01-01T00:00 on the local time-line, e.g. for
+     * {@code LocalDateTime.ofEpochSecond}
+     */
+    public long toLocalEpochMilli(long epochMilli) {
+        return epochMilli + getOffsetSecondsOfMilli(epochMilli) * 1000L;
+    }
+
+    // -----------------------------------------------
+    // getters
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public int getFromYear() {
+        return fromYear;
+    }
+
+    public int getToYear() {
+        return toYear;
+    }
+
+    /**
+     * @return The number of offset changes within the covered years
+     */
+    public int getTransitionCount() {
+        return transitions.length;
+    }
+}
@@ -0,0 +1,79 @@
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.time.AstroBulkEvent;
+import xyz.wirklich.astro.time.Instrumentation;
+import xyz.wirklich.astro.time.JulianDay;
+import xyz.wirklich.astro.time.SimpleMetrics;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static java.time.ZoneId.of;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+class InstrumentationTest {
+
+    @Test
+    void testMetrics() {
+        assertThat("off by default", Instrumentation.isEnabled(), is(false));
+        assertThat("no clock", Instrumentation.start(), is(0L));
+
+        SimpleMetrics metrics = new SimpleMetrics();
+        Instrumentation.setMetrics(metrics);
+        try {
+            JulianDay jd = new JulianDay(ZonedDateTime.of(2023, 9, 14, 13, 12, 3, 0, of("UTC+0")));
+            jd.getDate();
+            assertThat("conversions", metrics.getCount(Instrumentation.CONVERSIONS), is(2L));
+
+            AstroBulkEvent event = new AstroBulkEvent("test");
+            long start = Instrumentation.start();
+            Instrumentation.finish(event, start, 100, 3);
+            assertThat("evaluations", metrics.getCount(Instrumentation.EVALUATIONS), is(100L));
+            assertThat("nan", metrics.getCount(Instrumentation.NAN_RESULTS), is(3L));
+            assertThat("latency", metrics.getHistogram("test").getCount(), is(1L));
+            assertThat("snapshot", metrics.getCounts().size(), is(3));
+        } finally {
+            Instrumentation.setMetrics(null);
+        }
+        new JulianDay(2460000).getDate();
+        assertThat("off", metrics.getCount(Instrumentation.CONVERSIONS), is(2L));
+    }
+
+    @Test
+    void testCountNaN() {
+        double[] values = {1, Double.NaN, 2, Double.NaN, Double.NaN};
+        assertThat("all", Instrumentation.countNaN(values, 0, 5), is(3L));
+        assertThat("range", Instrumentation.countNaN(values, 2, 4), is(1L));
+        assertThat("float", Instrumentation.countNaN(new float[]{Float.NaN, 0}, 0, 2), is(1L));
+    }
+
+    @Test
+    void testFlightRecorder() throws Exception {
+        Path file = Files.createTempFile("astro", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(AstroBulkEvent.class);
+            recording.start();
+            AstroBulkEvent event = new AstroBulkEvent("recorded");
+            Instrumentation.finish(event, Instrumentation.start(), 42, 1);
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            RecordedEvent recorded = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("xyz.wirklich.astro.Bulk"))
+                    .findFirst().orElse(null);
+            assertThat("event", recorded, notNullValue());
+            assertThat("operation", recorded.getString("operation"), is("recorded"));
+            assertThat("rows", recorded.getLong("rows"), is(42L));
+            assertThat("nan", recorded.getLong("nanResults"), is(1L));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.time.JulianColumns;
+import xyz.wirklich.astro.time.JulianDay;
+import xyz.wirklich.astro.time.ModifiedJulianDate;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JulianColumnsTest {
+
+    private static long[] epochMillis(int n) {
+        Random rnd = new Random(22);
+        long[] epoch = new long[n];
+        for (int i = 0; i < n; i++) {
+            epoch[i] = (long) ((rnd.nextDouble() - 0.3) * 1e13);
+        }
+        return epoch;
+    }
+
+    @Test
+    void testMillis() {
+        // above the parallel threshold
+        int n = 3 * JulianColumns.PARALLEL_THRESHOLD + 17;
+        long[] epoch = epochMillis(n);
+        double[] jd = new double[n];
+        double[] mjd = new double[n];
+        JulianColumns.toJd(epoch, TimeUnit.MILLISECONDS, 0, n, jd);
+        JulianColumns.toMjd(epoch, TimeUnit.MILLISECONDS, 0, n, mjd);
+        long[] fromJd = new long[n];
+        long[] fromMjd = new long[n];
+        JulianColumns.fromJd(jd, TimeUnit.MILLISECONDS, 0, n, fromJd);
+        JulianColumns.fromMjd(mjd, TimeUnit.MILLISECONDS, 0, n, fromMjd);
+        for (int i = 0; i < n; i++) {
+            assertThat("jd " + i, jd[i], is(JulianDay.epochMilliToJd(epoch[i])));
+            assertThat("mjd " + i, mjd[i], is(ModifiedJulianDate.epochMilliToMjd(epoch[i])));
+            assertThat("epoch from jd " + i, fromJd[i], is(JulianDay.jdToEpochMilli(jd[i])));
+            assertThat("epoch from mjd " + i, fromMjd[i], is(ModifiedJulianDate.mjdToEpochMilli(mjd[i])));
+        }
+    }
+
+    @Test
+    void testUnits() {
+        int n = 1000;
+        long[] epoch = epochMillis(n);
+        for (int i = 0; i < n; i++) {
+            epoch[i] /= 1000;
+        }
+        double[] jd = new double[n];
+        JulianColumns.toJd(epoch, TimeUnit.SECONDS, 0, n, jd);
+        long[] seconds = new long[n];
+        long[] nanos = new long[n];
+        JulianColumns.fromJd(jd, TimeUnit.SECONDS, 0, n, seconds);
+        JulianColumns.fromJd(jd, TimeUnit.NANOSECONDS, 0, n, nanos);
+        for (int i = 0; i < n; i++) {
+            assertThat("jd " + i, jd[i], is(JulianDay.epochSecondToJd(epoch[i])));
+            assertThat("round trip " + i, seconds[i], is(epoch[i]));
+            assertThat("nanos " + i, nanos[i], is(JulianDay.jdToEpochNano(jd[i])));
+        }
+    }
+
+    @Test
+    void testRange() {
+        long[] epoch = epochMillis(10);
+        double[] jd = new double[10];
+        JulianColumns.toJd(epoch, TimeUnit.MILLISECONDS, 3, 4, jd);
+        for (int i = 0; i < 10; i++) {
+            double expected = i >= 3 && i < 7 ? JulianDay.epochMilliToJd(epoch[i]) : 0;
+            assertThat("jd " + i, jd[i], is(expected));
+        }
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> JulianColumns.toJd(epoch, TimeUnit.MILLISECONDS, 8, 4, jd));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> JulianColumns.fromMjd(jd, TimeUnit.MILLISECONDS, 0, 10, new long[5]));
+    }
+}
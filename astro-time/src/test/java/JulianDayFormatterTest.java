@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.time.JulianDay;
+import xyz.wirklich.astro.time.JulianDayFormatter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class JulianDayFormatterTest {
+
+    private static String expected(double jd) {
+        return new JulianDay(jd).getDate().toInstant().toString();
+    }
+
+    @Test
+    void testRandom() {
+        JulianDayFormatter formatter = new JulianDayFormatter();
+        byte[] out = new byte[JulianDayFormatter.MAX_LENGTH + 5];
+        Random rnd = new Random(22);
+        for (int i = 0; i < 100000; i++) {
+            double jd = 2_000_000 + rnd.nextDouble() * 1_000_000;
+            int n = formatter.format(jd, out, 5);
+            assertThat("jd " + jd, new String(out, 5, n, StandardCharsets.US_ASCII), is(expected(jd)));
+        }
+    }
+
+    @Test
+    void testSpecial() {
+        JulianDayFormatter formatter = new JulianDayFormatter();
+        byte[] out = new byte[JulianDayFormatter.MAX_LENGTH];
+        double[] jds = {
+                2460202.05003, // 2023-09-14
+                JulianDay.EPOCH_JD, // no fraction
+                JulianDay.epochMilliToJd(1_694_697_123_000L), // whole seconds
+                JulianDay.epochMilliToJd(1_694_697_123_250L),
+                1721057.5, // year 0
+                1000000.25, // year -1975
+                5373484.5, // year 10000
+                1e8 // year 269075
+        };
+        for (double jd : jds) {
+            int n = formatter.format(jd, out, 0);
+            assertThat("jd " + jd, new String(out, 0, n, StandardCharsets.US_ASCII), is(expected(jd)));
+        }
+        assertThat(expected(JulianDay.EPOCH_JD), is("1970-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void testByteBuffer() {
+        JulianDayFormatter formatter = new JulianDayFormatter();
+        ByteBuffer buffer = ByteBuffer.allocate(1000);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            double jd = 2460202.05003 + i * 0.37;
+            formatter.format(jd, buffer);
+            buffer.put((byte) '\n');
+            expected.append(expected(jd)).append('\n');
+        }
+        buffer.flip();
+        assertThat(StandardCharsets.US_ASCII.decode(buffer).toString(), is(expected.toString()));
+    }
+}
@@ -1,6 +1,7 @@
 import xyz.wirklich.astro.time.JulianDay;
 
 import org.junit.jupiter.api.Test;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import static java.time.ZoneId.of;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -57,4 +58,24 @@ class JulianDayTest {
         assertThat("The Date for JD 2451545", jd2.getDate(), equalTo(testDate2));
     }
 
-}
\ No newline at end of file
+    @Test
+    void testEpoch() {
+        assertThat("JD of the unix epoch", JulianDay.epochSecondToJd(0), is(2440587.5));
+        assertThat("JD of 1.1.2000 12:00:00UT", JulianDay.epochMilliToJd(946_728_000_000L), is(2451545.0));
+        assertThat("JD of 1.1.2000 12:00:00UT", JulianDay.epochNanoToJd(946_728_000_000_000_000L), is(2451545.0));
+        assertThat("JD before the epoch", JulianDay.epochSecondToJd(-43_200), is(2440587.0));
+
+        ZonedDateTime date = ZonedDateTime.of(2022, 7, 22, 1, 0, 0, 0, of("UTC+0"));
+        assertThat("Same as setDate", JulianDay.instantToJd(date.toInstant()), closeTo(new JulianDay(date).getJd(), 1e-9));
+
+        assertThat("Epoch second of JD 2451545", JulianDay.jdToEpochSecond(2451545.0), is(946_728_000L));
+        assertThat("Instant of JD 2451545", JulianDay.jdToInstant(2451545.0), equalTo(Instant.parse("2000-01-01T12:00:00Z")));
+
+        for (long ms = -5_000_000_000_000L; ms < 5_000_000_000_000L; ms += 123_456_789_013L) {
+            assertThat("Round-trip of epoch milli " + ms, JulianDay.jdToEpochMilli(JulianDay.epochMilliToJd(ms)), is(ms));
+        }
+        long nano = 1_663_161_123_456_789_012L;
+        assertThat("Nano resolution", (double) JulianDay.jdToEpochNano(JulianDay.epochNanoToJd(nano)), closeTo(nano, 50_000));
+    }
+
+}
@@ -0,0 +1,77 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.time.JulianDay;
+import xyz.wirklich.astro.time.JulianInstant;
+import xyz.wirklich.astro.time.ModifiedJulianDate;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+
+import static java.time.ZoneId.of;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class JulianInstantTest {
+
+    @Test
+    void testCreate() {
+        JulianInstant j2000 = JulianInstant.ofJd(2451545.25);
+        assertThat("Day number", j2000.getDay(), is(2451545L));
+        assertThat("Fraction", j2000.getFraction(), is(0.25));
+        assertThat("JD", j2000.toJd(), is(2451545.25));
+
+        JulianInstant normalized = JulianInstant.of(2451545, -0.75);
+        assertThat("Normalized", normalized, equalTo(j2000.plusDays(-1)));
+
+        assertThat("MJD 0", JulianInstant.ofMjd(0), equalTo(JulianInstant.ofJd(2400000.5)));
+        assertThat("MJD", JulianInstant.ofMjd(51544.5).toMjd(), is(51544.5));
+        assertThat("Epoch", JulianInstant.ofEpochSecond(0, 0), equalTo(JulianInstant.ofJd(JulianDay.EPOCH_JD)));
+
+        ZonedDateTime date = ZonedDateTime.of(2022, 7, 22, 1, 0, 0, 0, of("UTC+0"));
+        assertThat("Same as JulianDay", JulianInstant.ofInstant(date.toInstant()).toJd(), closeTo(new JulianDay(date).getJd(), 1e-9));
+        assertThat("Julian Century", JulianInstant.ofInstant(date.toInstant()).getJulianCenturyJ2000(), closeTo(0.22553160, 0.00001));
+        assertThat("Time past midnight", JulianInstant.ofInstant(date.toInstant()).getTimePastMidnight(), closeTo(1. / 24, 1e-15));
+    }
+
+    @Test
+    void testPrecision() {
+        Instant instant = Instant.parse("2023-09-14T13:12:03.123456789Z");
+        JulianInstant ji = JulianInstant.ofInstant(instant);
+        assertThat("Nanosecond round-trip", ji.toInstant(), equalTo(instant));
+        assertThat("Epoch nano", ji.toEpochNano(), is(instant.getEpochSecond() * 1_000_000_000L + instant.getNano()));
+        assertThat("Epoch milli", ji.toEpochMilli(), is(instant.toEpochMilli()));
+        assertThat("Epoch second", ji.toEpochSecond(), is(instant.getEpochSecond()));
+
+        Instant before = Instant.parse("1969-12-31T23:59:59.999999999Z");
+        assertThat("Before the epoch", JulianInstant.ofInstant(before).toInstant(), equalTo(before));
+        assertThat("Epoch second before the epoch", JulianInstant.ofInstant(before).toEpochSecond(), is(-1L));
+
+        // a million steps of one microsecond stay well within a microsecond
+        JulianInstant t = ji;
+        for (int i = 0; i < 1_000_000; i++) {
+            t = t.plusNanos(1000);
+        }
+        long expected = ji.toEpochNano() + 1_000_000_000L;
+        assertThat("Accumulated steps", (double) t.toEpochNano(), closeTo(expected, 1000));
+        assertThat("Difference", ji.secondsUntil(t), closeTo(1, 1e-6));
+    }
+
+    @Test
+    void testArithmetic() {
+        JulianInstant a = JulianInstant.ofEpochMilli(1_700_000_000_000L);
+        JulianInstant b = a.plusSeconds(86_400 * 3.5);
+        assertThat("Days until", a.daysUntil(b), closeTo(3.5, 1e-12));
+        assertThat("Seconds until", b.secondsUntil(a), closeTo(-86_400 * 3.5, 1e-6));
+        assertThat("Compare", a.compareTo(b), lessThan(0));
+        assertThat("Before", a.isBefore(b), is(true));
+        assertThat("After", a.isAfter(b), is(false));
+        assertThat("Equal", a.plusDays(-1).plusDays(1), equalTo(a));
+        assertThat("Back and forth", a.plusSeconds(-1).plusSeconds(1).secondsUntil(a), closeTo(0, 1e-9));
+        assertThat("Hash", JulianInstant.ofJd(2451545.5).hashCode(), is(JulianInstant.of(2451545, 0.5).hashCode()));
+    }
+
+    @Test
+    void testModifiedJulianDate() {
+        JulianInstant ji = JulianInstant.ofMjd(60000.25);
+        assertThat("MJD", new ModifiedJulianDate(ji).getMjd(), closeTo(60000.25, 1e-9));
+    }
+}
@@ -0,0 +1,59 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.time.LatencyHistogram;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat("empty", histogram.getPercentile(50), is(0L));
+        assertThat("empty mean", Double.isNaN(histogram.getMean()), is(true));
+
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v * 1000);
+        }
+        assertThat("count", histogram.getCount(), is(100_000L));
+        assertThat("max", histogram.getMax(), is(100_000_000L));
+        assertThat("mean", histogram.getMean(), closeTo(50_000_500, 1e-3));
+        // relative resolution of 1/16
+        assertThat("p50", (double) histogram.getPercentile(50), closeTo(50_000_000, 50_000_000. / 16));
+        assertThat("p99", (double) histogram.getPercentile(99), closeTo(99_000_000, 99_000_000. / 16));
+        assertThat("p100", histogram.getPercentile(100), is(100_000_000L));
+        assertThat("p0", (double) histogram.getPercentile(0), closeTo(1000, 1000. / 16));
+
+        histogram.reset();
+        assertThat("reset", histogram.getCount(), is(0L));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(101));
+    }
+
+    @Test
+    void testRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random rnd = new Random(6);
+        for (int i = 0; i < 10000; i++) {
+            long v = rnd.nextLong() >>> rnd.nextInt(63);
+            histogram.record(v);
+        }
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertThat("count", histogram.getCount(), is(10002L));
+        assertThat("max", histogram.getMax(), is(Long.MAX_VALUE));
+        assertThat("min", histogram.getPercentile(0), is(0L));
+    }
+
+    @Test
+    void testConcurrent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        IntStream.range(0, 400_000).parallel().forEach(i -> histogram.record(i % 1000));
+        assertThat("count", histogram.getCount(), is(400_000L));
+        assertThat("max", histogram.getMax(), is(999L));
+    }
+}
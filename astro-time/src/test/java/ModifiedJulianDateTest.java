@@ -1,6 +1,8 @@
 import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.time.JulianDay;
 import xyz.wirklich.astro.time.ModifiedJulianDate;
 
+import java.time.Instant;
 import java.time.ZonedDateTime;
 
 import static java.time.ZoneId.of;
@@ -36,6 +38,27 @@ class ModifiedJulianDateTest {
         jd3.setMjd(1000);
         assertThat("Set MJD", jd3.getMjd(), closeTo(1000, 0.0001));
 
+        JulianDay shared = new JulianDay(2_451_545.0);
+        ModifiedJulianDate jd4 = new ModifiedJulianDate(shared);
+        jd4.setMjd(0);
+        assertThat("Set MJD does not modify the wrapped JulianDay", shared.getJd(), is(2_451_545.0));
+
+    }
+
+    @Test
+    void testEpoch() {
+        assertThat("MJD of the unix epoch", ModifiedJulianDate.epochSecondToMjd(0), is(40587.));
+        assertThat("MJD of 17.11.1858", ModifiedJulianDate.instantToMjd(Instant.parse("1858-11-17T00:00:00Z")), is(0.));
+        assertThat("MJD of 1.1.2000 12:00:00UT", ModifiedJulianDate.epochMilliToMjd(946_728_000_000L), is(51544.5));
+        assertThat("MJD of 1.1.2000 12:00:00UT", ModifiedJulianDate.epochNanoToMjd(946_728_000_000_000_000L), is(51544.5));
+
+        assertThat("Epoch second of MJD 51544.5", ModifiedJulianDate.mjdToEpochSecond(51544.5), is(946_728_000L));
+        assertThat("Epoch nano of MJD 51544.5", ModifiedJulianDate.mjdToEpochNano(51544.5), is(946_728_000_000_000_000L));
+        assertThat("Instant of MJD 0", ModifiedJulianDate.mjdToInstant(0), equalTo(Instant.parse("1858-11-17T00:00:00Z")));
+
+        for (long ms = -5_000_000_000_000L; ms < 5_000_000_000_000L; ms += 123_456_789_013L) {
+            assertThat("Round-trip of epoch milli " + ms, ModifiedJulianDate.mjdToEpochMilli(ModifiedJulianDate.epochMilliToMjd(ms)), is(ms));
+        }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+import org.junit.jupiter.api.Test;
+import xyz.wirklich.astro.time.ZoneOffsetTable;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ZoneOffsetTableTest {
+
+    private static final String[] ZONES = {"Europe/Berlin", "America/New_York", "Australia/Lord_Howe",
+            "Asia/Kolkata", "Pacific/Apia", "America/Santiago", "UTC", "+05:45"};
+
+    @Test
+    void testOffsets() {
+        Random rnd = new Random(4);
+        long from = ZonedDateTime.of(2000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+        long to = ZonedDateTime.of(2031, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+        for (String id : ZONES) {
+            ZoneId zone = ZoneId.of(id);
+            ZoneOffsetTable table = new ZoneOffsetTable(zone, 2000, 2030);
+            for (int i = 0; i < 20000; i++) {
+                // within the table and beyond
+                long t = from - 86400 * 400 + (long) (rnd.nextDouble() * (to - from + 86400 * 800));
+                assertThat(id + " " + t, table.getOffsetSeconds(t),
+                        is(zone.getRules().getOffset(Instant.ofEpochSecond(t)).getTotalSeconds()));
+            }
+        }
+    }
+
+    @Test
+    void testTransitions() {
+        ZoneId zone = ZoneId.of("Europe/Berlin");
+        ZoneOffsetTable table = new ZoneOffsetTable(zone, 2023, 2023);
+        assertThat("transitions", table.getTransitionCount(), is(2));
+
+        // 2023-03-26 01:00Z the clocks jump from +1 to +2
+        long spring = ZonedDateTime.of(2023, 3, 26, 1, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+        assertThat("before", table.getOffsetSeconds(spring - 1), is(3600));
+        assertThat("at", table.getOffsetSeconds(spring), is(7200));
+        assertThat("local", table.toLocalEpochMilli(spring * 1000),
+                is(LocalDateTime.of(2023, 3, 26, 3, 0).toEpochSecond(ZoneOffset.UTC) * 1000));
+        assertThat("millis before", table.getOffsetSecondsOfMilli(spring * 1000 - 1), is(3600));
+
+        assertThat("fixed", new ZoneOffsetTable(ZoneId.of("Asia/Kolkata"), 1990, 2050).getTransitionCount(), is(0));
+        assertThrows(IllegalArgumentException.class, () -> new ZoneOffsetTable(zone, 2024, 2023));
+    }
+}